@@ -0,0 +1,52 @@
+package com.bcnc.payments.adapter.in.rest.encoder;
+
+import com.bcnc.payments.domain.price.CurrentPrice;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CurrentPriceJsonEncoderBenchmark {
+
+    private final CurrentPrice price = CurrentPrice.builder()
+            .productId(35455L)
+            .brandId(1L)
+            .priceList(4L)
+            .startDate(LocalDateTime.parse("2020-06-15T16:00:00"))
+            .endDate(LocalDateTime.parse("2020-12-31T23:59:59"))
+            .price(BigDecimal.valueOf(38.95))
+            .build();
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final CurrentPriceJsonEncoder encoder =
+            new CurrentPriceJsonEncoder(objectMapper, new SimpleMeterRegistry(), true, 1000);
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(price);
+    }
+
+    @Benchmark
+    public byte[] cachedBytes() {
+        return encoder.encode(price).body();
+    }
+}
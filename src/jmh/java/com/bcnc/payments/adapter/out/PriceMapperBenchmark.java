@@ -0,0 +1,69 @@
+package com.bcnc.payments.adapter.out;
+
+import com.bcnc.payments.adapter.out.model.CurrentPriceEntity;
+import com.bcnc.payments.adapter.out.model.PriceEntity;
+import com.bcnc.payments.domain.price.CurrentPrice;
+import com.bcnc.payments.domain.price.Price;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceMapperBenchmark {
+
+    private final PriceMapper priceMapper = Mappers.getMapper(PriceMapper.class);
+
+    private final Price price = Price.builder()
+            .id(4L)
+            .brandId(1L)
+            .startDate(LocalDateTime.parse("2020-06-15T16:00:00"))
+            .endDate(LocalDateTime.parse("2020-12-31T23:59:59"))
+            .priceList(4L)
+            .productId(35455L)
+            .priority(1)
+            .price(BigDecimal.valueOf(38.95))
+            .curr("EUR")
+            .build();
+
+    private final PriceEntity priceEntity = priceMapper.fromPriceToPriceEntity(price);
+
+    private final CurrentPriceEntity currentPriceEntity = CurrentPriceEntity.builder()
+            .productId(35455L)
+            .brandId(1L)
+            .priceList(4L)
+            .startDate(LocalDateTime.parse("2020-06-15T16:00:00"))
+            .endDate(LocalDateTime.parse("2020-12-31T23:59:59"))
+            .price(BigDecimal.valueOf(38.95))
+            .build();
+
+    @Benchmark
+    public Price fromPriceEntityToPrice() {
+        return priceMapper.fromPriceEntityToPrice(priceEntity);
+    }
+
+    @Benchmark
+    public PriceEntity fromPriceToPriceEntity() {
+        return priceMapper.fromPriceToPriceEntity(price);
+    }
+
+    @Benchmark
+    public CurrentPrice fromCurrentPriceEntityToCurrentPrice() {
+        return priceMapper.fromCurrentPriceEntityToCurrentPrice(currentPriceEntity);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bcnc.payments.application;
+
+import com.bcnc.payments.PaymentsTestApplication;
+import com.bcnc.payments.application.cache.PriceTimelineCache;
+import com.bcnc.payments.domain.price.CurrentPrice;
+import com.bcnc.payments.domain.price.PriceKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceServiceBenchmark {
+    private static final long PRODUCT_ID = 35455L;
+    private static final long BRAND_ID = 1L;
+    private static final LocalDateTime DATE = LocalDateTime.parse("2020-06-14T16:00:00");
+
+    private ConfigurableApplicationContext context;
+    private PriceService priceService;
+    private PriceTimelineCache priceTimelineCache;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(PaymentsTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "grpc.server.port=-1",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "logging.level.com.bcnc.payments=WARN")
+                .run();
+        priceService = context.getBean(PriceService.class);
+        priceTimelineCache = context.getBean(PriceTimelineCache.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CurrentPrice getCurrentPriceCacheHit() {
+        return priceService.getCurrentPrice(PRODUCT_ID, BRAND_ID, DATE).block();
+    }
+
+    @Benchmark
+    public CurrentPrice getCurrentPriceCacheMiss() {
+        priceTimelineCache.invalidate(new PriceKey(PRODUCT_ID, BRAND_ID));
+        return priceService.getCurrentPrice(PRODUCT_ID, BRAND_ID, DATE).block();
+    }
+}
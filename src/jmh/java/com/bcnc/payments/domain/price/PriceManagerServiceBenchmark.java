@@ -0,0 +1,85 @@
+package com.bcnc.payments.domain.price;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceManagerServiceBenchmark {
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Param({"10", "1000", "100000"})
+    private int existingPrices;
+
+    private final PriceManagerService priceManager = new PriceManagerService();
+    private List<Price> prices;
+    private PriceTimeline timeline;
+    private Price overlapping;
+    private Price free;
+
+    private static Price price(long id, LocalDateTime start, LocalDateTime end) {
+        return Price.builder()
+                .id(id)
+                .brandId(1L)
+                .startDate(start)
+                .endDate(end)
+                .priceList(1L)
+                .productId(35455L)
+                .priority(0)
+                .price(BigDecimal.valueOf(35.50))
+                .curr("EUR")
+                .build();
+    }
+
+    @Setup
+    public void setUp() {
+        prices = new ArrayList<>(existingPrices);
+        for (int i = 0; i < existingPrices; i++) {
+            prices.add(price(i, ORIGIN.plusHours(i), ORIGIN.plusHours(i).plusMinutes(59)));
+        }
+        timeline = PriceTimeline.of(prices);
+        LocalDateTime last = ORIGIN.plusHours(existingPrices - 1);
+        overlapping = price(-1L, last.plusMinutes(30), last.plusHours(2));
+        free = price(-1L, last.plusHours(1), last.plusHours(2));
+    }
+
+    @Benchmark
+    public Boolean doesPriceOverlapMatchingLast() {
+        return priceManager.doesPriceOverlap(Flux.fromIterable(prices), overlapping).block();
+    }
+
+    @Benchmark
+    public Boolean doesPriceOverlapNoMatch() {
+        return priceManager.doesPriceOverlap(Flux.fromIterable(prices), free).block();
+    }
+
+    @Benchmark
+    public boolean doesPriceOverlapTimelineMatchingLast() {
+        return priceManager.doesPriceOverlap(timeline, overlapping);
+    }
+
+    @Benchmark
+    public boolean doesPriceOverlapTimelineNoMatch() {
+        return priceManager.doesPriceOverlap(timeline, free);
+    }
+}
@@ -0,0 +1,139 @@
+package com.bcnc.payments.adapter.in.actuator;
+
+import com.bcnc.payments.application.profiling.PriceLookupEvent;
+import com.bcnc.payments.application.profiling.PriceOverlapCheckEvent;
+import com.bcnc.payments.application.profiling.PriceQueryEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.Access;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts a bounded flight recording with the price events enabled and streams it back as a {@code .jfr} file.
+ * The recording stops by itself after its duration; stopping it earlier returns what was recorded so far.
+ * The endpoint is off unless {@code management.endpoint.jfr.access} grants access, and recordings leave out the
+ * events that carry the environment, system properties and command lines of the process.
+ */
+@Component
+@Endpoint(id = "jfr", defaultAccess = Access.NONE)
+public class JfrRecordingEndpoint {
+    private static final String RECORDING_NAME = "prices";
+    static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.InitialSecurityProperty",
+            "jdk.JVMInformation",
+            "jdk.SystemProcess",
+            "jdk.ProcessStart");
+
+    private final String settings;
+    private final Duration defaultDuration;
+    private final Duration maximumDuration;
+    private final DataSize maximumSize;
+    private Recording recording;
+    private Path lastDump;
+
+    public JfrRecordingEndpoint(@Value("${prices.profiling.settings:profile}") String settings,
+                                @Value("${prices.profiling.default-duration:60s}") Duration defaultDuration,
+                                @Value("${prices.profiling.maximum-duration:5m}") Duration maximumDuration,
+                                @Value("${prices.profiling.maximum-size:100MB}") DataSize maximumSize) {
+        this.settings = settings;
+        this.defaultDuration = defaultDuration;
+        this.maximumDuration = maximumDuration;
+        this.maximumSize = maximumSize;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording != null ? recording.getState().name() : "NONE");
+        if (recording != null) {
+            status.put("startTime", recording.getStartTime());
+            status.put("duration", recording.getDuration());
+            status.put("maximumSize", recording.getMaxSize());
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Long seconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(status(), HttpStatus.CONFLICT.value());
+        }
+        discard();
+        Duration requested = seconds != null && seconds > 0 ? Duration.ofSeconds(seconds) : defaultDuration;
+        recording = new Recording(configuration());
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setDuration(requested.compareTo(maximumDuration) > 0 ? maximumDuration : requested);
+        recording.setMaxSize(maximumSize.toBytes());
+        recording.enable(PriceLookupEvent.class);
+        recording.enable(PriceQueryEvent.class);
+        recording.enable(PriceOverlapCheckEvent.class);
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.start();
+        return new WebEndpointResponse<>(status());
+    }
+
+    @DeleteOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> stop() throws IOException {
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        deleteLastDump();
+        lastDump = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+        lastDump.toFile().deleteOnExit();
+        recording.dump(lastDump);
+        discard();
+        return new WebEndpointResponse<>(new FileSystemResource(lastDump));
+    }
+
+    private Configuration configuration() {
+        try {
+            return Configuration.getConfiguration(settings);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (ParseException ex) {
+            throw new IllegalStateException("Invalid JFR settings " + settings, ex);
+        }
+    }
+
+    private void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private void deleteLastDump() throws IOException {
+        if (lastDump != null) {
+            Files.deleteIfExists(lastDump);
+            lastDump = null;
+        }
+    }
+}
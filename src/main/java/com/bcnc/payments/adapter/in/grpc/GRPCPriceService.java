@@ -1,43 +1,83 @@
 package com.bcnc.payments.adapter.in.grpc;
 
+import com.bcnc.payments.adapter.in.grpc.proto.ExportPricesRequest;
 import com.bcnc.payments.adapter.in.grpc.proto.GetCurrentPriceByProductAndBrandRequest;
+import com.bcnc.payments.adapter.in.grpc.proto.GetCurrentPricesRequest;
+import com.bcnc.payments.adapter.in.grpc.proto.GetCurrentPricesResponse;
+import com.bcnc.payments.adapter.in.grpc.proto.GetPriceTimelineRequest;
+import com.bcnc.payments.adapter.in.grpc.proto.GetPriceTimelineResponse;
+import com.bcnc.payments.adapter.in.grpc.proto.PriceChangeRecord;
+import com.bcnc.payments.adapter.in.grpc.proto.PriceLookupResult;
+import com.bcnc.payments.adapter.in.grpc.proto.PriceRecord;
 import com.bcnc.payments.adapter.in.grpc.proto.PriceResponse;
 import com.bcnc.payments.adapter.in.grpc.proto.PriceServiceGrpc;
+import com.bcnc.payments.adapter.in.grpc.proto.StreamPriceChangesRequest;
+import com.bcnc.payments.adapter.in.grpc.proto.UpdatePriceRequest;
+import com.bcnc.payments.adapter.in.rest.dto.PriceDTO;
+import com.bcnc.payments.adapter.in.rest.mapper.PriceDtoMapper;
 import com.bcnc.payments.domain.price.CurrentPrice;
+import com.bcnc.payments.domain.price.CurrentPriceResult;
+import com.bcnc.payments.domain.price.InvalidPriceException;
+import com.bcnc.payments.domain.price.PriceChange;
+import com.bcnc.payments.domain.price.PriceLookup;
 import com.bcnc.payments.domain.price.PriceNotFoundException;
+import com.bcnc.payments.domain.price.PriceOverlappingException;
+import com.bcnc.payments.port.in.rest.RestPriceChangePort;
 import com.bcnc.payments.port.in.rest.RestPricePort;
-import com.google.protobuf.Timestamp;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import net.devh.boot.grpc.server.service.GrpcService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 @GrpcService
 public class GRPCPriceService extends PriceServiceGrpc.PriceServiceImplBase {
+    private static final int STREAM_CONCURRENCY = 64;
+
+    private static final int DEFAULT_CHANGES_LIMIT = 500;
+
     private final RestPricePort restPricePort;
+    private final RestPriceChangePort restPriceChangePort;
+    private final PriceResponseCache priceResponseCache;
+    private final PriceDtoMapper priceDtoMapper;
+    private final Validator validator;
 
-    public GRPCPriceService(RestPricePort restPricePort) {
+    public GRPCPriceService(RestPricePort restPricePort,
+                            RestPriceChangePort restPriceChangePort,
+                            PriceResponseCache priceResponseCache,
+                            PriceDtoMapper priceDtoMapper,
+                            Validator validator) {
         this.restPricePort = restPricePort;
+        this.restPriceChangePort = restPriceChangePort;
+        this.priceResponseCache = priceResponseCache;
+        this.priceDtoMapper = priceDtoMapper;
+        this.validator = validator;
     }
 
     @Override
     public void getCurrentPriceByProductAndBrand(
             GetCurrentPriceByProductAndBrandRequest request,
             StreamObserver<PriceResponse> responseObserver) {
-        Timestamp timestamp = request.getDate();
-        Instant instant = Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
-        LocalDateTime date = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        LocalDateTime date = PriceResponseMapper.toLocalDateTime(request.getDate());
         Mono<CurrentPrice> currentPrice = restPricePort.getCurrentPrice(request.getProductId(), request.getBrandId(), date);
 
         currentPrice
                 .map(
                         p -> {
-                            PriceResponse response = PriceResponseMapper.toResponse(p);
+                            PriceResponse response = priceResponseCache.get(p);
                             responseObserver.onNext(response);
                             responseObserver.onCompleted();
                             return response;
@@ -51,4 +91,167 @@ public class GRPCPriceService extends PriceServiceGrpc.PriceServiceImplBase {
                         })
                 .subscribe();
     }
+
+    @Override
+    public void getCurrentPrices(
+            GetCurrentPricesRequest request,
+            StreamObserver<GetCurrentPricesResponse> responseObserver) {
+        if (request.getRequestsCount() > PriceLookup.MAX_BATCH_SIZE) {
+            responseObserver.onError(
+                    new StatusRuntimeException(Status.INVALID_ARGUMENT.withDescription(
+                            String.format("A batch cannot contain more than %d price lookups.", PriceLookup.MAX_BATCH_SIZE))));
+            return;
+        }
+        List<PriceLookup> lookups = request.getRequestsList().stream()
+                .map(lookup -> PriceLookup.builder()
+                        .productId(lookup.getProductId())
+                        .brandId(lookup.getBrandId())
+                        .date(PriceResponseMapper.toLocalDateTime(lookup.getDate()))
+                        .build())
+                .toList();
+
+        restPricePort.getCurrentPrices(lookups)
+                .map(result -> PriceResponseMapper.toResult(result, priceResponseCache::get))
+                .collectList()
+                .subscribe(
+                        results -> {
+                            responseObserver.onNext(GetCurrentPricesResponse.newBuilder().addAllResults(results).build());
+                            responseObserver.onCompleted();
+                        },
+                        ex -> responseObserver.onError(
+                                new StatusRuntimeException(Status.INTERNAL.withDescription(ex.getMessage()))));
+    }
+
+    @Override
+    public StreamObserver<GetCurrentPriceByProductAndBrandRequest> streamCurrentPrices(
+            StreamObserver<PriceLookupResult> responseObserver) {
+        ServerCallStreamObserver<PriceLookupResult> serverObserver =
+                (ServerCallStreamObserver<PriceLookupResult>) responseObserver;
+        serverObserver.disableAutoRequest();
+
+        AtomicReference<FluxSink<GetCurrentPriceByProductAndBrandRequest>> requests = new AtomicReference<>();
+        Flux.<GetCurrentPriceByProductAndBrandRequest>create(sink -> {
+                    requests.set(sink);
+                    sink.onRequest(n -> serverObserver.request((int) Math.min(n, Integer.MAX_VALUE)));
+                })
+                .flatMapSequential(this::lookup, STREAM_CONCURRENCY)
+                .map(result -> PriceResponseMapper.toResult(result, priceResponseCache::get))
+                .subscribe(new ServerStreamSubscriber<>(serverObserver));
+
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(GetCurrentPriceByProductAndBrandRequest request) {
+                requests.get().next(request);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                requests.get().error(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                requests.get().complete();
+            }
+        };
+    }
+
+    @Override
+    public void exportPrices(ExportPricesRequest request, StreamObserver<PriceRecord> responseObserver) {
+        restPricePort.exportAll()
+                .map(PriceResponseMapper::toRecord)
+                .subscribe(new ServerStreamSubscriber<>((ServerCallStreamObserver<PriceRecord>) responseObserver));
+    }
+
+    @Override
+    public void getPriceTimeline(GetPriceTimelineRequest request, StreamObserver<GetPriceTimelineResponse> responseObserver) {
+        LocalDateTime from = PriceResponseMapper.toLocalDateTime(request.getFrom());
+        LocalDateTime to = PriceResponseMapper.toLocalDateTime(request.getTo());
+        if (from.isAfter(to)) {
+            responseObserver.onError(
+                    new StatusRuntimeException(Status.INVALID_ARGUMENT.withDescription("From must not be after to.")));
+            return;
+        }
+
+        restPricePort.getPriceTimeline(request.getProductId(), request.getBrandId(), from, to)
+                .map(segment -> PriceResponseMapper.toSegment(segment, priceResponseCache::get))
+                .collectList()
+                .subscribe(
+                        segments -> {
+                            responseObserver.onNext(GetPriceTimelineResponse.newBuilder().addAllSegments(segments).build());
+                            responseObserver.onCompleted();
+                        },
+                        ex -> responseObserver.onError(
+                                new StatusRuntimeException(Status.INTERNAL.withDescription(ex.getMessage()))));
+    }
+
+    @Override
+    public void updatePrice(UpdatePriceRequest request, StreamObserver<PriceRecord> responseObserver) {
+        PriceDTO price = PriceResponseMapper.toDto(request.getPrice());
+        Set<ConstraintViolation<PriceDTO>> violations = validator.validate(price);
+        if (!violations.isEmpty()) {
+            responseObserver.onError(new StatusRuntimeException(Status.INVALID_ARGUMENT.withDescription(
+                    violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; ")))));
+            return;
+        }
+
+        restPricePort.update(request.getPrice().getId(), priceDtoMapper.fromPriceDTOToPrice(price))
+                .map(PriceResponseMapper::toRecord)
+                .subscribe(
+                        updated -> {
+                            responseObserver.onNext(updated);
+                            responseObserver.onCompleted();
+                        },
+                        ex -> responseObserver.onError(
+                                new StatusRuntimeException(updateStatus(ex).withDescription(ex.getMessage()))));
+    }
+
+    /**
+     * Streams the changes after the requested sequence. With {@code follow} the stream stays open and keeps
+     * long-polling from the last sequence sent until the client cancels it.
+     */
+    @Override
+    public void streamPriceChanges(StreamPriceChangesRequest request, StreamObserver<PriceChangeRecord> responseObserver) {
+        int limit = request.getLimit() == 0 ? DEFAULT_CHANGES_LIMIT : request.getLimit();
+        if (limit > PriceChange.MAX_BATCH_SIZE || request.getWaitSeconds() > PriceChange.MAX_WAIT_SECONDS) {
+            responseObserver.onError(new StatusRuntimeException(Status.INVALID_ARGUMENT.withDescription(
+                    String.format("The limit must be at most %d and the wait at most %d seconds.",
+                            PriceChange.MAX_BATCH_SIZE, PriceChange.MAX_WAIT_SECONDS))));
+            return;
+        }
+        Duration wait = Duration.ofSeconds(request.getFollow() && request.getWaitSeconds() == 0
+                ? PriceChange.MAX_WAIT_SECONDS
+                : request.getWaitSeconds());
+        AtomicLong since = new AtomicLong(request.getSince());
+        Flux<PriceChange> changes =
+                Flux.defer(() -> restPriceChangePort.findChangesSince(since.get(), limit, wait))
+                        .doOnNext(change -> since.set(change.getSequence()));
+        (request.getFollow() ? changes.repeat() : changes)
+                .map(PriceResponseMapper::toRecord)
+                .subscribe(new ServerStreamSubscriber<>((ServerCallStreamObserver<PriceChangeRecord>) responseObserver));
+    }
+
+    private static Status updateStatus(Throwable ex) {
+        if (ex instanceof PriceNotFoundException) {
+            return Status.NOT_FOUND;
+        }
+        if (ex instanceof PriceOverlappingException) {
+            return Status.ALREADY_EXISTS;
+        }
+        if (ex instanceof InvalidPriceException) {
+            return Status.INVALID_ARGUMENT;
+        }
+        return Status.INTERNAL;
+    }
+
+    private Mono<CurrentPriceResult> lookup(GetCurrentPriceByProductAndBrandRequest request) {
+        PriceLookup lookup = PriceLookup.builder()
+                .productId(request.getProductId())
+                .brandId(request.getBrandId())
+                .date(PriceResponseMapper.toLocalDateTime(request.getDate()))
+                .build();
+        return restPricePort.getCurrentPrice(lookup.getProductId(), lookup.getBrandId(), lookup.getDate())
+                .map(price -> CurrentPriceResult.of(lookup, price))
+                .onErrorResume(PriceNotFoundException.class, ex -> Mono.just(CurrentPriceResult.of(lookup, null)));
+    }
 }
@@ -0,0 +1,25 @@
+package com.bcnc.payments.adapter.in.grpc;
+
+import com.bcnc.payments.adapter.in.grpc.proto.PriceResponse;
+import com.bcnc.payments.application.cache.EncodedCurrentPriceCache;
+import com.bcnc.payments.domain.price.CurrentPrice;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PriceResponseCache {
+
+    private final EncodedCurrentPriceCache<PriceResponse> cache;
+
+    public PriceResponseCache(MeterRegistry meterRegistry,
+                              @Value("${prices.response-cache.enabled:false}") boolean enabled,
+                              @Value("${prices.response-cache.maximum-size:100000}") long maximumSize) {
+        this.cache = new EncodedCurrentPriceCache<>(
+                "currentPricesProto", enabled, maximumSize, PriceResponseMapper::toResponse, meterRegistry);
+    }
+
+    public PriceResponse get(CurrentPrice price) {
+        return cache.get(price);
+    }
+}
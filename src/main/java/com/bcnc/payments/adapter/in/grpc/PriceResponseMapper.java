@@ -1,10 +1,22 @@
 package com.bcnc.payments.adapter.in.grpc;
 
+import com.bcnc.payments.adapter.in.grpc.proto.PriceChangeRecord;
+import com.bcnc.payments.adapter.in.grpc.proto.PriceLookupResult;
+import com.bcnc.payments.adapter.in.grpc.proto.PriceRecord;
 import com.bcnc.payments.adapter.in.grpc.proto.PriceResponse;
+import com.bcnc.payments.adapter.in.grpc.proto.PriceSegment;
+import com.bcnc.payments.adapter.in.rest.dto.PriceDTO;
 import com.bcnc.payments.domain.price.CurrentPrice;
+import com.bcnc.payments.domain.price.CurrentPriceResult;
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceChange;
 import com.google.protobuf.Timestamp;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.function.Function;
 
 public class PriceResponseMapper {
     public static PriceResponse toResponse(CurrentPrice price) {
@@ -12,17 +24,86 @@ public class PriceResponseMapper {
                 .setProductId(price.getProductId())
                 .setBrandId(price.getBrandId())
                 .setPriceList(price.getPriceList())
-                .setStartDate(
-                        Timestamp.newBuilder()
-                                .setSeconds(price.getStartDate().atZone(ZoneId.systemDefault()).toEpochSecond())
-                                .setNanos(price.getStartDate().getNano())
-                                .build())
-                .setEndDate(
-                        Timestamp.newBuilder()
-                                .setSeconds(price.getEndDate().atZone(ZoneId.systemDefault()).toEpochSecond())
-                                .setNanos(price.getEndDate().getNano())
-                                .build())
+                .setStartDate(toTimestamp(price.getStartDate()))
+                .setEndDate(toTimestamp(price.getEndDate()))
                 .setPrice(price.getPrice().doubleValue())
                 .build();
     }
+
+    public static PriceLookupResult toResult(CurrentPriceResult result) {
+        return toResult(result, PriceResponseMapper::toResponse);
+    }
+
+    public static PriceLookupResult toResult(CurrentPriceResult result, Function<CurrentPrice, PriceResponse> responses) {
+        PriceLookupResult.Builder builder = PriceLookupResult.newBuilder()
+                .setProductId(result.getProductId())
+                .setBrandId(result.getBrandId())
+                .setDate(toTimestamp(result.getDate()))
+                .setFound(result.getPrice() != null);
+        if (result.getPrice() != null) {
+            builder.setPrice(responses.apply(result.getPrice()));
+        }
+        return builder.build();
+    }
+
+    public static PriceSegment toSegment(com.bcnc.payments.domain.price.PriceSegment segment,
+                                         Function<CurrentPrice, PriceResponse> responses) {
+        return PriceSegment.newBuilder()
+                .setStartDate(toTimestamp(segment.getStartDate()))
+                .setEndDate(toTimestamp(segment.getEndDate()))
+                .setPrice(responses.apply(segment.getPrice()))
+                .build();
+    }
+
+    public static PriceChangeRecord toRecord(PriceChange change) {
+        PriceChangeRecord.Builder builder = PriceChangeRecord.newBuilder()
+                .setSequence(change.getSequence())
+                .setProductId(change.getProductId())
+                .setBrandId(change.getBrandId());
+        change.getPrices().forEach(price -> builder.addPrices(toRecord(price)));
+        return builder.build();
+    }
+
+    public static PriceRecord toRecord(Price price) {
+        return PriceRecord.newBuilder()
+                .setId(price.getId())
+                .setBrandId(price.getBrandId())
+                .setStartDate(toTimestamp(price.getStartDate()))
+                .setEndDate(toTimestamp(price.getEndDate()))
+                .setPriceList(price.getPriceList())
+                .setProductId(price.getProductId())
+                .setPriority(price.getPriority())
+                .setPrice(price.getPrice().doubleValue())
+                .setCurr(price.getCurr())
+                .build();
+    }
+
+    /**
+     * Maps a record to the REST payload so it goes through the same constraints. Unset dates stay null instead of
+     * becoming the epoch.
+     */
+    public static PriceDTO toDto(PriceRecord record) {
+        return PriceDTO.builder()
+                .brandId(record.getBrandId())
+                .startDate(record.hasStartDate() ? toLocalDateTime(record.getStartDate()) : null)
+                .endDate(record.hasEndDate() ? toLocalDateTime(record.getEndDate()) : null)
+                .priceList(record.getPriceList())
+                .productId(record.getProductId())
+                .priority(record.getPriority())
+                .price(BigDecimal.valueOf(record.getPrice()))
+                .curr(record.getCurr())
+                .build();
+    }
+
+    public static Timestamp toTimestamp(LocalDateTime date) {
+        return Timestamp.newBuilder()
+                .setSeconds(date.atZone(ZoneId.systemDefault()).toEpochSecond())
+                .setNanos(date.getNano())
+                .build();
+    }
+
+    public static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        Instant instant = Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
 }
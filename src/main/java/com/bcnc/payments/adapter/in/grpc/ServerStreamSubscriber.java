@@ -0,0 +1,62 @@
+package com.bcnc.payments.adapter.in.grpc;
+
+import com.bcnc.payments.domain.price.PriceNotFoundException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+/**
+ * Writes a reactive stream to a gRPC response, requesting more elements from upstream only while
+ * the transport is ready, so a slow client applies backpressure all the way to the source.
+ */
+class ServerStreamSubscriber<T> extends BaseSubscriber<T> {
+    private static final int BATCH_SIZE = 32;
+
+    private final ServerCallStreamObserver<T> observer;
+    private long outstanding;
+
+    ServerStreamSubscriber(ServerCallStreamObserver<T> observer) {
+        this.observer = observer;
+        observer.setOnReadyHandler(this::requestIfReady);
+        observer.setOnCancelHandler(this::dispose);
+    }
+
+    @Override
+    protected void hookOnSubscribe(Subscription subscription) {
+        requestIfReady();
+    }
+
+    @Override
+    protected void hookOnNext(T value) {
+        synchronized (this) {
+            outstanding--;
+        }
+        observer.onNext(value);
+        requestIfReady();
+    }
+
+    @Override
+    protected void hookOnComplete() {
+        observer.onCompleted();
+    }
+
+    @Override
+    protected void hookOnError(Throwable throwable) {
+        Status status = throwable instanceof PriceNotFoundException ? Status.NOT_FOUND : Status.INTERNAL;
+        observer.onError(new StatusRuntimeException(status.withDescription(throwable.getMessage())));
+    }
+
+    private void requestIfReady() {
+        long missing;
+        synchronized (this) {
+            if (upstream() == null || isDisposed() || !observer.isReady() || outstanding > BATCH_SIZE / 2) {
+                return;
+            }
+            missing = BATCH_SIZE - outstanding;
+            outstanding = BATCH_SIZE;
+        }
+        request(missing);
+    }
+}
@@ -1,29 +1,60 @@
 package com.bcnc.payments.adapter.in.rest.controller;
 
+import com.bcnc.payments.adapter.in.rest.dto.PriceCursorPageDTO;
+import com.bcnc.payments.adapter.in.rest.encoder.CurrentPriceResponses;
 import com.bcnc.payments.adapter.in.rest.dto.PriceDTO;
+import com.bcnc.payments.adapter.in.rest.dto.PriceLookupBatchDTO;
+import com.bcnc.payments.adapter.in.rest.mapper.PriceCursorMapper;
 import com.bcnc.payments.adapter.in.rest.mapper.PriceDtoMapper;
-import com.bcnc.payments.domain.price.CurrentPrice;
+import com.bcnc.payments.adapter.in.rest.parser.PriceImportParser;
+import com.bcnc.payments.domain.price.CurrentPriceResult;
 import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceChange;
+import com.bcnc.payments.domain.price.PriceImportReport;
+import com.bcnc.payments.domain.price.PriceSegment;
+import com.bcnc.payments.port.in.rest.RestPriceChangePort;
+import com.bcnc.payments.port.in.rest.RestPriceImportPort;
 import com.bcnc.payments.port.in.rest.RestPricePort;
 import jakarta.validation.Valid;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/prices")
 public class PriceController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
 
     private final RestPricePort restPricePort;
+    private final RestPriceImportPort restPriceImportPort;
+    private final RestPriceChangePort restPriceChangePort;
     private final PriceDtoMapper priceDtoMapper;
+    private final PriceImportParser priceImportParser;
+    private final CurrentPriceResponses currentPriceResponses;
 
-    public PriceController(RestPricePort restPricePort, PriceDtoMapper priceMapper) {
+    public PriceController(RestPricePort restPricePort,
+                           RestPriceImportPort restPriceImportPort,
+                           RestPriceChangePort restPriceChangePort,
+                           PriceDtoMapper priceMapper,
+                           PriceImportParser priceImportParser,
+                           CurrentPriceResponses currentPriceResponses) {
         this.restPricePort = restPricePort;
+        this.restPriceImportPort = restPriceImportPort;
+        this.restPriceChangePort = restPriceChangePort;
         this.priceDtoMapper = priceMapper;
+        this.priceImportParser = priceImportParser;
+        this.currentPriceResponses = currentPriceResponses;
     }
 
     @PostMapping
@@ -31,18 +62,83 @@ public class PriceController {
         return restPricePort.create(priceDtoMapper.fromPriceDTOToPrice(price));
     }
 
+    @PutMapping("/{id}")
+    public Mono<Price> update(@PathVariable Long id, @Valid @RequestBody PriceDTO price) {
+        return restPricePort.update(id, priceDtoMapper.fromPriceDTOToPrice(price));
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, PriceImportParser.TEXT_CSV_VALUE})
+    public Mono<PriceImportReport> importPrices(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, @RequestBody Flux<DataBuffer> body) {
+        return restPriceImportPort.importPrices(priceImportParser.parse(body, contentType));
+    }
+
     @DeleteMapping("/{id}")
     public Mono<Void> delete(@PathVariable Long id) {
         return restPricePort.delete(id);
     }
 
-    @GetMapping("/current")
-    public Mono<CurrentPrice> getCurrentPrice(@RequestParam(name = "product_id") Long productId, @RequestParam(name = "brand_id") Long brandId, @RequestParam LocalDateTime date) {
-        return restPricePort.getCurrentPrice(productId, brandId, date);
+    @GetMapping(value = "/current", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getCurrentPrice(@RequestParam(name = "product_id") Long productId, @RequestParam(name = "brand_id") Long brandId, @RequestParam LocalDateTime date) {
+        return restPricePort.getCurrentPriceInterval(productId, brandId, date).map(currentPriceResponses::of);
+    }
+
+    @PostMapping("/current:batch")
+    public Flux<CurrentPriceResult> getCurrentPrices(@Valid @RequestBody PriceLookupBatchDTO batch) {
+        return restPricePort.getCurrentPrices(priceDtoMapper.fromPriceLookupDTOsToPriceLookups(batch.getLookups()));
+    }
+
+    @GetMapping("/timeline")
+    public Flux<PriceSegment> getPriceTimeline(@RequestParam(name = "product_id") Long productId,
+                                               @RequestParam(name = "brand_id") Long brandId,
+                                               @RequestParam LocalDateTime from,
+                                               @RequestParam LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new ServerWebInputException("The from date must not be after the to date.");
+        }
+        return restPricePort.getPriceTimeline(productId, brandId, from, to);
     }
 
     @GetMapping("/")
     public Mono<Page<Price>> findAll(@PageableDefault Pageable pageable) {
         return restPricePort.findAll(pageable);
     }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Price> export() {
+        return restPricePort.exportAll();
+    }
+
+    @GetMapping("/changes")
+    public Flux<PriceChange> findChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(name = "wait_seconds", defaultValue = "0") int waitSeconds) {
+        if (since < 0) {
+            throw new ServerWebInputException("The since sequence must not be negative.");
+        }
+        if (limit < 1 || limit > PriceChange.MAX_BATCH_SIZE) {
+            throw new ServerWebInputException(
+                    String.format("The limit must be between 1 and %d.", PriceChange.MAX_BATCH_SIZE));
+        }
+        if (waitSeconds < 0 || waitSeconds > PriceChange.MAX_WAIT_SECONDS) {
+            throw new ServerWebInputException(
+                    String.format("The wait must be between 0 and %d seconds.", PriceChange.MAX_WAIT_SECONDS));
+        }
+        return restPriceChangePort.findChangesSince(since, limit, Duration.ofSeconds(waitSeconds));
+    }
+
+    @GetMapping(value = "/", params = "cursor")
+    public Mono<PriceCursorPageDTO> findAll(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(name = "include_total", defaultValue = "false") boolean includeTotal) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ServerWebInputException(
+                    String.format("The page size must be between 1 and %d.", MAX_CURSOR_PAGE_SIZE));
+        }
+        return restPricePort
+                .findAll(PriceCursorMapper.decode(cursor), size, includeTotal)
+                .map(PriceCursorMapper::toPage);
+    }
 }
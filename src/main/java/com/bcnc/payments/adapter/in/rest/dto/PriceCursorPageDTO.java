@@ -0,0 +1,19 @@
+package com.bcnc.payments.adapter.in.rest.dto;
+
+import com.bcnc.payments.domain.price.Price;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Data
+@Builder
+@Jacksonized
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PriceCursorPageDTO {
+    private final List<Price> content;
+    private final String nextCursor;
+    private final Long total;
+}
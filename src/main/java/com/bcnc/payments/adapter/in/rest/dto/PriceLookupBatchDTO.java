@@ -0,0 +1,20 @@
+package com.bcnc.payments.adapter.in.rest.dto;
+
+import com.bcnc.payments.domain.price.PriceLookup;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Data
+@Builder
+@Jacksonized
+public class PriceLookupBatchDTO {
+    @NotEmpty(message = "{price.lookups.notEmpty}")
+    @Size(max = PriceLookup.MAX_BATCH_SIZE, message = "{price.lookups.size}")
+    private final List<@Valid PriceLookupDTO> lookups;
+}
@@ -0,0 +1,23 @@
+package com.bcnc.payments.adapter.in.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class PriceLookupDTO {
+    @NotNull(message = "{price.productId.notNull}")
+    @PositiveOrZero(message = "{price.productId.PositiveOrZero}")
+    private final Long productId;
+    @NotNull(message = "{price.brandId.notNull}")
+    @PositiveOrZero(message = "{price.brandId.PositiveOrZero}")
+    private final Long brandId;
+    @NotNull(message = "{price.date.notNull}")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private final LocalDateTime date;
+}
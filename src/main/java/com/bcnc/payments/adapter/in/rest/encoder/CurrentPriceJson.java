@@ -0,0 +1,4 @@
+package com.bcnc.payments.adapter.in.rest.encoder;
+
+public record CurrentPriceJson(byte[] body, String etag) {
+}
@@ -0,0 +1,52 @@
+package com.bcnc.payments.adapter.in.rest.encoder;
+
+import com.bcnc.payments.application.cache.EncodedCurrentPriceCache;
+import com.bcnc.payments.domain.price.CurrentPrice;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@Component
+public class CurrentPriceJsonEncoder {
+    private static final int ETAG_BYTES = 16;
+
+    private final ObjectMapper objectMapper;
+    private final EncodedCurrentPriceCache<CurrentPriceJson> cache;
+
+    public CurrentPriceJsonEncoder(ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${prices.response-cache.enabled:false}") boolean enabled,
+                                   @Value("${prices.response-cache.maximum-size:100000}") long maximumSize) {
+        this.objectMapper = objectMapper;
+        this.cache = new EncodedCurrentPriceCache<>("currentPricesJson", enabled, maximumSize, this::write, meterRegistry);
+    }
+
+    public CurrentPriceJson encode(CurrentPrice price) {
+        return cache.get(price);
+    }
+
+    private CurrentPriceJson write(CurrentPrice price) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(price);
+            return new CurrentPriceJson(body, etag(body));
+        } catch (JsonProcessingException ex) {
+            throw new EncodingException("Current price could not be encoded", ex);
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, ETAG_BYTES) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bcnc.payments.adapter.in.rest.encoder;
+
+import com.bcnc.payments.domain.price.CurrentPriceInterval;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Builds current price responses that HTTP caches can keep until the price may change: the ETag is
+ * a hash of the encoded body and max-age runs until the next price boundary, capped at a maximum.
+ * Lookups for past dates only change when prices are written, so they get the maximum.
+ */
+@Component
+public class CurrentPriceResponses {
+
+    private final CurrentPriceJsonEncoder encoder;
+    private final Duration maximumAge;
+    private final Clock clock;
+
+    @Autowired
+    public CurrentPriceResponses(CurrentPriceJsonEncoder encoder,
+                                 @Value("${prices.http.maximum-age:1h}") Duration maximumAge) {
+        this(encoder, maximumAge, Clock.systemDefaultZone());
+    }
+
+    CurrentPriceResponses(CurrentPriceJsonEncoder encoder, Duration maximumAge, Clock clock) {
+        this.encoder = encoder;
+        this.maximumAge = maximumAge;
+        this.clock = clock;
+    }
+
+    public ResponseEntity<byte[]> of(CurrentPriceInterval interval) {
+        CurrentPriceJson json = encoder.encode(interval.getPrice());
+        return ResponseEntity.ok()
+                .eTag(json.etag())
+                .cacheControl(CacheControl.maxAge(maxAge(interval.getValidUntil())).cachePublic())
+                .body(json.body());
+    }
+
+    Duration maxAge(LocalDateTime validUntil) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (validUntil == null || !validUntil.isAfter(now)) {
+            return maximumAge;
+        }
+        Duration untilBoundary = Duration.between(now, validUntil);
+        return untilBoundary.compareTo(maximumAge) < 0 ? untilBoundary : maximumAge;
+    }
+}
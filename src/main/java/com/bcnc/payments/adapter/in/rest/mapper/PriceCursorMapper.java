@@ -0,0 +1,41 @@
+package com.bcnc.payments.adapter.in.rest.mapper;
+
+import com.bcnc.payments.adapter.in.rest.dto.PriceCursorPageDTO;
+import com.bcnc.payments.domain.price.PriceSlice;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class PriceCursorMapper {
+    private static final String PREFIX = "id:";
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new ServerWebInputException("Invalid cursor.");
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new ServerWebInputException("Invalid cursor.");
+        }
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PriceCursorPageDTO toPage(PriceSlice slice) {
+        return PriceCursorPageDTO.builder()
+                .content(slice.getContent())
+                .nextCursor(slice.isHasNext() ? encode(slice.getLastId()) : null)
+                .total(slice.getTotal())
+                .build();
+    }
+}
@@ -1,11 +1,19 @@
 package com.bcnc.payments.adapter.in.rest.mapper;
 
 import com.bcnc.payments.adapter.in.rest.dto.PriceDTO;
+import com.bcnc.payments.adapter.in.rest.dto.PriceLookupDTO;
 import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceLookup;
 import org.mapstruct.Mapper;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring")
 public interface PriceDtoMapper {
 
     Price fromPriceDTOToPrice(PriceDTO priceDTO);
+
+    PriceLookup fromPriceLookupDTOToPriceLookup(PriceLookupDTO priceLookupDTO);
+
+    List<PriceLookup> fromPriceLookupDTOsToPriceLookups(List<PriceLookupDTO> priceLookupDTOs);
 }
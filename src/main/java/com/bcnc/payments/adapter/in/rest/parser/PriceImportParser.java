@@ -0,0 +1,155 @@
+package com.bcnc.payments.adapter.in.rest.parser;
+
+import com.bcnc.payments.adapter.in.rest.dto.PriceDTO;
+import com.bcnc.payments.adapter.in.rest.mapper.PriceDtoMapper;
+import com.bcnc.payments.domain.price.PriceImportRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class PriceImportParser {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    private static final Map<String, String> CSV_COLUMNS = Arrays.stream(new String[]{
+                    "brandId", "startDate", "endDate", "priceList", "productId", "priority", "price", "curr"})
+            .collect(Collectors.toMap(PriceImportParser::normalize, Function.identity()));
+
+    private final StringDecoder lineDecoder = StringDecoder.allMimeTypes();
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final PriceDtoMapper priceDtoMapper;
+
+    public PriceImportParser(ObjectMapper objectMapper, Validator validator, PriceDtoMapper priceDtoMapper) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.priceDtoMapper = priceDtoMapper;
+    }
+
+    public Flux<PriceImportRow> parse(Flux<DataBuffer> body, MediaType contentType) {
+        Flux<Tuple2<Long, String>> lines = lineDecoder
+                .decode(body, ResolvableType.forClass(String.class), null, Collections.emptyMap())
+                .index()
+                .map(line -> line.mapT1(index -> index + 1));
+
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return lines.switchOnFirst((first, all) -> {
+                String[] header = first.hasValue() ? parseHeader(first.get().getT2()) : new String[0];
+                return all.skip(1)
+                        .filter(line -> !line.getT2().isBlank())
+                        .map(line -> parseCsv(line.getT1(), header, line.getT2()));
+            });
+        }
+        return lines
+                .filter(line -> !line.getT2().isBlank())
+                .map(line -> parseJson(line.getT1(), line.getT2()));
+    }
+
+    private PriceImportRow parseJson(long line, String json) {
+        try {
+            return toRow(line, objectMapper.readValue(json, PriceDTO.class));
+        } catch (JsonProcessingException ex) {
+            return PriceImportRow.rejected(line, "Malformed row: " + ex.getOriginalMessage());
+        }
+    }
+
+    private PriceImportRow parseCsv(long line, String[] header, String csv) {
+        String[] values = splitCsv(csv);
+        if (values == null) {
+            return PriceImportRow.rejected(line, "Malformed row: unterminated quoted field.");
+        }
+        if (values.length != header.length) {
+            return PriceImportRow.rejected(
+                    line, String.format("Expected %d columns but found %d.", header.length, values.length));
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            if (header[i] != null && !values[i].isBlank()) {
+                fields.put(header[i], values[i].trim());
+            }
+        }
+        try {
+            return toRow(line, objectMapper.convertValue(fields, PriceDTO.class));
+        } catch (IllegalArgumentException ex) {
+            return PriceImportRow.rejected(line, "Malformed row: " + ex.getMessage().lines().findFirst().orElse(""));
+        }
+    }
+
+    private PriceImportRow toRow(long line, PriceDTO price) {
+        Set<ConstraintViolation<PriceDTO>> violations = validator.validate(price);
+        if (!violations.isEmpty()) {
+            return PriceImportRow.rejected(line, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return PriceImportRow.of(line, priceDtoMapper.fromPriceDTOToPrice(price));
+    }
+
+    private static String[] parseHeader(String header) {
+        String[] columns = splitCsv(header);
+        return Arrays.stream(columns != null ? columns : new String[0])
+                .map(column -> CSV_COLUMNS.get(normalize(column)))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Splits one CSV record following RFC 4180: fields may be enclosed in double quotes, which allows commas
+     * inside them, and a quote inside a quoted field is written twice. Records are read line by line, so a
+     * quoted field cannot span lines; an unterminated quote returns null.
+     */
+    static String[] splitCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields.toArray(String[]::new);
+    }
+
+    private static String normalize(String column) {
+        return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,73 +1,301 @@
 package com.bcnc.payments.adapter.out;
 
 import com.bcnc.payments.adapter.out.model.PriceEntity;
+import com.bcnc.payments.adapter.out.model.PriceReferenceEntity;
 import com.bcnc.payments.adapter.out.repository.CurrentPriceRepository;
+import com.bcnc.payments.adapter.out.repository.PriceBatchRepository;
 import com.bcnc.payments.adapter.out.repository.PriceRepository;
 import com.bcnc.payments.domain.price.CurrentPrice;
 import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceChange;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceReferences;
 import com.bcnc.payments.port.out.DatabasePricePort;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class DatabasePriceAdapter implements DatabasePricePort {
+    private static final Object PENDING_CHANGES = new Object();
 
     private final PriceRepository priceRepository;
     private final CurrentPriceRepository currentPriceRepository;
+    private final PriceBatchRepository priceBatchRepository;
     private final PriceMapper mapper;
+    private final TransactionalOperator transactionalOperator;
+    private final QueryMetrics queryMetrics;
+    private final Duration countCacheTtl;
+    private final Sinks.Many<PriceKey> committedChanges = Sinks.many().multicast().directBestEffort();
+    private volatile Mono<Long> count;
 
-    public DatabasePriceAdapter(PriceRepository priceRepository, CurrentPriceRepository currentPriceRepository, PriceMapper mapper) {
+    public DatabasePriceAdapter(PriceRepository priceRepository,
+                                CurrentPriceRepository currentPriceRepository,
+                                PriceBatchRepository priceBatchRepository,
+                                PriceMapper mapper,
+                                TransactionalOperator transactionalOperator,
+                                MeterRegistry meterRegistry,
+                                @Value("${prices.count.cache-ttl:30s}") Duration countCacheTtl) {
         this.priceRepository = priceRepository;
         this.currentPriceRepository = currentPriceRepository;
+        this.priceBatchRepository = priceBatchRepository;
         this.mapper = mapper;
+        this.transactionalOperator = transactionalOperator;
+        this.queryMetrics = new QueryMetrics(meterRegistry);
+        this.countCacheTtl = countCacheTtl;
+        resetCount();
+    }
+
+    private void resetCount() {
+        this.count = queryMetrics.time("count", Mono.defer(priceRepository::count))
+                .defaultIfEmpty(0L)
+                .cache(total -> countCacheTtl, ex -> Duration.ZERO, () -> Duration.ZERO);
     }
 
     @Override
     public Mono<Price> save(Price price) {
         PriceEntity priceEntity = mapper.fromPriceToPriceEntity(price);
-        Mono<PriceEntity> response = priceRepository.save(priceEntity);
-        return response.map(mapper::fromPriceEntityToPrice);
+        Mono<PriceEntity> response = queryMetrics.time("save", priceRepository.save(priceEntity))
+                .flatMap(saved -> logChanges(Set.of(key(saved))).thenReturn(saved));
+        return transactionalOperator.transactional(response)
+                .map(mapper::fromPriceEntityToPrice)
+                .doOnSuccess(saved -> committed(Set.of(PriceKey.of(saved))));
+    }
+
+    @Override
+    public Mono<Long> saveAll(List<Price> prices) {
+        List<PriceEntity> entities = prices.stream().map(mapper::fromPriceToPriceEntity).toList();
+        Set<PriceKey> keys = keys(entities);
+        Mono<Long> inserted = queryMetrics.time("saveAll", priceBatchRepository.insertAll(entities))
+                .flatMap(count -> logChanges(keys).thenReturn(count));
+        return transactionalOperator.transactional(inserted).doOnSuccess(count -> committed(keys));
+    }
+
+    @Override
+    public Flux<Price> createAll(List<Price> prices) {
+        List<PriceEntity> entities = prices.stream().map(mapper::fromPriceToPriceEntity).toList();
+        Set<PriceKey> keys = keys(entities);
+        Flux<Price> created = queryMetrics.time("createAll", priceBatchRepository.insertAllReturningIds(entities))
+                .index((i, id) -> {
+                    PriceEntity entity = entities.get(i.intValue());
+                    entity.setId(id);
+                    return mapper.fromPriceEntityToPrice(entity);
+                })
+                .concatWith(logChanges(keys).then(Mono.empty()));
+        return transactionalOperator.transactional(created).doOnComplete(() -> committed(keys));
     }
 
     @Override
     public Mono<Void> delete(Long id) {
-        return priceRepository.deleteById(id);
+        Mono<PriceKey> deleted = queryMetrics.time("findById", priceRepository.findById(id))
+                .flatMap(entity -> logChanges(Set.of(key(entity)))
+                        .then(queryMetrics.time("delete", priceRepository.deleteById(id)))
+                        .thenReturn(key(entity)));
+        return transactionalOperator.transactional(deleted)
+                .doOnSuccess(key -> committed(key == null ? Set.of() : Set.of(key)))
+                .then();
+    }
+
+    @Override
+    public Flux<PriceChange> findChangesSince(long since, int limit) {
+        return queryMetrics.time("findChangesSince", priceRepository.findChangesSince(since, limit))
+                .collectList()
+                .flatMapMany(changes -> {
+                    if (changes.isEmpty()) {
+                        return Flux.empty();
+                    }
+                    List<PriceKey> keys = changes.stream()
+                            .map(change -> new PriceKey(change.productId(), change.brandId()))
+                            .toList();
+                    return findAllByProductIdAndBrandIdIn(keys)
+                            .collect(Collectors.groupingBy(PriceKey::of))
+                            .flatMapIterable(prices -> changes.stream()
+                                    .map(change -> PriceChange.builder()
+                                            .sequence(change.sequence())
+                                            .productId(change.productId())
+                                            .brandId(change.brandId())
+                                            .prices(prices.getOrDefault(
+                                                    new PriceKey(change.productId(), change.brandId()), List.of()))
+                                            .build())
+                                    .toList());
+                });
+    }
+
+    @Override
+    public Flux<PriceKey> committedChanges() {
+        return committedChanges.asFlux();
+    }
+
+    /**
+     * Queues the pairs for the change log of the current transaction. They are appended right before it commits:
+     * appending locks the change counter until the commit, so a long transaction such as an import must not take it
+     * any earlier than that.
+     */
+    private Mono<Void> logChanges(Set<PriceKey> keys) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .flatMap(transaction -> {
+                    if (!transaction.isSynchronizationActive()) {
+                        return appendChanges(keys);
+                    }
+                    pendingChanges(transaction).addAll(keys);
+                    return Mono.<Void>empty();
+                })
+                // Reserving sequences relies on the counter row staying locked until commit.
+                .onErrorResume(NoTransactionException.class,
+                        ex -> transactionalOperator.transactional(appendChanges(keys)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<PriceKey> pendingChanges(TransactionSynchronizationManager transaction) {
+        Set<PriceKey> pending = (Set<PriceKey>) transaction.getResource(PENDING_CHANGES);
+        if (pending != null) {
+            return pending;
+        }
+        Set<PriceKey> keys = new LinkedHashSet<>();
+        transaction.bindResource(PENDING_CHANGES, keys);
+        transaction.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public Mono<Void> beforeCommit(boolean readOnly) {
+                return appendChanges(keys);
+            }
+
+            @Override
+            public Mono<Void> afterCompletion(int status) {
+                transaction.unbindResourceIfPossible(PENDING_CHANGES);
+                return Mono.empty();
+            }
+        });
+        return keys;
+    }
+
+    private Mono<Void> appendChanges(Set<PriceKey> keys) {
+        return queryMetrics.time("insertChanges", priceBatchRepository.insertChanges(keys)).then();
+    }
+
+    private void committed(Set<PriceKey> keys) {
+        resetCount();
+        keys.forEach(key -> committedChanges.emitNext(key, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100))));
+    }
+
+    private static PriceKey key(PriceEntity entity) {
+        return new PriceKey(entity.getProductId(), entity.getBrandId());
+    }
+
+    private static Set<PriceKey> keys(List<PriceEntity> entities) {
+        Set<PriceKey> keys = new LinkedHashSet<>();
+        entities.forEach(entity -> keys.add(key(entity)));
+        return keys;
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return count;
+    }
+
+    @Override
+    public Flux<Price> findAllAfter(Long afterId, int limit) {
+        return queryMetrics.time("findAllAfter", priceRepository.findAllAfter(afterId, limit)).map(mapper::fromPriceEntityToPrice);
     }
 
     @Override
     public Mono<Price> findById(Long id) {
-        return priceRepository.findById(id).map(mapper::fromPriceEntityToPrice);
+        return queryMetrics.time("findById", priceRepository.findById(id)).map(mapper::fromPriceEntityToPrice);
     }
 
     @Override
     public Mono<Page<Price>> findAll(Pageable pageable) {
-        return this.priceRepository
-                .findAllBy(pageable)
+        return queryMetrics.time("findAllBy", priceRepository.findAllBy(pageable))
                 .map(mapper::fromPriceEntityToPrice)
                 .collectList()
-                .flatMap(
-                        prices ->
-                                this.priceRepository
-                                        .count()
-                                        .defaultIfEmpty(0L)
-                                        .map(count -> new PageImpl<>(prices, pageable, count)));
+                .flatMap(prices -> count().map(total -> new PageImpl<>(prices, pageable, total)));
     }
 
     @Override
     public Mono<CurrentPrice> getCurrentPriceByProductAndBrand(
             Long productId, Long brandId, LocalDateTime date) {
-        return currentPriceRepository.findByProductIdAndBrandIdAndDate(productId, brandId, date)
+        return queryMetrics.time("getCurrentPriceByProductAndBrand",
+                        currentPriceRepository.findByProductIdAndBrandIdAndDate(productId, brandId, date))
                 .map(mapper::fromCurrentPriceEntityToCurrentPrice);
     }
 
     @Override
     public Flux<Price> findAllByProductIdAndBrandId(Long productId, Long brandId) {
-        return priceRepository.findAllByProductIdAndBrandId(productId, brandId).map(mapper::fromPriceEntityToPrice);
+        return queryMetrics.time("findAllByProductIdAndBrandId",
+                        priceRepository.findAllByProductIdAndBrandId(productId, brandId))
+                .map(mapper::fromPriceEntityToPrice);
+    }
+
+    @Override
+    public Flux<Price> findAllByProductIdAndBrandIdBetween(
+            Long productId, Long brandId, LocalDateTime from, LocalDateTime to) {
+        return queryMetrics.time("findAllByProductIdAndBrandIdBetween",
+                        priceRepository.findAllByProductIdAndBrandIdBetween(productId, brandId, from, to))
+                .map(mapper::fromPriceEntityToPrice);
+    }
+
+    @Override
+    public Flux<Price> findWithBoundaryBetween(LocalDateTime from, LocalDateTime to) {
+        return queryMetrics.time("findWithBoundaryBetween", priceRepository.findWithBoundaryBetween(from, to)).map(mapper::fromPriceEntityToPrice);
+    }
+
+    @Override
+    public Flux<Price> findOverlapping(Long productId, Long brandId, LocalDateTime startDate, LocalDateTime endDate) {
+        return queryMetrics.time("findOverlapping",
+                        priceRepository.findOverlapping(productId, brandId, startDate, endDate))
+                .map(mapper::fromPriceEntityToPrice);
+    }
+
+    @Override
+    public Flux<Price> findAllByProductIdAndBrandIdIn(Collection<PriceKey> keys) {
+        if (keys.isEmpty()) {
+            return Flux.empty();
+        }
+        List<Object[]> tuples = keys.stream()
+                .map(key -> new Object[]{key.productId(), key.brandId()})
+                .toList();
+        return queryMetrics.time("findAllByProductIdAndBrandIdIn", priceRepository.findAllByProductIdAndBrandIdIn(tuples)).map(mapper::fromPriceEntityToPrice);
+    }
+
+    @Override
+    public Flux<Price> findAll() {
+        return queryMetrics.time("findAll", priceRepository.findAll()).map(mapper::fromPriceEntityToPrice);
+    }
+
+    @Override
+    public Flux<PriceKey> findAllKeys() {
+        return queryMetrics.time("findAllKeys", priceRepository.findAllKeys()).map(key -> new PriceKey(key.productId(), key.brandId()));
+    }
+
+    @Override
+    public Mono<PriceReferences> findExistingReferences(PriceReferences references) {
+        if (references.isEmpty()) {
+            return Mono.just(references);
+        }
+        return queryMetrics.time("findReferences", priceRepository.findReferences(
+                        references.productIds(), references.brandIds(), references.priceLists()))
+                .collect(Collectors.groupingBy(
+                        PriceReferenceEntity::kind, Collectors.mapping(PriceReferenceEntity::id, Collectors.toSet())))
+                .map(existing -> new PriceReferences(
+                        existing.getOrDefault("product", Set.of()),
+                        existing.getOrDefault("brand", Set.of()),
+                        existing.getOrDefault("price_list", Set.of())));
     }
 }
@@ -0,0 +1,70 @@
+package com.bcnc.payments.adapter.out;
+
+import com.bcnc.payments.application.profiling.PriceQueryEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each {@code DatabasePricePort} query from subscription until it completes, fails or is cancelled, and
+ * emits a {@link PriceQueryEvent} while a flight recording has it enabled.
+ */
+class QueryMetrics {
+    private static final String[] OUTCOMES = {"success", "error", "cancelled"};
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    QueryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> Mono<T> time(String query, Mono<T> source) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            PriceQueryEvent event = PriceQueryEvent.begin(query);
+            Mono<T> counted = event == null ? source : source.doOnNext(row -> event.row());
+            return counted.doFinally(signal -> record(query, signal, start, event));
+        });
+    }
+
+    <T> Flux<T> time(String query, Flux<T> source) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            PriceQueryEvent event = PriceQueryEvent.begin(query);
+            Flux<T> counted = event == null ? source : source.doOnNext(row -> event.row());
+            return counted.doFinally(signal -> record(query, signal, start, event));
+        });
+    }
+
+    private void record(String query, SignalType signal, long start, PriceQueryEvent event) {
+        Timer[] byOutcome = timers.computeIfAbsent(query, this::register);
+        int outcome = switch (signal) {
+            case ON_ERROR -> 1;
+            case CANCEL -> 2;
+            default -> 0;
+        };
+        byOutcome[outcome].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (event != null) {
+            event.end(OUTCOMES[outcome]);
+        }
+    }
+
+    private Timer[] register(String query) {
+        Timer[] byOutcome = new Timer[OUTCOMES.length];
+        for (int i = 0; i < OUTCOMES.length; i++) {
+            byOutcome[i] = Timer.builder("prices.db.queries")
+                    .description("Time spent running price queries against the database")
+                    .tag("query", query)
+                    .tag("outcome", OUTCOMES[i])
+                    .register(meterRegistry);
+        }
+        return byOutcome;
+    }
+}
@@ -0,0 +1,133 @@
+package com.bcnc.payments.adapter.out.invalidation;
+
+import com.bcnc.payments.adapter.out.invalidation.proto.InvalidatedKey;
+import com.bcnc.payments.adapter.out.invalidation.proto.InvalidationAck;
+import com.bcnc.payments.adapter.out.invalidation.proto.InvalidationBatch;
+import com.bcnc.payments.adapter.out.invalidation.proto.PriceInvalidationServiceGrpc;
+import com.bcnc.payments.domain.price.PriceInvalidation;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.port.out.PriceInvalidationBusPort;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Peer to peer bus over gRPC. Every batch is sent to each configured peer ({@code host:port} of its gRPC server)
+ * and batches sent by peers arrive through the same service on this node's gRPC server. A peer that is down or
+ * slow is logged and skipped; it notices the missed sequence on the next batch or heartbeat and flushes.
+ * Batches are only accepted from the hosts of the configured peers, see {@link GrpcInvalidationPeerInterceptor}.
+ */
+@GrpcService(interceptors = GrpcInvalidationPeerInterceptor.class)
+@ConditionalOnProperty(name = "prices.invalidation.transport", havingValue = "grpc")
+public class GrpcInvalidationBus extends PriceInvalidationServiceGrpc.PriceInvalidationServiceImplBase
+        implements PriceInvalidationBusPort {
+    private static final Logger log = LoggerFactory.getLogger(GrpcInvalidationBus.class);
+
+    private final List<Peer> peers;
+    private final Duration timeout;
+    private final Sinks.Many<PriceInvalidation> messages = Sinks.many().multicast().directBestEffort();
+
+    public GrpcInvalidationBus(@Value("${prices.invalidation.peers:}") List<String> peers,
+                               @Value("${prices.invalidation.timeout:2s}") Duration timeout) {
+        this.peers = peers.stream()
+                .filter(target -> !target.isBlank())
+                .map(target -> new Peer(target.trim(),
+                        ManagedChannelBuilder.forTarget(target.trim()).usePlaintext().build()))
+                .toList();
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Mono<Void> publish(PriceInvalidation invalidation) {
+        InvalidationBatch batch = toBatch(invalidation);
+        return Flux.fromIterable(peers)
+                .flatMap(peer -> send(peer, batch)
+                        .onErrorResume(ex -> {
+                            log.warn("Invalidation {} could not be sent to {}: {}",
+                                    invalidation.sequence(), peer.target(), ex.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    @Override
+    public Flux<PriceInvalidation> received() {
+        return messages.asFlux();
+    }
+
+    @Override
+    public void invalidate(InvalidationBatch request, StreamObserver<InvalidationAck> responseObserver) {
+        messages.emitNext(fromBatch(request), Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+        responseObserver.onNext(InvalidationAck.getDefaultInstance());
+        responseObserver.onCompleted();
+    }
+
+    @PreDestroy
+    public void stop() {
+        peers.forEach(peer -> peer.channel().shutdown());
+        for (Peer peer : peers) {
+            try {
+                peer.channel().awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Mono<Void> send(Peer peer, InvalidationBatch batch) {
+        return Mono.<InvalidationAck>create(sink -> PriceInvalidationServiceGrpc.newStub(peer.channel())
+                        .withDeadlineAfter(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .invalidate(batch, new StreamObserver<>() {
+                            @Override
+                            public void onNext(InvalidationAck ack) {
+                                sink.success(ack);
+                            }
+
+                            @Override
+                            public void onError(Throwable ex) {
+                                sink.error(ex);
+                            }
+
+                            @Override
+                            public void onCompleted() {
+                                sink.success();
+                            }
+                        }))
+                .then();
+    }
+
+    private static InvalidationBatch toBatch(PriceInvalidation invalidation) {
+        InvalidationBatch.Builder batch = InvalidationBatch.newBuilder()
+                .setNodeId(invalidation.nodeId())
+                .setSequence(invalidation.sequence());
+        invalidation.keys().forEach(key -> batch.addKeys(InvalidatedKey.newBuilder()
+                .setProductId(key.productId())
+                .setBrandId(key.brandId())));
+        return batch.build();
+    }
+
+    private static PriceInvalidation fromBatch(InvalidationBatch batch) {
+        Set<PriceKey> keys = new LinkedHashSet<>(batch.getKeysCount());
+        batch.getKeysList().forEach(key -> keys.add(new PriceKey(key.getProductId(), key.getBrandId())));
+        return new PriceInvalidation(batch.getNodeId(), batch.getSequence(), keys);
+    }
+
+    private record Peer(String target, ManagedChannel channel) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.bcnc.payments.adapter.out.invalidation;
+
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets invalidation batches in only from the hosts listed in {@code prices.invalidation.peers}. The service shares
+ * the public gRPC port, and without this check any client could flush every cache in the cluster on demand. Only
+ * the host is compared, since a peer calls from an ephemeral port rather than the one its server listens on.
+ * Peer hosts are resolved at startup and again every {@code prices.invalidation.peer-refresh-interval} off the
+ * request path; a host that fails to resolve keeps the addresses it had.
+ */
+@Component
+@ConditionalOnProperty(name = "prices.invalidation.transport", havingValue = "grpc")
+public class GrpcInvalidationPeerInterceptor implements ServerInterceptor {
+    private static final Logger log = LoggerFactory.getLogger(GrpcInvalidationPeerInterceptor.class);
+
+    private final List<String> hosts;
+    private final Resolver resolver;
+    private final Duration refreshInterval;
+    private final Map<String, Set<InetAddress>> resolved = new ConcurrentHashMap<>();
+    private volatile Set<InetAddress> addresses = Set.of();
+    private Disposable refreshes;
+
+    @Autowired
+    public GrpcInvalidationPeerInterceptor(
+            @Value("${prices.invalidation.peers:}") List<String> peers,
+            @Value("${prices.invalidation.peer-refresh-interval:30s}") Duration refreshInterval) {
+        this(peers, refreshInterval, InetAddress::getAllByName);
+    }
+
+    GrpcInvalidationPeerInterceptor(List<String> peers, Duration refreshInterval, Resolver resolver) {
+        this.hosts = peers.stream()
+                .filter(target -> !target.isBlank())
+                .map(target -> URI.create("grpc://" + target.trim()).getHost())
+                .toList();
+        this.resolver = resolver;
+        this.refreshInterval = refreshInterval;
+        refresh();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refreshes = Flux.interval(refreshInterval, refreshInterval, Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .subscribe(tick -> refresh());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshes != null) {
+            refreshes.dispose();
+        }
+    }
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call,
+                                                       Metadata headers,
+                                                       ServerCallHandler<Q, R> next) {
+        SocketAddress remote = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (!isPeer(remote)) {
+            log.warn("Rejected invalidation batch from {}, which is not a configured peer", remote);
+            call.close(Status.PERMISSION_DENIED.withDescription("Not a configured invalidation peer"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+        return next.startCall(call, headers);
+    }
+
+    boolean isPeer(SocketAddress remote) {
+        return remote instanceof InetSocketAddress address
+                && address.getAddress() != null
+                && addresses.contains(address.getAddress());
+    }
+
+    void refresh() {
+        for (String host : hosts) {
+            try {
+                resolved.put(host, Set.of(resolver.resolve(host)));
+            } catch (UnknownHostException ex) {
+                log.warn("Invalidation peer {} could not be resolved, keeping its last known addresses", host);
+            }
+        }
+        Set<InetAddress> all = new HashSet<>();
+        resolved.values().forEach(all::addAll);
+        addresses = Set.copyOf(all);
+    }
+
+    @FunctionalInterface
+    interface Resolver {
+        InetAddress[] resolve(String host) throws UnknownHostException;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bcnc.payments.adapter.out.invalidation;
+
+import com.bcnc.payments.domain.price.PriceInvalidation;
+import com.bcnc.payments.port.out.PriceInvalidationBusPort;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+/**
+ * In-process bus for single node deployments and tests: every published batch is delivered to the subscribers of
+ * the same bus, which is enough to share one instance between several broadcasters.
+ */
+@Component
+@ConditionalOnProperty(name = "prices.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackInvalidationBus implements PriceInvalidationBusPort {
+
+    private final Sinks.Many<PriceInvalidation> messages = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public Mono<Void> publish(PriceInvalidation invalidation) {
+        return Mono.fromRunnable(() -> messages.emitNext(
+                invalidation, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100))));
+    }
+
+    @Override
+    public Flux<PriceInvalidation> received() {
+        return messages.asFlux();
+    }
+}
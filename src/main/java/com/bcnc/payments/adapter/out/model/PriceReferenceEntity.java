@@ -0,0 +1,4 @@
+package com.bcnc.payments.adapter.out.model;
+
+public record PriceReferenceEntity(String kind, Long id) {
+}
@@ -0,0 +1,111 @@
+package com.bcnc.payments.adapter.out.repository;
+
+import com.bcnc.payments.adapter.out.model.PriceEntity;
+import com.bcnc.payments.domain.price.PriceKey;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class PriceBatchRepository {
+
+    private static final String INSERT =
+            "INSERT INTO prices (brand_id, start_date, end_date, price_list, product_id, priority, price, curr) VALUES ";
+    private static final String RESERVE_SEQUENCES =
+            "UPDATE price_change_counter SET sequence = sequence + :count WHERE id = 1";
+    private static final String LAST_SEQUENCE = "SELECT sequence FROM price_change_counter WHERE id = 1";
+    private static final String INSERT_CHANGES = "INSERT INTO price_changes (sequence, product_id, brand_id) VALUES ";
+
+    private final DatabaseClient databaseClient;
+
+    public PriceBatchRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Long> insertAll(List<PriceEntity> prices) {
+        if (prices.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return insert(prices).fetch().rowsUpdated();
+    }
+
+    /**
+     * Inserts the prices with one statement and returns their generated ids in insertion order.
+     */
+    public Flux<Long> insertAllReturningIds(List<PriceEntity> prices) {
+        if (prices.isEmpty()) {
+            return Flux.empty();
+        }
+        return insert(prices)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .all();
+    }
+
+    /**
+     * Appends one change log entry per product and brand pair. The sequences are reserved by bumping the counter row
+     * and reading it back; the row lock taken by the update is held until the calling transaction ends, so sequences
+     * become visible in the order they were assigned. Must run inside a transaction.
+     */
+    public Mono<Long> insertChanges(Collection<PriceKey> keys) {
+        if (keys.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.sql(RESERVE_SEQUENCES)
+                .bind("count", keys.size())
+                .fetch()
+                .rowsUpdated()
+                .then(databaseClient.sql(LAST_SEQUENCE)
+                        .map(row -> row.get("sequence", Long.class))
+                        .one())
+                .flatMap(last -> insertChanges(keys, last - keys.size() + 1));
+    }
+
+    private Mono<Long> insertChanges(Collection<PriceKey> keys, long first) {
+        StringBuilder sql = new StringBuilder(INSERT_CHANGES);
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(String.format("(:sequence%1$d, :productId%1$d, :brandId%1$d)", i));
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        int i = 0;
+        for (PriceKey key : keys) {
+            spec = spec.bind("sequence" + i, first + i)
+                    .bind("productId" + i, key.productId())
+                    .bind("brandId" + i, key.brandId());
+            i++;
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private DatabaseClient.GenericExecuteSpec insert(List<PriceEntity> prices) {
+        StringBuilder sql = new StringBuilder(INSERT);
+        for (int i = 0; i < prices.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(String.format(
+                    "(:brandId%1$d, :startDate%1$d, :endDate%1$d, :priceList%1$d, "
+                            + ":productId%1$d, :priority%1$d, :price%1$d, :curr%1$d)", i));
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < prices.size(); i++) {
+            PriceEntity price = prices.get(i);
+            spec = spec.bind("brandId" + i, price.getBrandId())
+                    .bind("startDate" + i, price.getStartDate())
+                    .bind("endDate" + i, price.getEndDate())
+                    .bind("priceList" + i, price.getPriceList())
+                    .bind("productId" + i, price.getProductId())
+                    .bind("priority" + i, price.getPriority())
+                    .bind("price" + i, price.getPrice())
+                    .bind("curr" + i, price.getCurr());
+        }
+        return spec;
+    }
+}
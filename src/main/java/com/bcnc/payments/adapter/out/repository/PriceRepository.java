@@ -1,15 +1,92 @@
 package com.bcnc.payments.adapter.out.repository;
 
+import com.bcnc.payments.adapter.out.model.PriceChangeEntity;
 import com.bcnc.payments.adapter.out.model.PriceEntity;
+import com.bcnc.payments.adapter.out.model.PriceKeyEntity;
+import com.bcnc.payments.adapter.out.model.PriceReferenceEntity;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+
 @Repository
 public interface PriceRepository extends ReactiveCrudRepository<PriceEntity, Long> {
 
     Flux<PriceEntity> findAllBy(Pageable pageable);
 
     Flux<PriceEntity> findAllByProductIdAndBrandId(Long productId, Long brandId);
+
+    @Query("""
+                SELECT p.*
+                FROM prices p
+                WHERE p.id > :afterId
+                ORDER BY p.id
+                LIMIT :limit
+            """)
+    Flux<PriceEntity> findAllAfter(Long afterId, int limit);
+
+    @Query("""
+                SELECT p.*
+                FROM prices p
+                WHERE p.product_id = :productId
+                  AND p.brand_id = :brandId
+                  AND p.start_date < :endDate
+                  AND p.end_date > :startDate
+            """)
+    Flux<PriceEntity> findOverlapping(Long productId, Long brandId, LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query("""
+                SELECT p.*
+                FROM prices p
+                WHERE p.product_id = :productId
+                  AND p.brand_id = :brandId
+                  AND p.start_date <= :to
+                  AND p.end_date >= :from
+            """)
+    Flux<PriceEntity> findAllByProductIdAndBrandIdBetween(Long productId, Long brandId, LocalDateTime from, LocalDateTime to);
+
+    @Query("""
+                SELECT p.*
+                FROM prices p
+                WHERE p.start_date > :from AND p.start_date <= :to
+                UNION
+                SELECT p.*
+                FROM prices p
+                WHERE p.end_date >= :from AND p.end_date < :to
+            """)
+    Flux<PriceEntity> findWithBoundaryBetween(LocalDateTime from, LocalDateTime to);
+
+    @Query("""
+                SELECT p.*
+                FROM prices p
+                WHERE (p.product_id, p.brand_id) IN (:keys)
+            """)
+    Flux<PriceEntity> findAllByProductIdAndBrandIdIn(Collection<Object[]> keys);
+
+    @Query("SELECT DISTINCT p.product_id, p.brand_id FROM prices p")
+    Flux<PriceKeyEntity> findAllKeys();
+
+    @Query("""
+                SELECT 'product' AS kind, id FROM products WHERE id IN (:productIds)
+                UNION ALL
+                SELECT 'brand' AS kind, id FROM brands WHERE id IN (:brandIds)
+                UNION ALL
+                SELECT 'price_list' AS kind, id FROM price_list WHERE id IN (:priceLists)
+            """)
+    Flux<PriceReferenceEntity> findReferences(
+            Collection<Long> productIds, Collection<Long> brandIds, Collection<Long> priceLists);
+
+    @Query("""
+                SELECT c.product_id, c.brand_id, MAX(c.sequence) AS sequence
+                FROM price_changes c
+                WHERE c.sequence > :since
+                GROUP BY c.product_id, c.brand_id
+                ORDER BY sequence
+                LIMIT :limit
+            """)
+    Flux<PriceChangeEntity> findChangesSince(long since, int limit);
 }
@@ -0,0 +1,47 @@
+package com.bcnc.payments.application;
+
+import com.bcnc.payments.domain.price.PriceChange;
+import com.bcnc.payments.port.in.rest.RestPriceChangePort;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+@Service
+public class PriceChangeService implements RestPriceChangePort {
+
+    private final DatabasePricePort priceRepository;
+    private final Duration pollInterval;
+
+    public PriceChangeService(DatabasePricePort priceRepository,
+                              @Value("${prices.changes.poll-interval:1s}") Duration pollInterval) {
+        this.priceRepository = priceRepository;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Returns the pairs changed after the given sequence, oldest first. When there are none yet and a wait is
+     * given, the call is held until the first change is committed or the wait elapses.
+     */
+    @Override
+    public Flux<PriceChange> findChangesSince(long since, int limit, Duration wait) {
+        Mono<List<PriceChange>> read = Mono.defer(() -> priceRepository.findChangesSince(since, limit).collectList());
+        return read
+                .flatMap(changes -> changes.isEmpty() && wait.isPositive() ? await(read, wait) : Mono.just(changes))
+                .flatMapIterable(changes -> changes);
+    }
+
+    private Mono<List<PriceChange>> await(Mono<List<PriceChange>> read, Duration wait) {
+        // Writes committed here wake the reader at once; the interval picks up the ones committed by peers.
+        return Flux.merge(priceRepository.committedChanges().map(key -> 0L), Flux.interval(pollInterval))
+                .onBackpressureLatest()
+                .concatMap(signal -> read, 1)
+                .filter(changes -> !changes.isEmpty())
+                .next()
+                .timeout(wait, Mono.just(List.of()));
+    }
+}
@@ -0,0 +1,194 @@
+package com.bcnc.payments.application;
+
+import com.bcnc.payments.application.cache.CacheEvictionService;
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceImportReject;
+import com.bcnc.payments.domain.price.PriceImportReport;
+import com.bcnc.payments.domain.price.PriceImportRow;
+import com.bcnc.payments.domain.price.PriceIntervalIndex;
+import com.bcnc.payments.domain.price.PriceIntervalSet;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceKeyFilter;
+import com.bcnc.payments.domain.price.PriceReferences;
+import com.bcnc.payments.domain.price.PriceTimeline;
+import com.bcnc.payments.port.in.rest.RestPriceImportPort;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class PriceImportService implements RestPriceImportPort {
+    static final int MAX_REPORTED_REJECTS = 1000;
+
+    private final DatabasePricePort priceRepository;
+    private final CacheEvictionService cacheEvictionService;
+    private final PriceIntervalIndex priceIntervalIndex;
+    private final PriceKeyFilter priceKeyFilter;
+    private final TransactionalOperator transactionalOperator;
+    private final int batchSize;
+
+    public PriceImportService(DatabasePricePort priceRepository,
+                              CacheEvictionService cacheEvictionService,
+                              PriceIntervalIndex priceIntervalIndex,
+                              PriceKeyFilter priceKeyFilter,
+                              TransactionalOperator transactionalOperator,
+                              @Value("${prices.import.batch-size:500}") int batchSize) {
+        this.priceRepository = priceRepository;
+        this.cacheEvictionService = cacheEvictionService;
+        this.priceIntervalIndex = priceIntervalIndex;
+        this.priceKeyFilter = priceKeyFilter;
+        this.transactionalOperator = transactionalOperator;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Mono<PriceImportReport> importPrices(Flux<PriceImportRow> rows) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            ImportState state = new ImportState();
+            Flux<Long> inserted = rows
+                    .buffer(batchSize)
+                    .concatMap(batch -> validate(batch, state))
+                    .concatMap(priceRepository::saveAll);
+
+            return transactionalOperator.transactional(inserted)
+                    .reduce(0L, Long::sum)
+                    .flatMap(imported -> refresh(state.groups.keySet()).thenReturn(imported))
+                    .map(imported -> state.report(imported, System.nanoTime() - start));
+        });
+    }
+
+    private Mono<List<Price>> validate(List<PriceImportRow> batch, ImportState state) {
+        List<Price> complete = batch.stream()
+                .filter(row -> row.getError() == null && row.getPrice() != null && isComplete(row.getPrice()))
+                .map(PriceImportRow::getPrice)
+                .toList();
+        Set<PriceKey> unknown = complete.stream()
+                .map(PriceKey::of)
+                .filter(key -> !state.groups.containsKey(key))
+                .collect(Collectors.toSet());
+
+        return Mono.zip(loadGroups(unknown), priceRepository.findExistingReferences(PriceReferences.of(complete)))
+                .map(loaded -> {
+                    state.groups.putAll(loaded.getT1());
+                    List<Price> accepted = new ArrayList<>(batch.size());
+                    for (PriceImportRow row : batch) {
+                        state.received++;
+                        String reason = rejectReason(row, loaded.getT2(), state);
+                        if (reason != null) {
+                            state.reject(row.getLine(), reason);
+                        } else {
+                            accepted.add(row.getPrice());
+                        }
+                    }
+                    return accepted;
+                });
+    }
+
+    private String rejectReason(PriceImportRow row, PriceReferences existing, ImportState state) {
+        if (row.getError() != null) {
+            return row.getError();
+        }
+        Price price = row.getPrice();
+        if (!isComplete(price)) {
+            return "Product Id, brand Id, price list, priority and price are required.";
+        }
+        String missing = existing.missing(price);
+        if (missing != null) {
+            return missing;
+        }
+        ImportGroup group = state.groups.get(PriceKey.of(price));
+        if (group.intervals.overlaps(price)) {
+            return "Price overlaps with an existing price.";
+        }
+        if (!group.priceLists.add(new PriceListKey(price))) {
+            return "Price list, priority and currency are already used for this product and brand.";
+        }
+        group.intervals.add(price);
+        return null;
+    }
+
+    private static boolean isComplete(Price price) {
+        return price.getProductId() != null && price.getBrandId() != null && price.getPriceList() != null
+                && price.getPriority() != null && price.getPrice() != null;
+    }
+
+    private Mono<Map<PriceKey, ImportGroup>> loadGroups(Set<PriceKey> keys) {
+        if (keys.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return priceRepository.findAllByProductIdAndBrandIdIn(keys)
+                .collect(Collectors.groupingBy(PriceKey::of))
+                .map(existing -> {
+                    Map<PriceKey, ImportGroup> groups = new HashMap<>();
+                    keys.forEach(key -> groups.put(key, ImportGroup.of(existing.getOrDefault(key, List.of()))));
+                    return groups;
+                });
+    }
+
+    private Mono<Void> refresh(Set<PriceKey> keys) {
+        keys.forEach(priceKeyFilter::add);
+        Mono<Void> evicted = Flux.fromIterable(keys).concatMap(cacheEvictionService::evictCurrentPricesCache).then();
+        if (!priceIntervalIndex.isReady() || keys.isEmpty()) {
+            return evicted;
+        }
+        return evicted.thenMany(Flux.fromIterable(keys))
+                .buffer(batchSize)
+                .concatMap(chunk -> priceRepository.findAllByProductIdAndBrandIdIn(chunk)
+                        .collect(Collectors.groupingBy(PriceKey::of))
+                        .doOnNext(prices -> chunk.forEach(key ->
+                                priceIntervalIndex.put(key, PriceTimeline.of(prices.getOrDefault(key, List.of()))))))
+                .then();
+    }
+
+    private record PriceListKey(Long priceList, Integer priority, String curr) {
+        PriceListKey(Price price) {
+            this(price.getPriceList(), price.getPriority(), price.getCurr());
+        }
+    }
+
+    private record ImportGroup(PriceIntervalSet intervals, Set<PriceListKey> priceLists) {
+        static ImportGroup of(List<Price> existing) {
+            Set<PriceListKey> priceLists = new HashSet<>();
+            existing.forEach(price -> priceLists.add(new PriceListKey(price)));
+            return new ImportGroup(PriceIntervalSet.of(existing), priceLists);
+        }
+    }
+
+    private static class ImportState {
+        private final Map<PriceKey, ImportGroup> groups = new HashMap<>();
+        private final List<PriceImportReject> rejects = new ArrayList<>();
+        private long received;
+        private long rejected;
+
+        private void reject(long line, String reason) {
+            rejected++;
+            if (rejects.size() < MAX_REPORTED_REJECTS) {
+                rejects.add(PriceImportReject.builder().line(line).reason(reason).build());
+            }
+        }
+
+        private PriceImportReport report(long imported, long elapsedNanos) {
+            double seconds = elapsedNanos / 1_000_000_000d;
+            return PriceImportReport.builder()
+                    .received(received)
+                    .imported(imported)
+                    .rejected(rejected)
+                    .rejects(List.copyOf(rejects))
+                    .elapsedMillis(elapsedNanos / 1_000_000)
+                    .rowsPerSecond(seconds > 0 ? received / seconds : 0)
+                    .build();
+        }
+    }
+}
@@ -1,46 +1,71 @@
 package com.bcnc.payments.application;
 
-import com.bcnc.payments.application.cache.CacheConstants;
+import com.bcnc.payments.application.batch.PriceCreateBatcher;
 import com.bcnc.payments.application.cache.CacheEvictionService;
+import com.bcnc.payments.application.cache.PriceTimelineCache;
+import com.bcnc.payments.application.profiling.PriceLookupEvent;
+import com.bcnc.payments.application.profiling.PriceOverlapCheckEvent;
+import com.bcnc.payments.application.sequencer.PriceWriteSequencer;
 import com.bcnc.payments.domain.price.*;
 import com.bcnc.payments.port.in.rest.RestPricePort;
 import com.bcnc.payments.port.out.DatabasePricePort;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class PriceService implements RestPricePort {
     private final DatabasePricePort priceRepository;
     private final PriceManager priceManager;
-    private final CacheManager cacheManager;
+    private final PriceTimelineCache priceTimelineCache;
     private final CacheEvictionService cacheEvictionService;
+    private final PriceIntervalIndex priceIntervalIndex;
+    private final PriceKeyFilter priceKeyFilter;
+    private final PriceWriteSequencer priceWriteSequencer;
+    private final PriceCreateBatcher priceCreateBatcher;
 
     public PriceService(DatabasePricePort priceRepository,
                         PriceManager priceManager,
-                        CacheManager cacheManager,
-                        CacheEvictionService cacheEvictionService) {
+                        PriceTimelineCache priceTimelineCache,
+                        CacheEvictionService cacheEvictionService,
+                        PriceIntervalIndex priceIntervalIndex,
+                        PriceKeyFilter priceKeyFilter,
+                        PriceWriteSequencer priceWriteSequencer,
+                        PriceCreateBatcher priceCreateBatcher) {
         this.priceRepository = priceRepository;
         this.priceManager = priceManager;
-        this.cacheManager = cacheManager;
+        this.priceTimelineCache = priceTimelineCache;
         this.cacheEvictionService = cacheEvictionService;
+        this.priceIntervalIndex = priceIntervalIndex;
+        this.priceKeyFilter = priceKeyFilter;
+        this.priceWriteSequencer = priceWriteSequencer;
+        this.priceCreateBatcher = priceCreateBatcher;
     }
 
     @Override
     public Mono<Price> create(Price price) {
-        Flux<Price> prices =
-                priceRepository.findAllByProductIdAndBrandId(price.getProductId(), price.getBrandId());
+        if (priceCreateBatcher.isEnabled()) {
+            return priceCreateBatcher.create(price);
+        }
+        return priceWriteSequencer.sequence(PriceKey.of(price), () -> checkAndSave(price));
+    }
+
+    private Mono<Price> checkAndSave(Price price) {
+        return checkAndSave(price, null);
+    }
 
-        return this.priceManager
-                .doesPriceOverlap(prices, price)
+    private Mono<Price> checkAndSave(Price price, Long replacedId) {
+        return doesPriceOverlap(price, replacedId)
                 .flatMap(
                         overlapping -> {
                             if (overlapping) {
@@ -49,7 +74,59 @@ public class PriceService implements RestPricePort {
                             }
                             return priceRepository.save(price);
                         })
-                .switchIfEmpty(Mono.defer(() -> priceRepository.save(price)));
+                .switchIfEmpty(Mono.defer(() -> priceRepository.save(price)))
+                .flatMap(saved -> {
+                    priceKeyFilter.add(PriceKey.of(saved));
+                    priceIntervalIndex.add(saved);
+                    return cacheEvictionService.priceSaved(saved).thenReturn(saved);
+                });
+    }
+
+    @Override
+    public Mono<Price> update(Long id, Price price) {
+        return priceWriteSequencer.sequence(PriceKey.of(price), () -> priceRepository
+                .findById(id)
+                .switchIfEmpty(Mono.error(() -> new PriceNotFoundException(String.format("Price with ID %d not found.", id))))
+                .flatMap(existing -> {
+                    if (!PriceKey.of(existing).equals(PriceKey.of(price))) {
+                        return Mono.error(new InvalidPriceException("The product and brand of a price cannot be changed."));
+                    }
+                    price.setId(id);
+                    return checkAndSave(price, id);
+                }));
+    }
+
+    private Mono<Boolean> doesPriceOverlap(Price price, Long replacedId) {
+        if (priceIntervalIndex.isReady()) {
+            return Mono.fromSupplier(() -> {
+                PriceOverlapCheckEvent event =
+                        PriceOverlapCheckEvent.begin(price.getProductId(), price.getBrandId(), "index");
+                PriceTimeline timeline = priceIntervalIndex.get(PriceKey.of(price));
+                if (replacedId != null) {
+                    timeline = timeline.without(replacedId);
+                }
+                boolean overlapping = priceManager.doesPriceOverlap(timeline, price);
+                if (event != null) {
+                    event.input(timeline.getPrices().size());
+                    event.end(overlapping);
+                }
+                return overlapping;
+            });
+        }
+        return Mono.defer(() -> {
+            PriceOverlapCheckEvent event =
+                    PriceOverlapCheckEvent.begin(price.getProductId(), price.getBrandId(), "database");
+            Flux<Price> candidates = priceRepository.findOverlapping(
+                    price.getProductId(), price.getBrandId(), price.getStartDate(), price.getEndDate());
+            if (replacedId != null) {
+                candidates = candidates.filter(candidate -> !replacedId.equals(candidate.getId()));
+            }
+            if (event == null) {
+                return priceManager.doesPriceOverlap(candidates, price);
+            }
+            return priceManager.doesPriceOverlap(candidates.doOnNext(candidate -> event.input(1)), price)
+                    .doOnNext(event::end);
+        });
     }
 
     @Override
@@ -57,14 +134,10 @@ public class PriceService implements RestPricePort {
         return priceRepository
                 .findById(id)
                 .switchIfEmpty(Mono.error(new PriceNotFoundException(String.format("Price with ID %d not found.", id))))
-                .flatMap(existingPrice -> priceRepository.delete(id)
-                        .then(Mono.fromRunnable(() ->
-                                this.cacheEvictionService.evictCurrentPricesCache(
-                                        existingPrice.getProductId(),
-                                        existingPrice.getBrandId(),
-                                        existingPrice.getStartDate())
-                        ))
-                );
+                .flatMap(existingPrice -> priceWriteSequencer.sequence(PriceKey.of(existingPrice), () -> priceRepository
+                        .delete(id)
+                        .then(Mono.fromRunnable(() -> priceIntervalIndex.remove(existingPrice)))
+                        .then(cacheEvictionService.priceDeleted(existingPrice))));
     }
 
     @Override
@@ -72,36 +145,133 @@ public class PriceService implements RestPricePort {
         return priceRepository.findAll(pageable);
     }
 
+    @Override
+    public Mono<PriceSlice> findAll(Long afterId, int size, boolean includeTotal) {
+        Mono<Optional<Long>> total = includeTotal
+                ? priceRepository.count().map(Optional::of)
+                : Mono.just(Optional.empty());
+        return priceRepository
+                .findAllAfter(afterId != null ? afterId : 0L, size + 1)
+                .collectList()
+                .zipWith(total, (prices, count) -> PriceSlice.of(prices, size, count.orElse(null)));
+    }
+
+    @Override
+    public Flux<Price> exportAll() {
+        return priceRepository.findAll();
+    }
+
     @Override
     public Mono<CurrentPrice> getCurrentPrice(Long productId, Long brandId, LocalDateTime date) {
-        Cache cache = cacheManager.getCache(CacheConstants.CURRENT_PRICES_CACHE);
-        if (cache == null) {
-            return Mono.error(new IllegalStateException("Cache not found"));
+        PriceKey key = new PriceKey(productId, brandId);
+        Mono<CurrentPrice> price = priceIntervalIndex.isReady()
+                ? Mono.justOrEmpty(priceIntervalIndex.find(productId, brandId, date))
+                : cachedTimeline(key, date).mapNotNull(timeline -> timeline.find(date));
+        return PriceLookupEvent.record(productId, brandId, () -> lookupSource(key),
+                price.switchIfEmpty(Mono.error(PriceNotFoundException::noPrice)));
+    }
+
+    @Override
+    public Mono<CurrentPriceInterval> getCurrentPriceInterval(Long productId, Long brandId, LocalDateTime date) {
+        PriceKey key = new PriceKey(productId, brandId);
+        Mono<PriceTimeline> timeline = priceIntervalIndex.isReady()
+                ? Mono.fromSupplier(() -> priceIntervalIndex.get(key))
+                : cachedTimeline(key, date);
+        return PriceLookupEvent.record(productId, brandId, () -> lookupSource(key),
+                timeline.mapNotNull(found -> found.findInterval(date))
+                        .switchIfEmpty(Mono.error(PriceNotFoundException::noPrice)));
+    }
+
+    private String lookupSource(PriceKey key) {
+        if (priceIntervalIndex.isReady()) {
+            return "index";
         }
+        if (!priceKeyFilter.mightContain(key)) {
+            return "filter";
+        }
+        return priceTimelineCache.isCached(key) ? "cache" : "database";
+    }
 
-        String cacheKey = productId + "-" + brandId;
+    @Override
+    public Flux<PriceSegment> getPriceTimeline(Long productId, Long brandId, LocalDateTime from, LocalDateTime to) {
+        PriceKey key = new PriceKey(productId, brandId);
+        return Mono.defer(() -> {
+                    if (priceIntervalIndex.isReady()) {
+                        return Mono.just(priceIntervalIndex.get(key));
+                    }
+                    PriceTimeline cached = priceTimelineCache.getIfPresent(key);
+                    if (cached != null && cached.covers(from, to)) {
+                        return Mono.just(cached);
+                    }
+                    if (!priceKeyFilter.mightContain(key)) {
+                        return Mono.just(PriceTimeline.empty());
+                    }
+                    return priceRepository
+                            .findAllByProductIdAndBrandIdBetween(productId, brandId, from, to)
+                            .collectList()
+                            .map(PriceTimeline::of);
+                })
+                .flatMapIterable(timeline -> timeline.segments(from, to));
+    }
 
-        TreeMap<LocalDateTime, CurrentPrice> cachedPrices = cache.get(cacheKey, TreeMap.class);
-        if (cachedPrices != null) {
-            Map.Entry<LocalDateTime, CurrentPrice> entry = cachedPrices.floorEntry(date);
-            if (entry != null) {
-                CurrentPrice price = entry.getValue();
-                if (!date.isBefore(price.getStartDate()) && !date.isAfter(price.getEndDate())) {
-                    return Mono.just(price);
-                }
-            }
+    private Mono<PriceTimeline> cachedTimeline(PriceKey key, LocalDateTime date) {
+        if (!priceKeyFilter.mightContain(key)) {
+            return Mono.just(PriceTimeline.empty());
+        }
+        Duration window = priceTimelineCache.loadWindow();
+        if (window.isZero()) {
+            return priceTimelineCache.get(key, this::loadTimeline);
+        }
+        return priceTimelineCache.get(
+                key, timeline -> timeline.covers(date), k -> loadTimeline(k, date.minus(window), date.plus(window)));
+    }
+
+    @Override
+    public Flux<CurrentPriceResult> getCurrentPrices(List<PriceLookup> lookups) {
+        if (priceIntervalIndex.isReady()) {
+            return Flux.fromIterable(lookups)
+                    .map(lookup -> CurrentPriceResult.of(
+                            lookup,
+                            priceIntervalIndex.find(lookup.getProductId(), lookup.getBrandId(), lookup.getDate())));
         }
 
-        return priceRepository.getCurrentPriceByProductAndBrand(productId, brandId, date)
-                .switchIfEmpty(
-                        Mono.error(new PriceNotFoundException("No price found for the given product and brand."))
-                )
-                .flatMap(price -> {
-                    TreeMap<LocalDateTime, CurrentPrice> prices = cachedPrices != null ? cachedPrices : new TreeMap<>();
-                    prices.put(price.getStartDate(), price);
-                    cache.put(cacheKey, prices);
+        Set<PriceKey> keys = lookups.stream()
+                .map(PriceLookup::toKey)
+                .filter(priceKeyFilter::mightContain)
+                .collect(Collectors.toSet());
+        return priceTimelineCache
+                .getAll(keys, this::loadTimelines)
+                .flatMapMany(timelines -> Flux.fromIterable(lookups)
+                        .concatMap(lookup -> {
+                            PriceTimeline timeline = timelines.get(lookup.toKey());
+                            if (timeline != null && !timeline.covers(lookup.getDate())) {
+                                return cachedTimeline(lookup.toKey(), lookup.getDate())
+                                        .map(loaded -> CurrentPriceResult.of(lookup, loaded.find(lookup.getDate())));
+                            }
+                            return Mono.just(CurrentPriceResult.of(
+                                    lookup, timeline != null ? timeline.find(lookup.getDate()) : null));
+                        }));
+    }
 
-                    return Mono.just(price);
-                });
+    private Mono<Map<PriceKey, PriceTimeline>> loadTimelines(Set<PriceKey> keys) {
+        return priceRepository
+                .findAllByProductIdAndBrandIdIn(keys)
+                .collect(Collectors.groupingBy(PriceKey::of))
+                .map(prices -> prices.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> PriceTimeline.of(entry.getValue()))));
+    }
+
+    private Mono<PriceTimeline> loadTimeline(PriceKey key, LocalDateTime from, LocalDateTime to) {
+        return priceRepository
+                .findAllByProductIdAndBrandIdBetween(key.productId(), key.brandId(), from, to)
+                .collectList()
+                .map(prices -> PriceTimeline.of(prices, from, to));
+    }
+
+    private Mono<PriceTimeline> loadTimeline(PriceKey key) {
+        return priceRepository
+                .findAllByProductIdAndBrandId(key.productId(), key.brandId())
+                .collectList()
+                .map(PriceTimeline::of);
     }
 }
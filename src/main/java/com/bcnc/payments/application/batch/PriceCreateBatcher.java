@@ -0,0 +1,223 @@
+package com.bcnc.payments.application.batch;
+
+import com.bcnc.payments.application.cache.CacheEvictionService;
+import com.bcnc.payments.application.sequencer.PriceWriteSequencer;
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceIntervalIndex;
+import com.bcnc.payments.domain.price.PriceIntervalSet;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceKeyFilter;
+import com.bcnc.payments.domain.price.PriceOverlappingException;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit for single price creates. Concurrent creates are gathered until the batch is full or the linger
+ * elapses, validated together against the stored prices and each other, and inserted with one multi-row statement.
+ * Batches are flushed one at a time, so creates stay ordered with each other while later arrivals fill the next
+ * batch. A flush holds the {@link PriceWriteSequencer} slots of all its keys, so it never validates against prices
+ * an update or delete is still changing. Each caller completes with its own saved price or its own error.
+ */
+@Component
+public class PriceCreateBatcher {
+    private static final Logger log = LoggerFactory.getLogger(PriceCreateBatcher.class);
+
+    private final DatabasePricePort priceRepository;
+    private final CacheEvictionService cacheEvictionService;
+    private final PriceIntervalIndex priceIntervalIndex;
+    private final PriceKeyFilter priceKeyFilter;
+    private final PriceWriteSequencer priceWriteSequencer;
+    private final DistributionSummary batchSizes;
+    private final boolean enabled;
+    private final AtomicReference<FluxSink<PendingCreate>> requests = new AtomicReference<>();
+    private Disposable flushes;
+
+    public PriceCreateBatcher(DatabasePricePort priceRepository,
+                              CacheEvictionService cacheEvictionService,
+                              PriceIntervalIndex priceIntervalIndex,
+                              PriceKeyFilter priceKeyFilter,
+                              PriceWriteSequencer priceWriteSequencer,
+                              MeterRegistry meterRegistry,
+                              @Value("${prices.write.batching.enabled:false}") boolean enabled,
+                              @Value("${prices.write.batching.max-size:100}") int maxSize,
+                              @Value("${prices.write.batching.linger:2ms}") Duration linger) {
+        this.priceRepository = priceRepository;
+        this.cacheEvictionService = cacheEvictionService;
+        this.priceIntervalIndex = priceIntervalIndex;
+        this.priceKeyFilter = priceKeyFilter;
+        this.priceWriteSequencer = priceWriteSequencer;
+        this.batchSizes = DistributionSummary.builder("prices.write.batch.size")
+                .description("Number of price creates flushed together in one insert")
+                .register(meterRegistry);
+        this.enabled = enabled;
+        if (enabled) {
+            flushes = Flux.<PendingCreate>create(requests::set)
+                    .bufferTimeout(maxSize, linger, true)
+                    .concatMap(this::flush, 1)
+                    .subscribe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Mono<Price> create(Price price) {
+        return Mono.create(sink -> requests.get().next(new PendingCreate(price, sink)));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flushes != null) {
+            flushes.dispose();
+        }
+    }
+
+    private Mono<Void> flush(List<PendingCreate> batch) {
+        batchSizes.record(batch.size());
+        Set<PriceKey> keys = batch.stream().map(pending -> PriceKey.of(pending.price())).collect(Collectors.toSet());
+        return priceWriteSequencer.sequence(keys, () -> flush(batch, keys));
+    }
+
+    private Mono<Void> flush(List<PendingCreate> batch, Set<PriceKey> keys) {
+        return loadGroups(keys)
+                .flatMap(groups -> {
+                    List<PendingCreate> accepted = new ArrayList<>(batch.size());
+                    for (PendingCreate pending : batch) {
+                        RuntimeException rejection = validate(pending.price(), groups);
+                        if (rejection != null) {
+                            pending.error(rejection);
+                        } else {
+                            accepted.add(pending);
+                        }
+                    }
+                    return insert(accepted);
+                })
+                .onErrorResume(ex -> {
+                    // Callers already rejected or saved keep their outcome; only the ones still waiting fail.
+                    List<PendingCreate> failed = batch.stream().filter(PendingCreate::isPending).toList();
+                    log.error("{} of {} price creates in a batch could not be flushed", failed.size(), batch.size(), ex);
+                    failed.forEach(pending -> pending.error(ex));
+                    return Mono.empty();
+                });
+    }
+
+    private RuntimeException validate(Price price, Map<PriceKey, CreateGroup> groups) {
+        CreateGroup group = groups.get(PriceKey.of(price));
+        if (group.intervals().overlaps(price)) {
+            return new PriceOverlappingException("Price overlaps with an existing price.");
+        }
+        if (!group.priceLists().add(new PriceListKey(price))) {
+            return new DuplicateKeyException(
+                    "Price list, priority and currency are already used for this product and brand.");
+        }
+        group.intervals().add(price);
+        return null;
+    }
+
+    private Mono<Void> insert(List<PendingCreate> accepted) {
+        if (accepted.isEmpty()) {
+            return Mono.empty();
+        }
+        return priceRepository.createAll(accepted.stream().map(PendingCreate::price).toList())
+                .collectList()
+                // One bad row fails the whole statement; fall back to single inserts so each caller gets its own error.
+                .onErrorResume(ex -> Flux.fromIterable(accepted)
+                        .concatMap(pending -> priceRepository.save(pending.price())
+                                .flatMap(saved -> complete(pending, saved))
+                                .onErrorResume(single -> {
+                                    pending.error(single);
+                                    return Mono.empty();
+                                }))
+                        .then(Mono.empty()))
+                .flatMap(saved -> Flux.range(0, saved.size())
+                        .concatMap(i -> complete(accepted.get(i), saved.get(i)))
+                        .then());
+    }
+
+    private Mono<Void> complete(PendingCreate pending, Price saved) {
+        priceKeyFilter.add(PriceKey.of(saved));
+        priceIntervalIndex.add(saved);
+        return cacheEvictionService.priceSaved(saved).doOnSuccess(done -> pending.success(saved));
+    }
+
+    private Mono<Map<PriceKey, CreateGroup>> loadGroups(Set<PriceKey> keys) {
+        if (priceIntervalIndex.isReady()) {
+            return Mono.fromSupplier(() -> {
+                Map<PriceKey, CreateGroup> groups = new HashMap<>();
+                keys.forEach(key -> groups.put(key, CreateGroup.of(priceIntervalIndex.get(key).getPrices())));
+                return groups;
+            });
+        }
+        return priceRepository.findAllByProductIdAndBrandIdIn(keys)
+                .collect(Collectors.groupingBy(PriceKey::of))
+                .map(existing -> {
+                    Map<PriceKey, CreateGroup> groups = new HashMap<>();
+                    keys.forEach(key -> groups.put(key, CreateGroup.of(existing.getOrDefault(key, List.of()))));
+                    return groups;
+                });
+    }
+
+    /**
+     * A caller waiting for its create. It is signalled at most once, whichever of validation, insert or a batch
+     * failure gets to it first.
+     */
+    private record PendingCreate(Price price, MonoSink<Price> sink, AtomicBoolean signalled) {
+        PendingCreate(Price price, MonoSink<Price> sink) {
+            this(price, sink, new AtomicBoolean());
+        }
+
+        boolean isPending() {
+            return !signalled.get();
+        }
+
+        void success(Price saved) {
+            if (signalled.compareAndSet(false, true)) {
+                sink.success(saved);
+            }
+        }
+
+        void error(Throwable ex) {
+            if (signalled.compareAndSet(false, true)) {
+                sink.error(ex);
+            }
+        }
+    }
+
+    private record PriceListKey(Long priceList, Integer priority, String curr) {
+        PriceListKey(Price price) {
+            this(price.getPriceList(), price.getPriority(), price.getCurr());
+        }
+    }
+
+    private record CreateGroup(PriceIntervalSet intervals, Set<PriceListKey> priceLists) {
+        static CreateGroup of(List<Price> existing) {
+            Set<PriceListKey> priceLists = new HashSet<>();
+            existing.forEach(price -> priceLists.add(new PriceListKey(price)));
+            return new CreateGroup(PriceIntervalSet.of(existing), priceLists);
+        }
+    }
+}
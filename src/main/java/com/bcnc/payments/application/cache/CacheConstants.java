@@ -2,4 +2,5 @@ package com.bcnc.payments.application.cache;
 
 public class CacheConstants {
     public static final String CURRENT_PRICES_CACHE = "currentPrices";
+    public static final String ENCODED_RESPONSES_CACHE_MANAGER = "encodedResponses";
 }
@@ -1,27 +1,63 @@
 package com.bcnc.payments.application.cache;
 
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import com.bcnc.payments.application.invalidation.PriceInvalidationBroadcaster;
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceTimeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
+import java.util.function.UnaryOperator;
 
+/**
+ * Applies successful price writes to the current prices cache. Cached timelines are patched in place rather than
+ * evicted, and every change bumps the key's version so loads that started before the write are not cached. The
+ * changed key is then broadcast so peers drop their own copy. The write is already committed when it gets here, so
+ * a timeline that cannot be patched is dropped instead of failing the write; a caller retrying it would only be
+ * told that the price already exists.
+ */
 @Component
 public class CacheEvictionService {
+    private static final Logger log = LoggerFactory.getLogger(CacheEvictionService.class);
 
-    private final CacheManager cacheManager;
+    private final PriceTimelineCache priceTimelineCache;
+    private final PriceInvalidationBroadcaster priceInvalidationBroadcaster;
 
-    public CacheEvictionService(CacheManager cacheManager) {
-        this.cacheManager = cacheManager;
+    public CacheEvictionService(PriceTimelineCache priceTimelineCache,
+                                PriceInvalidationBroadcaster priceInvalidationBroadcaster) {
+        this.priceTimelineCache = priceTimelineCache;
+        this.priceInvalidationBroadcaster = priceInvalidationBroadcaster;
     }
 
-    public Mono<Void> evictCurrentPricesCache(Long productId, Long brandId, LocalDateTime date) {
-        String cacheKey = productId + "-" + brandId;
-        Cache cache = cacheManager.getCache(CacheConstants.CURRENT_PRICES_CACHE);
-        if (cache != null) {
-            cache.evict(cacheKey);
-        }
-        return Mono.empty();
+    public Mono<Void> evictCurrentPricesCache(PriceKey key) {
+        return Mono.fromRunnable(() -> {
+            priceTimelineCache.invalidate(key);
+            priceInvalidationBroadcaster.broadcast(key);
+        });
+    }
+
+    /**
+     * Adds a created price to the cached timeline of its key, or replaces the previous version of an updated one.
+     */
+    public Mono<Void> priceSaved(Price saved) {
+        return patch(PriceKey.of(saved), timeline -> timeline.with(saved));
+    }
+
+    public Mono<Void> priceDeleted(Price deleted) {
+        return patch(PriceKey.of(deleted), timeline -> timeline.without(deleted.getId()));
+    }
+
+    private Mono<Void> patch(PriceKey key, UnaryOperator<PriceTimeline> change) {
+        return Mono.fromRunnable(() -> {
+            try {
+                priceTimelineCache.update(key, change);
+            } catch (RuntimeException ex) {
+                log.warn("Cached timeline of {} could not be patched, dropping it", key, ex);
+                priceTimelineCache.invalidate(key);
+            }
+            priceInvalidationBroadcaster.broadcast(key);
+        });
     }
 }
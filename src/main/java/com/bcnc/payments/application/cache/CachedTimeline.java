@@ -0,0 +1,14 @@
+package com.bcnc.payments.application.cache;
+
+import com.bcnc.payments.domain.price.PriceTimeline;
+
+record CachedTimeline(PriceTimeline timeline, long loadedAt, long freshUntil) {
+
+    boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    boolean isOlderThan(long now, long age) {
+        return now - loadedAt >= age;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bcnc.payments.application.cache;
+
+import com.bcnc.payments.domain.price.CurrentPrice;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.function.Function;
+
+/**
+ * Keeps the encoded response of each {@link CurrentPrice} handed out by the price timelines. A
+ * timeline shares one instance per segment, so entries are keyed by identity and go away together
+ * with the timeline that owns them.
+ */
+public class EncodedCurrentPriceCache<T> {
+
+    private final Cache<CurrentPrice, T> cache;
+    private final Function<CurrentPrice, T> encoder;
+
+    public EncodedCurrentPriceCache(String name,
+                                    boolean enabled,
+                                    long maximumSize,
+                                    Function<CurrentPrice, T> encoder,
+                                    MeterRegistry meterRegistry) {
+        this.encoder = encoder;
+        if (enabled) {
+            this.cache = Caffeine.newBuilder().weakKeys().maximumSize(maximumSize).recordStats().build();
+            // Same tag keys as the caches Spring Boot binds from the cache manager, so the cache.* meters do not clash.
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, name,
+                    Tags.of("cache.manager", CacheConstants.ENCODED_RESPONSES_CACHE_MANAGER, "name", name));
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public T get(CurrentPrice price) {
+        return cache != null ? cache.get(price, encoder) : encoder.apply(price);
+    }
+}
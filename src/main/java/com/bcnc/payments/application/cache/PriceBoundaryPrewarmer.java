@@ -0,0 +1,201 @@
+package com.bcnc.payments.application.cache;
+
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceTimeline;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Looks ahead for price start and end dates, loads the affected timelines before the boundary and
+ * swaps them into the current prices cache when it hits, so a campaign starting for many products
+ * at once does not expire and reload all of them together.
+ */
+@Component
+@ConditionalOnProperty(name = "prices.prewarm.enabled", havingValue = "true")
+public class PriceBoundaryPrewarmer {
+    private static final Logger log = LoggerFactory.getLogger(PriceBoundaryPrewarmer.class);
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    private final DatabasePricePort priceRepository;
+    private final PriceTimelineCache priceTimelineCache;
+    private final Duration interval;
+    private final Duration lookahead;
+    private final Clock clock;
+    private final Scheduler scheduler;
+    private final Map<LocalDateTime, Set<PriceKey>> scheduled = new ConcurrentHashMap<>();
+    private final Disposable.Composite swaps = Disposables.composite();
+    private final Timer swapLatency;
+    private final Counter swappedKeys;
+    private Disposable ticks;
+
+    @Autowired
+    public PriceBoundaryPrewarmer(DatabasePricePort priceRepository,
+                                  PriceTimelineCache priceTimelineCache,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${prices.prewarm.interval:30s}") Duration interval,
+                                  @Value("${prices.prewarm.lookahead:2m}") Duration lookahead) {
+        this(priceRepository, priceTimelineCache, meterRegistry, interval, lookahead,
+                Clock.systemDefaultZone(), Schedulers.parallel());
+    }
+
+    PriceBoundaryPrewarmer(DatabasePricePort priceRepository,
+                           PriceTimelineCache priceTimelineCache,
+                           MeterRegistry meterRegistry,
+                           Duration interval,
+                           Duration lookahead,
+                           Clock clock,
+                           Scheduler scheduler) {
+        this.priceRepository = priceRepository;
+        this.priceTimelineCache = priceTimelineCache;
+        this.interval = interval;
+        this.lookahead = lookahead;
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.swapLatency = Timer.builder("prices.prewarm.swap.latency")
+                .description("Delay between a price boundary and the swap of its pre-warmed timelines")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .register(meterRegistry);
+        this.swappedKeys = Counter.builder("prices.prewarm.swapped")
+                .description("Pre-warmed timelines swapped into the current prices cache")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .register(meterRegistry);
+        Gauge.builder("prices.prewarm.staged", priceTimelineCache, PriceTimelineCache::stagedSize)
+                .description("Timelines loaded ahead of an upcoming price boundary")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ticks = Flux.interval(Duration.ZERO, interval, scheduler)
+                .onBackpressureDrop()
+                .concatMap(tick -> prewarm()
+                        .onErrorResume(ex -> {
+                            log.warn("Price boundaries could not be pre-warmed", ex);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticks != null) {
+            ticks.dispose();
+        }
+        swaps.dispose();
+    }
+
+    Mono<Void> prewarm() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime horizon = now.plus(lookahead);
+        return priceRepository.findWithBoundaryBetween(now, horizon)
+                .collect(() -> new TreeMap<LocalDateTime, Set<PriceKey>>(), (boundaries, price) -> {
+                    addBoundary(boundaries, price.getStartDate(), now, horizon, price);
+                    addBoundary(boundaries, PriceTimeline.fromEpochMicros(
+                            PriceTimeline.toEpochMicros(price.getEndDate()) + 1), now, horizon, price);
+                })
+                .flatMapIterable(Map::entrySet)
+                .map(boundary -> Map.entry(boundary.getKey(), schedule(boundary.getKey(), boundary.getValue())))
+                .filter(boundary -> !boundary.getValue().isEmpty())
+                .concatMap(boundary -> stage(boundary.getValue())
+                        .doOnSuccess(staged -> scheduleSwap(boundary.getKey(), boundary.getValue()))
+                        .doOnError(ex -> unschedule(boundary.getKey(), boundary.getValue())))
+                .then();
+    }
+
+    /**
+     * Returns the keys that are not yet scheduled for the boundary and marks them as scheduled, so a key whose
+     * price is written after the boundary was first seen is still loaded ahead of it.
+     */
+    private Set<PriceKey> schedule(LocalDateTime boundary, Set<PriceKey> keys) {
+        Set<PriceKey> pending = scheduled.computeIfAbsent(boundary, b -> ConcurrentHashMap.newKeySet());
+        return keys.stream().filter(pending::add).collect(Collectors.toSet());
+    }
+
+    private void unschedule(LocalDateTime boundary, Set<PriceKey> keys) {
+        scheduled.computeIfPresent(boundary, (b, pending) -> {
+            pending.removeAll(keys);
+            return pending.isEmpty() ? null : pending;
+        });
+    }
+
+    private static void addBoundary(Map<LocalDateTime, Set<PriceKey>> boundaries,
+                                    LocalDateTime boundary,
+                                    LocalDateTime now,
+                                    LocalDateTime horizon,
+                                    Price price) {
+        if (boundary.isAfter(now) && !boundary.isAfter(horizon)) {
+            boundaries.computeIfAbsent(boundary, b -> new HashSet<>()).add(PriceKey.of(price));
+        }
+    }
+
+    private Mono<Void> stage(Set<PriceKey> keys) {
+        return Flux.fromIterable(keys)
+                .buffer(LOAD_CHUNK_SIZE)
+                .concatMap(chunk -> Mono.defer(() -> {
+                    Map<PriceKey, Long> versions = chunk.stream()
+                            .collect(Collectors.toMap(key -> key, priceTimelineCache::version));
+                    return priceRepository.findAllByProductIdAndBrandIdIn(chunk)
+                            .collect(Collectors.groupingBy(PriceKey::of))
+                            .doOnNext(prices -> chunk.forEach(key -> priceTimelineCache.stage(
+                                    key, PriceTimeline.of(prices.getOrDefault(key, List.of())), versions.get(key))));
+                }))
+                .then();
+    }
+
+    /**
+     * Schedules the swap and keeps it cancellable until it fires. The holder is registered before the delay starts,
+     * so a swap that fires immediately still removes itself and nothing it captured outlives it.
+     */
+    private void scheduleSwap(LocalDateTime boundary, Set<PriceKey> keys) {
+        Duration delay = Duration.between(LocalDateTime.now(clock), boundary);
+        Disposable.Swap pending = Disposables.swap();
+        swaps.add(pending);
+        pending.update(Mono.delay(delay.isNegative() ? Duration.ZERO : delay, scheduler)
+                .doFinally(signal -> swaps.remove(pending))
+                .subscribe(tick -> swap(boundary, keys)));
+    }
+
+    int pendingSwaps() {
+        return swaps.size();
+    }
+
+    private void swap(LocalDateTime boundary, Set<PriceKey> keys) {
+        int promoted = priceTimelineCache.promote(keys);
+        Duration latency = Duration.between(boundary, LocalDateTime.now(clock));
+        swapLatency.record(latency.isNegative() ? Duration.ZERO : latency);
+        swappedKeys.increment(promoted);
+        unschedule(boundary, keys);
+        log.debug("Swapped {} pre-warmed price timelines at {}", promoted, boundary);
+    }
+}
@@ -0,0 +1,408 @@
+package com.bcnc.payments.application.cache;
+
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceTimeline;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache of price timelines per product and brand. Every write bumps a version shared by the keys of its stripe,
+ * and a load only stores its timeline if the version it started from is still current, so a load racing a write
+ * can never put the timeline from before the write back into the cache.
+ */
+public class PriceTimelineCache {
+    private static final Logger log = LoggerFactory.getLogger(PriceTimelineCache.class);
+    private static final Duration BOUNDARY_GRACE = Duration.ofSeconds(5);
+    private static final int VERSION_STRIPES = 4096;
+
+    private final Cache<PriceKey, CachedTimeline> cache;
+    private final PriceTimelineExpiry expiry;
+    private final Clock clock;
+    private final long refreshAfter;
+    private final Duration loadTimeout;
+    private final Duration loadWindow;
+    private final ConcurrentMap<PriceKey, CompletableFuture<PriceTimeline>> inFlight = new ConcurrentHashMap<>();
+    private final Set<PriceKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<PriceKey, StagedTimeline> staged = new ConcurrentHashMap<>();
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final Timer loadSuccess;
+    private final Timer loadFailure;
+    private final Counter coalescedLoads;
+    private final Counter refreshes;
+    private final Counter staleOnError;
+    private final Counter staleOnTimeout;
+    private final Counter puts;
+    private final Counter invalidations;
+    private final Counter patches;
+    private final Counter discardedLoads;
+
+    public PriceTimelineCache(PriceTimelineCacheSettings settings, MeterRegistry meterRegistry) {
+        this(settings, Clock.systemDefaultZone(), meterRegistry);
+    }
+
+    public PriceTimelineCache(PriceTimelineCacheSettings settings, Clock clock, MeterRegistry meterRegistry) {
+        this.clock = clock;
+        this.refreshAfter = settings.getRefreshAfter().toMillis();
+        this.loadTimeout = settings.getLoadTimeout();
+        this.loadWindow = settings.getLoadWindow();
+        this.expiry = new PriceTimelineExpiry(settings.getMaximumTtl(), settings.getNegativeTtl(),
+                BOUNDARY_GRACE, settings.getStaleWindow(), clock);
+        this.cache =
+                Caffeine.newBuilder()
+                        .maximumWeight(settings.getMaximumWeight())
+                        .weigher((PriceKey key, CachedTimeline entry) -> Math.max(1, entry.timeline().size()))
+                        .expireAfter(expiry)
+                        .recordStats()
+                        .build();
+        this.loadSuccess = loadTimer(meterRegistry, "success");
+        this.loadFailure = loadTimer(meterRegistry, "failure");
+        this.coalescedLoads = Counter.builder("prices.cache.loads.coalesced")
+                .description("Cache misses served by a load already in flight for the same key")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .register(meterRegistry);
+        this.refreshes = Counter.builder("prices.cache.refreshes")
+                .description("Background reloads of timelines older than the refresh age")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .register(meterRegistry);
+        this.puts = Counter.builder("prices.cache.puts")
+                .description("Timelines written to the current prices cache by loads, refreshes and pre-warming")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("prices.cache.invalidations")
+                .description("Timelines explicitly removed from the current prices cache after writes")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .register(meterRegistry);
+        this.patches = Counter.builder("prices.cache.patches")
+                .description("Cached timelines updated in place after writes")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .register(meterRegistry);
+        this.discardedLoads = Counter.builder("prices.cache.loads.discarded")
+                .description("Loaded timelines not cached because the key was written while they were loading")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .register(meterRegistry);
+        this.staleOnError = staleCounter(meterRegistry, "error");
+        this.staleOnTimeout = staleCounter(meterRegistry, "timeout");
+        Gauge.builder("prices.cache.weight", cache, c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                .description("Number of price intervals held by the current prices cache")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .register(meterRegistry);
+    }
+
+    private static Timer loadTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("prices.cache.loads")
+                .description("Time spent loading price timelines into the current prices cache")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter staleCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("prices.cache.stale.served")
+                .description("Expired timelines served because reloading them failed or was too slow")
+                .tag("cache", CacheConstants.CURRENT_PRICES_CACHE)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    public PriceTimeline getIfPresent(PriceKey key) {
+        CachedTimeline cached = cache.getIfPresent(key);
+        return cached != null && cached.isFresh(clock.millis()) ? cached.timeline() : null;
+    }
+
+    public boolean isCached(PriceKey key) {
+        CachedTimeline cached = cache.policy().getIfPresentQuietly(key);
+        return cached != null && cached.isFresh(clock.millis());
+    }
+
+    public Duration loadWindow() {
+        return loadWindow;
+    }
+
+    public Mono<PriceTimeline> get(PriceKey key, Function<PriceKey, Mono<PriceTimeline>> loader) {
+        return get(key, timeline -> true, loader);
+    }
+
+    /**
+     * Returns the cached timeline of the key if it is usable, loading it otherwise. A timeline that is not usable,
+     * such as one loaded for a window that does not cover the requested date, is replaced by a new load.
+     */
+    public Mono<PriceTimeline> get(
+            PriceKey key, Predicate<PriceTimeline> usable, Function<PriceKey, Mono<PriceTimeline>> loader) {
+        CachedTimeline cached = cache.getIfPresent(key);
+        if (cached == null || !usable.test(cached.timeline())) {
+            return Mono.defer(() -> Mono.fromFuture(load(key, loader, cached), true))
+                    .flatMap(timeline -> usable.test(timeline) ? Mono.just(timeline) : reload(key, loader));
+        }
+        long now = clock.millis();
+        if (cached.isFresh(now)) {
+            if (refreshDue(cached, now) && refreshing.add(key)) {
+                refreshes.increment();
+                load(key, loader, cached).whenComplete((timeline, ex) -> refreshing.remove(key));
+            }
+            return Mono.just(cached.timeline());
+        }
+        return withStaleFallback(
+                Mono.defer(() -> Mono.fromFuture(load(key, loader, cached), true)), cached::timeline);
+    }
+
+    private Mono<PriceTimeline> reload(PriceKey key, Function<PriceKey, Mono<PriceTimeline>> loader) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            long version = version(key);
+            return loader.apply(key)
+                    .defaultIfEmpty(PriceTimeline.empty())
+                    .doOnNext(timeline -> {
+                        loadSuccess.record(Duration.ofNanos(System.nanoTime() - start));
+                        put(key, timeline, version);
+                    })
+                    .doOnError(ex -> loadFailure.record(Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    private boolean refreshDue(CachedTimeline cached, long now) {
+        return refreshAfter > 0 && cached.isOlderThan(now, refreshAfter);
+    }
+
+    private <T> Mono<T> withStaleFallback(Mono<T> load, Supplier<T> stale) {
+        Mono<T> bounded = loadTimeout.isZero()
+                ? load
+                : load.timeout(loadTimeout, Mono.fromSupplier(() -> {
+                    staleOnTimeout.increment();
+                    return stale.get();
+                }));
+        return bounded.onErrorResume(ex -> {
+            log.warn("Serving stale price timelines, reload failed: {}", ex.toString());
+            staleOnError.increment();
+            return Mono.fromSupplier(stale);
+        });
+    }
+
+    private CompletableFuture<PriceTimeline> load(
+            PriceKey key, Function<PriceKey, Mono<PriceTimeline>> loader, CachedTimeline seen) {
+        CompletableFuture<PriceTimeline> pending = new CompletableFuture<>();
+        CompletableFuture<PriceTimeline> running = inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            coalescedLoads.increment();
+            return running;
+        }
+        CachedTimeline current = cache.policy().getIfPresentQuietly(key);
+        if (current != null && current != seen && current.isFresh(clock.millis())) {
+            inFlight.remove(key, pending);
+            return CompletableFuture.completedFuture(current.timeline());
+        }
+
+        long start = System.nanoTime();
+        long version = version(key);
+        loader.apply(key)
+                .defaultIfEmpty(PriceTimeline.empty())
+                .subscribe(
+                        timeline -> {
+                            loadSuccess.record(Duration.ofNanos(System.nanoTime() - start));
+                            put(key, timeline, version);
+                            inFlight.remove(key, pending);
+                            pending.complete(timeline);
+                        },
+                        ex -> {
+                            loadFailure.record(Duration.ofNanos(System.nanoTime() - start));
+                            inFlight.remove(key, pending);
+                            pending.completeExceptionally(ex);
+                        });
+        return pending;
+    }
+
+    public Mono<Map<PriceKey, PriceTimeline>> getAll(
+            Collection<PriceKey> keys, Function<Set<PriceKey>, Mono<Map<PriceKey, PriceTimeline>>> loader) {
+        return Mono.defer(() -> {
+            long now = clock.millis();
+            Map<PriceKey, PriceTimeline> timelines = new HashMap<>();
+            Map<PriceKey, PriceTimeline> stale = new HashMap<>();
+            Set<PriceKey> missing = new HashSet<>();
+            Set<PriceKey> refresh = new HashSet<>();
+            for (PriceKey key : keys) {
+                CachedTimeline cached = cache.getIfPresent(key);
+                if (cached != null && cached.isFresh(now)) {
+                    timelines.put(key, cached.timeline());
+                    if (refreshDue(cached, now) && refreshing.add(key)) {
+                        refresh.add(key);
+                    }
+                } else {
+                    missing.add(key);
+                    if (cached != null) {
+                        stale.put(key, cached.timeline());
+                    }
+                }
+            }
+            if (!refresh.isEmpty()) {
+                refreshes.increment(refresh.size());
+                loadAll(refresh, loader).whenComplete((loaded, ex) -> refreshing.removeAll(refresh));
+            }
+            if (missing.isEmpty()) {
+                return Mono.just(timelines);
+            }
+
+            Mono<Map<PriceKey, PriceTimeline>> loading = Mono.fromFuture(loadAll(missing, loader), true);
+            if (stale.size() == missing.size()) {
+                loading = withStaleFallback(loading, () -> stale);
+            }
+            return loading.map(loaded -> {
+                timelines.putAll(loaded);
+                return timelines;
+            });
+        });
+    }
+
+    private CompletableFuture<Map<PriceKey, PriceTimeline>> loadAll(
+            Set<PriceKey> keys, Function<Set<PriceKey>, Mono<Map<PriceKey, PriceTimeline>>> loader) {
+        long start = System.nanoTime();
+        Map<PriceKey, Long> started = new HashMap<>();
+        keys.forEach(key -> started.put(key, version(key)));
+        return loader.apply(keys)
+                .map(loaded -> {
+                    loadSuccess.record(Duration.ofNanos(System.nanoTime() - start));
+                    Map<PriceKey, PriceTimeline> timelines = new HashMap<>();
+                    for (PriceKey key : keys) {
+                        PriceTimeline timeline = loaded.getOrDefault(key, PriceTimeline.empty());
+                        put(key, timeline, started.get(key));
+                        timelines.put(key, timeline);
+                    }
+                    return timelines;
+                })
+                .doOnError(ex -> loadFailure.record(Duration.ofNanos(System.nanoTime() - start)))
+                .toFuture();
+    }
+
+    private void put(PriceKey key, PriceTimeline timeline, long version) {
+        boolean[] stored = {false};
+        cache.asMap().compute(key, (k, current) -> {
+            if (versions.get(versionStripe(k)) != version) {
+                return current;
+            }
+            stored[0] = true;
+            return expiry.wrap(timeline);
+        });
+        if (stored[0]) {
+            puts.increment();
+        } else {
+            discardedLoads.increment();
+        }
+    }
+
+    /**
+     * Returns the write version of the key. Timelines loaded or staged under an older version are not cached.
+     */
+    public long version(PriceKey key) {
+        return versions.get(versionStripe(key));
+    }
+
+    public void stage(PriceKey key, PriceTimeline timeline, long version) {
+        staged.put(key, new StagedTimeline(timeline, version));
+    }
+
+    public int promote(Collection<PriceKey> keys) {
+        int promoted = 0;
+        for (PriceKey key : keys) {
+            StagedTimeline entry = staged.remove(key);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.timeline().isEmpty()) {
+                cache.invalidate(key);
+            } else {
+                put(key, entry.timeline(), entry.version());
+            }
+            promoted++;
+        }
+        return promoted;
+    }
+
+    public int stagedSize() {
+        return staged.size();
+    }
+
+    public void invalidate(PriceKey key) {
+        cache.asMap().compute(key, (k, current) -> {
+            versions.incrementAndGet(versionStripe(k));
+            return null;
+        });
+        forgetPending(key);
+        invalidations.increment();
+    }
+
+    /**
+     * Applies a write to the cached timeline of the key in place, so the next lookup does not go to the database.
+     * Keys without a fresh timeline are left to load on their next lookup.
+     */
+    public void update(PriceKey key, UnaryOperator<PriceTimeline> change) {
+        boolean[] patched = {false};
+        cache.asMap().compute(key, (k, current) -> {
+            versions.incrementAndGet(versionStripe(k));
+            if (current == null || !current.isFresh(clock.millis())) {
+                return null;
+            }
+            patched[0] = true;
+            return expiry.wrap(change.apply(current.timeline()));
+        });
+        forgetPending(key);
+        if (patched[0]) {
+            patches.increment();
+        } else {
+            invalidations.increment();
+        }
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        staged.clear();
+        inFlight.clear();
+        invalidations.increment(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    private void forgetPending(PriceKey key) {
+        staged.remove(key);
+        // Lookups after the write start a new load instead of joining one that may have read the old rows.
+        inFlight.remove(key);
+    }
+
+    private static int versionStripe(PriceKey key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    public long weightedSize() {
+        return cache.policy().eviction().orElseThrow().weightedSize().orElse(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Cache<Object, Object> nativeCache() {
+        return (Cache<Object, Object>) (Cache<?, ?>) cache;
+    }
+
+    private record StagedTimeline(PriceTimeline timeline, long version) {
+    }
+}
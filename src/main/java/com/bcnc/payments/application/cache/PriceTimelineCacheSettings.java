@@ -0,0 +1,27 @@
+package com.bcnc.payments.application.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+@Builder
+public class PriceTimelineCacheSettings {
+    private final long maximumWeight;
+    private final Duration maximumTtl;
+    @Builder.Default
+    private final Duration negativeTtl = Duration.ofSeconds(30);
+    /** Age after which a read serves the cached timeline and reloads it in the background; zero disables it. */
+    @Builder.Default
+    private final Duration refreshAfter = Duration.ZERO;
+    /** How long an expired timeline may still be served when reloading it fails or is too slow. */
+    @Builder.Default
+    private final Duration staleWindow = Duration.ZERO;
+    /** Time to wait for a reload before serving the stale timeline; zero waits for the reload. */
+    @Builder.Default
+    private final Duration loadTimeout = Duration.ZERO;
+    /** Span loaded on each side of the requested date on a miss; zero loads the whole timeline of the key. */
+    @Builder.Default
+    private final Duration loadWindow = Duration.ZERO;
+}
@@ -0,0 +1,80 @@
+package com.bcnc.payments.application.cache;
+
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceTimeline;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Expires a cached timeline shortly after the next point where the price in effect changes, capped
+ * at a maximum time to live, so stable prices stay cached for long while promotions are reloaded as
+ * they start or end. The grace period leaves room for a pre-warmed timeline to be swapped in before
+ * the old one expires; the old timeline still resolves the new price correctly in the meantime.
+ * Empty timelines are kept only for the negative time to live, so keys without prices do not hit
+ * the database on every lookup but new prices for them show up quickly. Entries are kept for the
+ * stale window past that point so they can still be served if reloading them fails.
+ */
+public class PriceTimelineExpiry implements Expiry<PriceKey, CachedTimeline> {
+
+    private final Duration maximumTtl;
+    private final Duration negativeTtl;
+    private final Duration boundaryGrace;
+    private final Duration staleWindow;
+    private final Clock clock;
+
+    public PriceTimelineExpiry(Duration maximumTtl,
+                               Duration negativeTtl,
+                               Duration boundaryGrace,
+                               Duration staleWindow,
+                               Clock clock) {
+        this.maximumTtl = maximumTtl;
+        this.negativeTtl = negativeTtl;
+        this.boundaryGrace = boundaryGrace;
+        this.staleWindow = staleWindow;
+        this.clock = clock;
+    }
+
+    CachedTimeline wrap(PriceTimeline timeline) {
+        long now = clock.millis();
+        return new CachedTimeline(timeline, now, now + timeToLive(timeline).toMillis());
+    }
+
+    @Override
+    public long expireAfterCreate(PriceKey key, CachedTimeline entry, long currentTime) {
+        return remaining(entry);
+    }
+
+    @Override
+    public long expireAfterUpdate(PriceKey key, CachedTimeline entry, long currentTime, long currentDuration) {
+        return remaining(entry);
+    }
+
+    @Override
+    public long expireAfterRead(PriceKey key, CachedTimeline entry, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    private long remaining(CachedTimeline entry) {
+        long millis = entry.freshUntil() + staleWindow.toMillis() - clock.millis();
+        return Duration.ofMillis(Math.max(0, millis)).toNanos();
+    }
+
+    Duration timeToLive(PriceTimeline timeline) {
+        if (timeline.isEmpty()) {
+            return negativeTtl;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (!timeline.covers(now)) {
+            return maximumTtl;
+        }
+        LocalDateTime boundary = timeline.nextBoundaryAfter(now);
+        if (boundary == null) {
+            return maximumTtl;
+        }
+        Duration untilBoundary = Duration.between(now, boundary).plus(boundaryGrace);
+        return untilBoundary.compareTo(maximumTtl) < 0 ? untilBoundary : maximumTtl;
+    }
+}
@@ -1,12 +1,18 @@
 package com.bcnc.payments.application.config;
 
+import com.bcnc.payments.application.cache.CacheConstants;
+import com.bcnc.payments.application.cache.PriceTimelineCache;
+import com.bcnc.payments.application.cache.PriceTimelineCacheSettings;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
@@ -14,7 +20,30 @@ import java.util.concurrent.TimeUnit;
 public class CacheConfig {
 
   @Bean
-  public CacheManager cacheManager() {
+  public PriceTimelineCache priceTimelineCache(
+      @Value("${prices.cache.maximum-weight:500000}") long maximumWeight,
+      @Value("${prices.cache.maximum-ttl:1d}") Duration maximumTtl,
+      @Value("${prices.cache.negative-ttl:30s}") Duration negativeTtl,
+      @Value("${prices.cache.refresh-after:0s}") Duration refreshAfter,
+      @Value("${prices.cache.stale-window:0s}") Duration staleWindow,
+      @Value("${prices.cache.load-timeout:0s}") Duration loadTimeout,
+      @Value("${prices.cache.load-window:0s}") Duration loadWindow,
+      MeterRegistry meterRegistry) {
+    PriceTimelineCacheSettings settings =
+        PriceTimelineCacheSettings.builder()
+            .maximumWeight(maximumWeight)
+            .maximumTtl(maximumTtl)
+            .negativeTtl(negativeTtl)
+            .refreshAfter(refreshAfter)
+            .staleWindow(staleWindow)
+            .loadTimeout(loadTimeout)
+            .loadWindow(loadWindow)
+            .build();
+    return new PriceTimelineCache(settings, meterRegistry);
+  }
+
+  @Bean
+  public CacheManager cacheManager(PriceTimelineCache priceTimelineCache) {
     CaffeineCacheManager cacheManager = new CaffeineCacheManager();
 
     cacheManager.setCaffeine(
@@ -22,6 +51,9 @@ public class CacheConfig {
 
     cacheManager.setAsyncCacheMode(true);
 
+    cacheManager.registerCustomCache(
+        CacheConstants.CURRENT_PRICES_CACHE, priceTimelineCache.nativeCache());
+
     return cacheManager;
   }
 }
@@ -1,6 +1,7 @@
 package com.bcnc.payments.application.config;
 
 import com.bcnc.payments.domain.error.ErrorResponse;
+import com.bcnc.payments.domain.price.InvalidPriceException;
 import com.bcnc.payments.domain.price.PriceNotFoundException;
 import com.bcnc.payments.domain.price.PriceOverlappingException;
 import org.springframework.http.HttpStatus;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -18,11 +20,17 @@ public class GlobalExceptionHandler {
     private static ResponseEntity<ErrorResponse> getResponseEntity(
             HttpStatus status, String message) {
         ErrorResponse errorResponse =
-                new ErrorResponse(
-                        LocalDateTime.now(), status.value(), message, UUID.randomUUID().toString());
+                new ErrorResponse(LocalDateTime.now(), status.value(), message, requestId());
         return ResponseEntity.status(status).body(errorResponse);
     }
 
+    private static String requestId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & ~(0xC000000000000000L)) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
     @ExceptionHandler(PriceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handlePriceNotFoundException(PriceNotFoundException ex) {
         return getResponseEntity(HttpStatus.NOT_FOUND, ex.getMessage());
@@ -34,6 +42,11 @@ public class GlobalExceptionHandler {
         return getResponseEntity(HttpStatus.CONFLICT, ex.getMessage());
     }
 
+    @ExceptionHandler(InvalidPriceException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidPriceException(InvalidPriceException ex) {
+        return getResponseEntity(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException ex) {
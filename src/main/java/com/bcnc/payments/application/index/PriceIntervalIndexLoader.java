@@ -0,0 +1,34 @@
+package com.bcnc.payments.application.index;
+
+import com.bcnc.payments.domain.price.PriceIntervalIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "prices.index.enabled", havingValue = "true")
+public class PriceIntervalIndexLoader {
+    private static final Logger log = LoggerFactory.getLogger(PriceIntervalIndexLoader.class);
+
+    private final PriceIntervalIndexReloader priceIntervalIndexReloader;
+    private final PriceIntervalIndex priceIntervalIndex;
+
+    public PriceIntervalIndexLoader(PriceIntervalIndexReloader priceIntervalIndexReloader,
+                                    PriceIntervalIndex priceIntervalIndex) {
+        this.priceIntervalIndexReloader = priceIntervalIndexReloader;
+        this.priceIntervalIndex = priceIntervalIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        priceIntervalIndexReloader
+                .reload()
+                .subscribe(
+                        prices -> log.info("Price interval index loaded with {} prices for {} products",
+                                prices, priceIntervalIndex.size()),
+                        ex -> log.error("Price interval index could not be loaded", ex));
+    }
+}
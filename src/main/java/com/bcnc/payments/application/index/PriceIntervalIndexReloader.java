@@ -0,0 +1,44 @@
+package com.bcnc.payments.application.index;
+
+import com.bcnc.payments.domain.price.PriceIntervalIndex;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Loads the whole price table into the {@link PriceIntervalIndex}. The snapshot can miss writes that commit while
+ * it is read, so the keys written meanwhile are read again until a pass finds no new writes.
+ */
+@Component
+public class PriceIntervalIndexReloader {
+
+    private final DatabasePricePort priceRepository;
+    private final PriceIntervalIndex priceIntervalIndex;
+
+    public PriceIntervalIndexReloader(DatabasePricePort priceRepository, PriceIntervalIndex priceIntervalIndex) {
+        this.priceRepository = priceRepository;
+        this.priceIntervalIndex = priceIntervalIndex;
+    }
+
+    public Mono<Integer> reload() {
+        return Mono.fromRunnable(priceIntervalIndex::beginLoad)
+                .then(priceRepository.findAll().collectList())
+                .flatMap(prices -> Mono.fromSupplier(() -> priceIntervalIndex.load(prices))
+                        .expand(this::refresh)
+                        .then(Mono.just(prices.size())))
+                .doOnError(ex -> priceIntervalIndex.abortLoad());
+    }
+
+    private Mono<Set<PriceKey>> refresh(Set<PriceKey> keys) {
+        if (keys.isEmpty()) {
+            return Mono.empty();
+        }
+        return priceRepository
+                .findAllByProductIdAndBrandIdIn(keys)
+                .collectList()
+                .map(prices -> priceIntervalIndex.refresh(keys, prices));
+    }
+}
@@ -0,0 +1,63 @@
+package com.bcnc.payments.application.index;
+
+import com.bcnc.payments.domain.price.PriceKeyFilter;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Component
+@ConditionalOnProperty(name = "prices.filter.enabled", havingValue = "true")
+public class PriceKeyFilterLoader {
+    private static final Logger log = LoggerFactory.getLogger(PriceKeyFilterLoader.class);
+
+    private final DatabasePricePort priceRepository;
+    private final PriceKeyFilter priceKeyFilter;
+    private final Duration rebuildInterval;
+    private Disposable loads;
+
+    public PriceKeyFilterLoader(DatabasePricePort priceRepository,
+                                PriceKeyFilter priceKeyFilter,
+                                @Value("${prices.filter.rebuild-interval:10m}") Duration rebuildInterval) {
+        this.priceRepository = priceRepository;
+        this.priceKeyFilter = priceKeyFilter;
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loads = Flux.interval(Duration.ZERO, rebuildInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> load()
+                        .onErrorResume(ex -> {
+                            log.error("Price key filter could not be loaded", ex);
+                            return Mono.empty();
+                        }))
+                .subscribe(keys -> log.info("Price key filter loaded with {} product and brand pairs", keys));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (loads != null) {
+            loads.dispose();
+        }
+    }
+
+    Mono<Integer> load() {
+        return Mono.fromRunnable(priceKeyFilter::beginLoad)
+                .thenMany(priceRepository.findAllKeys())
+                .collectList()
+                .doOnNext(priceKeyFilter::load)
+                .map(keys -> keys.size());
+    }
+}
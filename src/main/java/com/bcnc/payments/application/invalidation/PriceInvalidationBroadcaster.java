@@ -0,0 +1,218 @@
+package com.bcnc.payments.application.invalidation;
+
+import com.bcnc.payments.application.cache.PriceTimelineCache;
+import com.bcnc.payments.application.index.PriceIntervalIndexReloader;
+import com.bcnc.payments.domain.price.PriceIntervalIndex;
+import com.bcnc.payments.domain.price.PriceInvalidation;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceKeyFilter;
+import com.bcnc.payments.domain.price.PriceTimeline;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import com.bcnc.payments.port.out.PriceInvalidationBusPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the local price caches of several instances coherent. Keys changed on this node are gathered for a short
+ * interval, coalesced and published as one numbered batch; batches from peers invalidate the same keys here. Each
+ * node numbers its batches and sends a heartbeat with the last number when idle, so a receiver that sees a gap
+ * knows it lost changes it cannot name and flushes everything it holds instead.
+ */
+@Component
+public class PriceInvalidationBroadcaster {
+    private static final Logger log = LoggerFactory.getLogger(PriceInvalidationBroadcaster.class);
+
+    private final PriceInvalidationBusPort bus;
+    private final PriceTimelineCache priceTimelineCache;
+    private final PriceIntervalIndex priceIntervalIndex;
+    private final PriceIntervalIndexReloader priceIntervalIndexReloader;
+    private final PriceKeyFilter priceKeyFilter;
+    private final DatabasePricePort priceRepository;
+    private final int batchSize;
+    private final Duration interval;
+    private final Duration heartbeatInterval;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Long> lastSequences = new ConcurrentHashMap<>();
+    private final AtomicReference<FluxSink<PriceKey>> changes = new AtomicReference<>();
+    private final Counter sentBatches;
+    private final Counter sentKeys;
+    private final Counter receivedBatches;
+    private final Counter receivedKeys;
+    private final Counter flushes;
+    private Disposable publishing;
+    private Disposable receiving;
+
+    public PriceInvalidationBroadcaster(PriceInvalidationBusPort bus,
+                                        PriceTimelineCache priceTimelineCache,
+                                        PriceIntervalIndex priceIntervalIndex,
+                                        PriceIntervalIndexReloader priceIntervalIndexReloader,
+                                        PriceKeyFilter priceKeyFilter,
+                                        DatabasePricePort priceRepository,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${prices.invalidation.batch-size:500}") int batchSize,
+                                        @Value("${prices.invalidation.interval:20ms}") Duration interval,
+                                        @Value("${prices.invalidation.heartbeat-interval:5s}") Duration heartbeatInterval) {
+        this.bus = bus;
+        this.priceTimelineCache = priceTimelineCache;
+        this.priceIntervalIndex = priceIntervalIndex;
+        this.priceIntervalIndexReloader = priceIntervalIndexReloader;
+        this.priceKeyFilter = priceKeyFilter;
+        this.priceRepository = priceRepository;
+        this.batchSize = batchSize;
+        this.interval = interval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.sentBatches = counter(meterRegistry, "prices.invalidation.batches", "sent",
+                "Invalidation batches exchanged with peers");
+        this.receivedBatches = counter(meterRegistry, "prices.invalidation.batches", "received",
+                "Invalidation batches exchanged with peers");
+        this.sentKeys = counter(meterRegistry, "prices.invalidation.keys", "sent",
+                "Product and brand pairs invalidated through peers");
+        this.receivedKeys = counter(meterRegistry, "prices.invalidation.keys", "received",
+                "Product and brand pairs invalidated through peers");
+        this.flushes = Counter.builder("prices.invalidation.flushes")
+                .description("Full flushes of the local price caches after missing a peer's batch")
+                .register(meterRegistry);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Flux<Set<PriceKey>> batches = Flux.<PriceKey>create(changes::set)
+                .bufferTimeout(batchSize, interval)
+                .map(LinkedHashSet::new);
+        Flux<Set<PriceKey>> heartbeats = Flux.interval(heartbeatInterval, heartbeatInterval)
+                .onBackpressureDrop()
+                .map(tick -> Set.of());
+        publishing = Flux.merge(batches, heartbeats)
+                .concatMap(this::publish)
+                .subscribe();
+        receiving = bus.received()
+                .onBackpressureBuffer()
+                .concatMap(message -> receive(message)
+                        .onErrorResume(ex -> {
+                            log.error("Invalidation {} from {} could not be applied",
+                                    message.sequence(), message.nodeId(), ex);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (publishing != null) {
+            publishing.dispose();
+        }
+        if (receiving != null) {
+            receiving.dispose();
+        }
+    }
+
+    /**
+     * Queues a key changed on this node for the next batch sent to peers.
+     */
+    public void broadcast(PriceKey key) {
+        FluxSink<PriceKey> sink = changes.get();
+        if (sink != null) {
+            sink.next(key);
+        }
+    }
+
+    Mono<Void> receive(PriceInvalidation message) {
+        if (nodeId.equals(message.nodeId())) {
+            return Mono.empty();
+        }
+        long last = lastSequences.getOrDefault(message.nodeId(), 0L);
+        if (message.sequence() <= last) {
+            return Mono.empty();
+        }
+        lastSequences.put(message.nodeId(), message.sequence());
+        if (message.isHeartbeat() || message.sequence() != last + 1) {
+            return flush(message, last);
+        }
+        receivedBatches.increment();
+        receivedKeys.increment(message.keys().size());
+        return apply(message.keys());
+    }
+
+    private Mono<Void> publish(Set<PriceKey> keys) {
+        long next = keys.isEmpty() ? sequence.get() : sequence.incrementAndGet();
+        return bus.publish(new PriceInvalidation(nodeId, next, keys))
+                .doOnSuccess(done -> {
+                    if (!keys.isEmpty()) {
+                        sentBatches.increment();
+                        sentKeys.increment(keys.size());
+                    }
+                })
+                .onErrorResume(ex -> {
+                    log.warn("Invalidation {} could not be published: {}", next, ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> apply(Set<PriceKey> keys) {
+        keys.forEach(key -> {
+            priceKeyFilter.add(key);
+            priceTimelineCache.invalidate(key);
+        });
+        if (!priceIntervalIndex.isReady()) {
+            return Mono.empty();
+        }
+        return priceRepository.findAllByProductIdAndBrandIdIn(keys)
+                .collect(Collectors.groupingBy(PriceKey::of))
+                .doOnNext(prices -> keys.forEach(key ->
+                        priceIntervalIndex.put(key, PriceTimeline.of(prices.getOrDefault(key, List.of())))))
+                .then();
+    }
+
+    private Mono<Void> flush(PriceInvalidation message, long last) {
+        log.warn("Missed invalidations from {} after {} up to {}, flushing local price caches",
+                message.nodeId(), last, message.sequence());
+        flushes.increment();
+        priceTimelineCache.invalidateAll();
+        Mono<Void> filter = Mono.empty();
+        if (priceKeyFilter.isReady()) {
+            // Every key might be contained until the reload completes, so a missed create is never hidden.
+            priceKeyFilter.reset();
+            priceKeyFilter.beginLoad();
+            filter = priceRepository.findAllKeys().collectList().doOnNext(priceKeyFilter::load).then();
+        }
+        Mono<Void> index = Mono.empty();
+        if (priceIntervalIndex.isReady()) {
+            index = priceIntervalIndexReloader.reload().then();
+        }
+        return filter.then(index);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String direction, String description) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+}
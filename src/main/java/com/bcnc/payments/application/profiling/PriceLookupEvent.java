@@ -0,0 +1,56 @@
+package com.bcnc.payments.application.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+@Name("com.bcnc.payments.PriceLookup")
+@Label("Price Lookup")
+@Category({"Payments", "Prices"})
+@Description("Current price lookup for a product and brand, from subscription until the price is resolved")
+@StackTrace(false)
+public class PriceLookupEvent extends Event {
+
+    @Label("Product Id")
+    long productId;
+
+    @Label("Brand Id")
+    long brandId;
+
+    @Label("Source")
+    @Description("Where the timeline came from: index, cache, filter or database")
+    String source;
+
+    @Label("Cache Hit")
+    boolean cacheHit;
+
+    @Label("Found")
+    boolean found;
+
+    /**
+     * Wraps a lookup in an event. When no recording has the event enabled the lookup is returned untouched and the
+     * probe instance does not escape, so the JIT removes the allocation.
+     */
+    public static <T> Mono<T> record(long productId, long brandId, Supplier<String> source, Mono<T> lookup) {
+        if (!new PriceLookupEvent().isEnabled()) {
+            return lookup;
+        }
+        return Mono.defer(() -> {
+            PriceLookupEvent event = new PriceLookupEvent();
+            event.productId = productId;
+            event.brandId = brandId;
+            event.source = source.get();
+            event.cacheHit = !"database".equals(event.source);
+            event.begin();
+            return lookup
+                    .doOnNext(found -> event.found = true)
+                    .doFinally(signal -> event.commit());
+        });
+    }
+}
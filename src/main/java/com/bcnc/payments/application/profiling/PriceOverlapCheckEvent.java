@@ -0,0 +1,57 @@
+package com.bcnc.payments.application.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.bcnc.payments.PriceOverlapCheck")
+@Label("Price Overlap Check")
+@Category({"Payments", "Prices"})
+@Description("Check of a new price against the existing prices of its product and brand")
+@StackTrace(false)
+public class PriceOverlapCheckEvent extends Event {
+
+    @Label("Product Id")
+    long productId;
+
+    @Label("Brand Id")
+    long brandId;
+
+    @Label("Source")
+    @Description("Where the existing prices came from: index or database")
+    String source;
+
+    @Label("Input Size")
+    @Description("Existing prices compared against the new one")
+    long inputSize;
+
+    @Label("Overlapping")
+    boolean overlapping;
+
+    /**
+     * Starts an event for the check, or returns {@code null} when no recording has it enabled.
+     */
+    public static PriceOverlapCheckEvent begin(long productId, long brandId, String source) {
+        PriceOverlapCheckEvent event = new PriceOverlapCheckEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.productId = productId;
+        event.brandId = brandId;
+        event.source = source;
+        event.begin();
+        return event;
+    }
+
+    public void input(long size) {
+        inputSize += size;
+    }
+
+    public void end(boolean overlapping) {
+        this.overlapping = overlapping;
+        commit();
+    }
+}
@@ -0,0 +1,47 @@
+package com.bcnc.payments.application.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.bcnc.payments.PriceQuery")
+@Label("Price Query")
+@Category({"Payments", "Database"})
+@Description("Price query run through the database port, from subscription until it completes, fails or is cancelled")
+@StackTrace(false)
+public class PriceQueryEvent extends Event {
+
+    @Label("Query")
+    String query;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Starts an event for the query, or returns {@code null} when no recording has it enabled.
+     */
+    public static PriceQueryEvent begin(String query) {
+        PriceQueryEvent event = new PriceQueryEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.query = query;
+        event.begin();
+        return event;
+    }
+
+    public void row() {
+        rows++;
+    }
+
+    public void end(String outcome) {
+        this.outcome = outcome;
+        commit();
+    }
+}
@@ -0,0 +1,86 @@
+package com.bcnc.payments.application.sequencer;
+
+import com.bcnc.payments.domain.price.PriceKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Orders writes per product and brand without blocking threads. Keys are hashed onto a fixed number of stripes;
+ * each stripe keeps the completion of its last queued write, and a new write subscribes only once that completes.
+ * Writes to keys on different stripes run fully in parallel, writes to one key run one at a time in arrival order.
+ */
+@Component
+public class PriceWriteSequencer {
+    private static final CompletableFuture<Void> IDLE = CompletableFuture.completedFuture(null);
+
+    private final AtomicReferenceArray<CompletableFuture<Void>> tails;
+    private final int mask;
+
+    public PriceWriteSequencer(@Value("${prices.write.stripes:256}") int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.tails = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            tails.set(i, IDLE);
+        }
+    }
+
+    /**
+     * Runs the write once the previous write to the same stripe has finished. A write cancelled while it is still
+     * queued is skipped. Once started it runs to completion even if its subscriber cancels, so the next write
+     * never overtakes it and the updates chained inside it are not cut short.
+     */
+    public <T> Mono<T> sequence(PriceKey key, Supplier<Mono<T>> write) {
+        return Mono.defer(() -> {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            CompletableFuture<Void> previous = tails.getAndSet(stripe(key), done);
+            return run(previous, done, write);
+        });
+    }
+
+    /**
+     * Runs a write that touches several keys once the previous writes to all of their stripes have finished, and
+     * holds those stripes until it completes.
+     */
+    public <T> Mono<T> sequence(Collection<PriceKey> keys, Supplier<Mono<T>> write) {
+        return Mono.defer(() -> {
+            int[] stripes = keys.stream().mapToInt(this::stripe).distinct().toArray();
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            CompletableFuture<?>[] previous = new CompletableFuture<?>[stripes.length];
+            // Two multi-key writes swapping in their tails interleaved could each end up waiting for the other.
+            synchronized (this) {
+                for (int i = 0; i < stripes.length; i++) {
+                    previous[i] = tails.getAndSet(stripes[i], done);
+                }
+            }
+            return run(CompletableFuture.allOf(previous), done, write);
+        });
+    }
+
+    private static <T> Mono<T> run(CompletableFuture<Void> previous,
+                                   CompletableFuture<Void> done,
+                                   Supplier<Mono<T>> write) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CompletableFuture<T> result = previous.thenCompose(ignored -> cancelled.get()
+                ? CompletableFuture.completedFuture(null)
+                : Mono.defer(write).toFuture());
+        result.whenComplete((value, ex) -> done.complete(null));
+        return Mono.fromFuture(result, true).doOnCancel(() -> cancelled.set(true));
+    }
+
+    int stripes() {
+        return tails.length();
+    }
+
+    int stripe(PriceKey key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,14 @@
+package com.bcnc.payments.domain.price;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class CurrentPriceInterval {
+    private final CurrentPrice price;
+    /** First instant after the lookup date at which another price may apply, or null if none does. */
+    private final LocalDateTime validUntil;
+}
@@ -0,0 +1,31 @@
+package com.bcnc.payments.domain.price;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class CurrentPriceResult {
+    private final Long productId;
+    private final Long brandId;
+    private final LocalDateTime date;
+    private final Status status;
+    private final CurrentPrice price;
+
+    public static CurrentPriceResult of(PriceLookup lookup, CurrentPrice price) {
+        return CurrentPriceResult.builder()
+                .productId(lookup.getProductId())
+                .brandId(lookup.getBrandId())
+                .date(lookup.getDate())
+                .status(price != null ? Status.FOUND : Status.NOT_FOUND)
+                .price(price)
+                .build();
+    }
+
+    public enum Status {
+        FOUND,
+        NOT_FOUND
+    }
+}
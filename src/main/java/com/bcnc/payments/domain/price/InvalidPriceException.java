@@ -0,0 +1,7 @@
+package com.bcnc.payments.domain.price;
+
+public class InvalidPriceException extends RuntimeException {
+  public InvalidPriceException(String message) {
+    super(message);
+  }
+}
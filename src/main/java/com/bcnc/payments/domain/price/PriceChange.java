@@ -0,0 +1,23 @@
+package com.bcnc.payments.domain.price;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Latest change of a product and brand pair in the change log. The prices are the ones stored for the pair when
+ * the change is read, so a replica replaces everything it holds for the pair; an empty list means all of them
+ * were deleted.
+ */
+@Data
+@Builder
+public class PriceChange {
+    public static final int MAX_BATCH_SIZE = 1000;
+    public static final int MAX_WAIT_SECONDS = 60;
+
+    private final long sequence;
+    private final Long productId;
+    private final Long brandId;
+    private final List<Price> prices;
+}
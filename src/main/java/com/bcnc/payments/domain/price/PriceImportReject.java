@@ -0,0 +1,11 @@
+package com.bcnc.payments.domain.price;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PriceImportReject {
+    private final long line;
+    private final String reason;
+}
@@ -0,0 +1,17 @@
+package com.bcnc.payments.domain.price;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PriceImportReport {
+    private final long received;
+    private final long imported;
+    private final long rejected;
+    private final List<PriceImportReject> rejects;
+    private final long elapsedMillis;
+    private final double rowsPerSecond;
+}
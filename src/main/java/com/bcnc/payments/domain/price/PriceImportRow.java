@@ -0,0 +1,20 @@
+package com.bcnc.payments.domain.price;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PriceImportRow {
+    private final long line;
+    private final Price price;
+    private final String error;
+
+    public static PriceImportRow of(long line, Price price) {
+        return PriceImportRow.builder().line(line).price(price).build();
+    }
+
+    public static PriceImportRow rejected(long line, String error) {
+        return PriceImportRow.builder().line(line).error(error).build();
+    }
+}
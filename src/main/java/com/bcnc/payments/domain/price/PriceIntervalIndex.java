@@ -0,0 +1,131 @@
+package com.bcnc.payments.domain.price;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Component
+public class PriceIntervalIndex {
+
+    private volatile Map<PriceKey, PriceTimeline> timelines = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private Set<PriceKey> touchedWhileLoading;
+
+    /**
+     * Starts recording the keys written from now on, so they can be re-read if the snapshot passed to the
+     * following {@link #load(Collection)} was read before those writes.
+     */
+    public synchronized void beginLoad() {
+        if (touchedWhileLoading == null) {
+            touchedWhileLoading = new HashSet<>();
+        }
+    }
+
+    /**
+     * Replaces the index with a snapshot and returns the keys written since {@link #beginLoad()}. Those keys
+     * must be read again and passed to {@link #refresh(Set, Collection)}.
+     */
+    public synchronized Set<PriceKey> load(Collection<Price> prices) {
+        Map<PriceKey, List<Price>> grouped =
+                prices.stream().collect(Collectors.groupingBy(PriceKey::of));
+        Map<PriceKey, PriceTimeline> loaded = new ConcurrentHashMap<>(grouped.size());
+        grouped.forEach((key, group) -> loaded.put(key, PriceTimeline.of(group)));
+        this.timelines = loaded;
+        this.ready = true;
+        return takeTouched();
+    }
+
+    /**
+     * Replaces the timelines of keys read again after a load and returns the keys written meanwhile,
+     * which must be read once more. The load is over once this returns no keys.
+     */
+    public synchronized Set<PriceKey> refresh(Set<PriceKey> keys, Collection<Price> prices) {
+        Map<PriceKey, List<Price>> grouped =
+                prices.stream().collect(Collectors.groupingBy(PriceKey::of));
+        keys.forEach(key -> replace(key, PriceTimeline.of(grouped.getOrDefault(key, List.of()))));
+        return takeTouched();
+    }
+
+    /**
+     * Stops recording written keys after a load that could not complete.
+     */
+    public synchronized void abortLoad() {
+        touchedWhileLoading = null;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public CurrentPrice find(Long productId, Long brandId, LocalDateTime date) {
+        PriceTimeline timeline = timelines.get(new PriceKey(productId, brandId));
+        return timeline != null ? timeline.find(date) : null;
+    }
+
+    public PriceTimeline get(PriceKey key) {
+        return timelines.getOrDefault(key, PriceTimeline.empty());
+    }
+
+    public synchronized void put(PriceKey key, PriceTimeline timeline) {
+        touched(key);
+        if (!ready) {
+            return;
+        }
+        replace(key, timeline);
+    }
+
+    public synchronized void add(Price price) {
+        touched(PriceKey.of(price));
+        if (!ready) {
+            return;
+        }
+        timelines.compute(
+                PriceKey.of(price),
+                (key, timeline) ->
+                        timeline != null ? timeline.with(price) : PriceTimeline.of(List.of(price)));
+    }
+
+    public synchronized void remove(Price price) {
+        touched(PriceKey.of(price));
+        if (!ready) {
+            return;
+        }
+        timelines.computeIfPresent(
+                PriceKey.of(price),
+                (key, timeline) -> {
+                    PriceTimeline updated = timeline.without(price.getId());
+                    return updated.isEmpty() ? null : updated;
+                });
+    }
+
+    public int size() {
+        return timelines.size();
+    }
+
+    private void replace(PriceKey key, PriceTimeline timeline) {
+        if (timeline.isEmpty()) {
+            timelines.remove(key);
+        } else {
+            timelines.put(key, timeline);
+        }
+    }
+
+    private void touched(PriceKey key) {
+        if (touchedWhileLoading != null) {
+            touchedWhileLoading.add(key);
+        }
+    }
+
+    private Set<PriceKey> takeTouched() {
+        Set<PriceKey> touched = touchedWhileLoading != null ? touchedWhileLoading : Set.of();
+        touchedWhileLoading = touched.isEmpty() ? null : new HashSet<>();
+        return touched;
+    }
+}
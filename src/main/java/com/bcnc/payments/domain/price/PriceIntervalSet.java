@@ -0,0 +1,51 @@
+package com.bcnc.payments.domain.price;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mutable union of the price intervals of a single product and brand, kept as disjoint closed
+ * intervals keyed by start date so overlap checks and inserts are O(log n).
+ */
+public class PriceIntervalSet {
+
+    private final TreeMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+
+    public static PriceIntervalSet of(Collection<Price> prices) {
+        PriceIntervalSet set = new PriceIntervalSet();
+        prices.forEach(set::add);
+        return set;
+    }
+
+    public boolean overlaps(Price price) {
+        Map.Entry<LocalDateTime, LocalDateTime> candidate = intervals.lowerEntry(price.getEndDate());
+        return candidate != null && candidate.getValue().isAfter(price.getStartDate());
+    }
+
+    public void add(Price price) {
+        LocalDateTime start = price.getStartDate();
+        LocalDateTime end = price.getEndDate();
+        Map.Entry<LocalDateTime, LocalDateTime> previous = intervals.floorEntry(start);
+        if (previous != null && !previous.getValue().isBefore(start)) {
+            start = previous.getKey();
+            end = max(end, previous.getValue());
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> next = intervals.ceilingEntry(start);
+        while (next != null && !next.getKey().isAfter(end)) {
+            end = max(end, next.getValue());
+            intervals.remove(next.getKey());
+            next = intervals.higherEntry(next.getKey());
+        }
+        intervals.put(start, end);
+    }
+
+    public int size() {
+        return intervals.size();
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
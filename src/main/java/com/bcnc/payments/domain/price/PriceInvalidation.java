@@ -0,0 +1,14 @@
+package com.bcnc.payments.domain.price;
+
+import java.util.Set;
+
+/**
+ * Batch of product and brand pairs changed on one node, numbered per node so peers can tell when they missed one.
+ * A heartbeat carries no keys and repeats the last sequence sent.
+ */
+public record PriceInvalidation(String nodeId, long sequence, Set<PriceKey> keys) {
+
+    public boolean isHeartbeat() {
+        return keys.isEmpty();
+    }
+}
@@ -0,0 +1,8 @@
+package com.bcnc.payments.domain.price;
+
+public record PriceKey(long productId, long brandId) {
+
+    public static PriceKey of(Price price) {
+        return new PriceKey(price.getProductId(), price.getBrandId());
+    }
+}
@@ -0,0 +1,117 @@
+package com.bcnc.payments.domain.price;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of the product and brand pairs that have at least one price, used to answer lookups
+ * for unknown pairs without going to the database. Until it is loaded every key might be contained.
+ * Deleted pairs stay in the filter until the next load and fall back to a regular lookup.
+ */
+@Component
+public class PriceKeyFilter {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MINIMUM_CAPACITY = 1024;
+
+    private volatile Bits bits;
+    private List<PriceKey> addedWhileLoading;
+
+    public boolean isReady() {
+        return bits != null;
+    }
+
+    public boolean mightContain(PriceKey key) {
+        Bits current = bits;
+        return current == null || current.mightContain(key);
+    }
+
+    public synchronized void add(PriceKey key) {
+        if (bits != null) {
+            bits.add(key);
+        }
+        if (addedWhileLoading != null) {
+            addedWhileLoading.add(key);
+        }
+    }
+
+    /**
+     * Starts recording the keys added from now on, so they are not lost if they are missing from the
+     * snapshot passed to the following {@link #load(Collection)}.
+     */
+    public synchronized void beginLoad() {
+        addedWhileLoading = new ArrayList<>();
+    }
+
+    /**
+     * Forgets the loaded keys, so every key might be contained again until the next {@link #load(Collection)}.
+     */
+    public synchronized void reset() {
+        bits = null;
+    }
+
+    public synchronized void load(Collection<PriceKey> keys) {
+        Bits loaded = new Bits(Math.max(MINIMUM_CAPACITY, keys.size() * 2L));
+        keys.forEach(loaded::add);
+        if (addedWhileLoading != null) {
+            addedWhileLoading.forEach(loaded::add);
+            addedWhileLoading = null;
+        }
+        bits = loaded;
+    }
+
+    private static final class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+
+        private Bits(long capacity) {
+            long bitCount = (long) Math.ceil(-capacity * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+            this.size = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) size / capacity * Math.log(2)));
+        }
+
+        private void add(PriceKey key) {
+            long hash = hash(key);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = index(first + i * second);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        private boolean mightContain(PriceKey key) {
+            long hash = hash(key);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = index(first + i * second);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(int combined) {
+            return (combined & Integer.MAX_VALUE) % size;
+        }
+
+        private static long hash(PriceKey key) {
+            long hash = key.productId() * 0x9E3779B97F4A7C15L + key.brandId();
+            hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+            hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            return hash ^ (hash >>> 33);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bcnc.payments.domain.price;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class PriceLookup {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final Long productId;
+    private final Long brandId;
+    private final LocalDateTime date;
+
+    public PriceKey toKey() {
+        return new PriceKey(productId, brandId);
+    }
+}
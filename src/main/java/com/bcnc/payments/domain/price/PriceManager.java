@@ -5,4 +5,6 @@ import reactor.core.publisher.Mono;
 
 public interface PriceManager {
     Mono<Boolean> doesPriceOverlap(Flux<Price> existingPrices, Price newPrice);
+
+    boolean doesPriceOverlap(PriceTimeline timeline, Price newPrice);
 }
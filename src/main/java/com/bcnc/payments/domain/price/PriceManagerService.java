@@ -14,15 +14,11 @@ public class PriceManagerService implements PriceManager {
 
     @Override
     public Mono<Boolean> doesPriceOverlap(Flux<Price> existingPrices, Price newPrice) {
-        return existingPrices
-                .collectList()
-                .flatMap(priceList -> {
-                    if (priceList.isEmpty()) {
-                        return Mono.just(false);
-                    }
-                    boolean overlaps = priceList.stream()
-                            .anyMatch(existingPrice -> isOverlapping(existingPrice, newPrice));
-                    return Mono.just(overlaps);
-                });
+        return existingPrices.any(existingPrice -> isOverlapping(existingPrice, newPrice));
+    }
+
+    @Override
+    public boolean doesPriceOverlap(PriceTimeline timeline, Price newPrice) {
+        return timeline.overlaps(newPrice.getStartDate(), newPrice.getEndDate());
     }
 }
@@ -1,7 +1,22 @@
 package com.bcnc.payments.domain.price;
 
 public class PriceNotFoundException extends RuntimeException {
+  private static final PriceNotFoundException NO_PRICE =
+      new PriceNotFoundException("No price found for the given product and brand.", false);
+
   public PriceNotFoundException(String message) {
     super(message);
   }
+
+  private PriceNotFoundException(String message, boolean writableStackTrace) {
+    super(message, null, false, writableStackTrace);
+  }
+
+  /**
+   * Shared instance without stack trace for lookups that find no price, which are an expected
+   * outcome rather than a failure worth tracing.
+   */
+  public static PriceNotFoundException noPrice() {
+    return NO_PRICE;
+  }
 }
@@ -0,0 +1,39 @@
+package com.bcnc.payments.domain.price;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Product, brand and price list ids referenced by a set of prices, so they can be checked against the existing
+ * rows with one query instead of failing the insert on a foreign key.
+ */
+public record PriceReferences(Set<Long> productIds, Set<Long> brandIds, Set<Long> priceLists) {
+
+    public static PriceReferences of(Collection<Price> prices) {
+        return new PriceReferences(
+                prices.stream().map(Price::getProductId).collect(Collectors.toSet()),
+                prices.stream().map(Price::getBrandId).collect(Collectors.toSet()),
+                prices.stream().map(Price::getPriceList).collect(Collectors.toSet()));
+    }
+
+    public boolean isEmpty() {
+        return productIds.isEmpty() && brandIds.isEmpty() && priceLists.isEmpty();
+    }
+
+    /**
+     * Returns why the price refers to a missing row, or null if all of its references exist.
+     */
+    public String missing(Price price) {
+        if (!productIds.contains(price.getProductId())) {
+            return String.format("Product %d does not exist.", price.getProductId());
+        }
+        if (!brandIds.contains(price.getBrandId())) {
+            return String.format("Brand %d does not exist.", price.getBrandId());
+        }
+        if (!priceLists.contains(price.getPriceList())) {
+            return String.format("Price list %d does not exist.", price.getPriceList());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bcnc.payments.domain.price;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Part of a product and brand timeline where a single price applies, both bounds inclusive.
+ */
+@Data
+@Builder
+public class PriceSegment {
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+    private final CurrentPrice price;
+}
@@ -0,0 +1,26 @@
+package com.bcnc.payments.domain.price;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PriceSlice {
+    private final List<Price> content;
+    private final Long lastId;
+    private final boolean hasNext;
+    private final Long total;
+
+    public static PriceSlice of(List<Price> prices, int size, Long total) {
+        boolean hasNext = prices.size() > size;
+        List<Price> content = hasNext ? prices.subList(0, size) : prices;
+        return PriceSlice.builder()
+                .content(content)
+                .lastId(content.isEmpty() ? null : content.get(content.size() - 1).getId())
+                .hasNext(hasNext)
+                .total(total)
+                .build();
+    }
+}
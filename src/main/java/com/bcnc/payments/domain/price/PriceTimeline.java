@@ -0,0 +1,302 @@
+package com.bcnc.payments.domain.price;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable timeline of the prices of a single product and brand, with priorities already
+ * resolved into non-overlapping segments. Segment bounds are epoch microseconds, start inclusive
+ * and end exclusive, so a point-in-time lookup is a binary search over {@code starts}. The union
+ * of all price intervals is kept separately, closed on both ends, to answer overlap checks.
+ * A timeline built from the prices of a window only answers for dates inside that window.
+ */
+public final class PriceTimeline {
+
+    private static final PriceTimeline EMPTY =
+            new PriceTimeline(List.of(), new long[0], new long[0], new CurrentPrice[0], new long[0], new long[0],
+                    Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private static final Comparator<Price> BY_START = Comparator.comparing(Price::getStartDate);
+
+    private static final Comparator<Price> WINNER_FIRST =
+            Comparator.comparing(Price::getPriority, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(Price::getStartDate, Comparator.reverseOrder())
+                    .thenComparing(Price::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final List<Price> prices;
+    private final long[] starts;
+    private final long[] ends;
+    private final CurrentPrice[] values;
+    private final long[] coveredStarts;
+    private final long[] coveredEnds;
+    private final long windowStart;
+    private final long windowEnd;
+
+    private PriceTimeline(
+            List<Price> prices,
+            long[] starts,
+            long[] ends,
+            CurrentPrice[] values,
+            long[] coveredStarts,
+            long[] coveredEnds,
+            long windowStart,
+            long windowEnd) {
+        this.prices = prices;
+        this.starts = starts;
+        this.ends = ends;
+        this.values = values;
+        this.coveredStarts = coveredStarts;
+        this.coveredEnds = coveredEnds;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+    }
+
+    public static PriceTimeline empty() {
+        return EMPTY;
+    }
+
+    public static PriceTimeline of(Collection<Price> prices) {
+        if (prices.isEmpty()) {
+            return EMPTY;
+        }
+        return of(prices, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Builds the timeline of a window, both bounds inclusive, from every price overlapping it.
+     */
+    public static PriceTimeline of(Collection<Price> prices, LocalDateTime from, LocalDateTime to) {
+        return of(prices, toEpochMicros(from), toEpochMicros(to) + 1);
+    }
+
+    private static PriceTimeline of(Collection<Price> prices, long windowStart, long windowEnd) {
+        if (prices.isEmpty() && windowStart == Long.MIN_VALUE && windowEnd == Long.MAX_VALUE) {
+            return EMPTY;
+        }
+        List<Price> sorted = new ArrayList<>(prices);
+        sorted.sort(BY_START);
+        return resolve(List.copyOf(sorted), windowStart, windowEnd);
+    }
+
+    public static long toEpochMicros(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + date.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static PriceTimeline resolve(List<Price> sorted, long windowStart, long windowEnd) {
+        int n = sorted.size();
+        long[] priceStarts = new long[n];
+        long[] priceEnds = new long[n];
+        long[] boundaries = new long[n * 2];
+        for (int i = 0; i < n; i++) {
+            Price price = sorted.get(i);
+            priceStarts[i] = toEpochMicros(price.getStartDate());
+            priceEnds[i] = toEpochMicros(price.getEndDate()) + 1;
+            boundaries[2 * i] = priceStarts[i];
+            boundaries[2 * i + 1] = priceEnds[i];
+        }
+        Arrays.sort(boundaries);
+
+        long[] segmentStarts = new long[boundaries.length];
+        long[] segmentEnds = new long[boundaries.length];
+        CurrentPrice[] segmentValues = new CurrentPrice[boundaries.length];
+        CurrentPrice[] currentPrices = new CurrentPrice[n];
+        PriorityQueue<Integer> active =
+                new PriorityQueue<>((a, b) -> WINNER_FIRST.compare(sorted.get(a), sorted.get(b)));
+
+        int next = 0;
+        int count = 0;
+        for (int b = 0; b < boundaries.length - 1; b++) {
+            long from = boundaries[b];
+            long to = boundaries[b + 1];
+            if (from == to) {
+                continue;
+            }
+            while (next < n && priceStarts[next] <= from) {
+                if (priceEnds[next] > from) {
+                    active.add(next);
+                }
+                next++;
+            }
+            while (!active.isEmpty() && priceEnds[active.peek()] <= from) {
+                active.poll();
+            }
+            if (active.isEmpty()) {
+                continue;
+            }
+            int winner = active.peek();
+            if (currentPrices[winner] == null) {
+                currentPrices[winner] = toCurrentPrice(sorted.get(winner));
+            }
+            if (count > 0
+                    && segmentEnds[count - 1] == from
+                    && segmentValues[count - 1] == currentPrices[winner]) {
+                segmentEnds[count - 1] = to;
+            } else {
+                segmentStarts[count] = from;
+                segmentEnds[count] = to;
+                segmentValues[count] = currentPrices[winner];
+                count++;
+            }
+        }
+
+        long[] coveredStarts = new long[n];
+        long[] coveredEnds = new long[n];
+        int covered = 0;
+        for (int i = 0; i < n; i++) {
+            long end = priceEnds[i] - 1;
+            if (covered > 0 && priceStarts[i] <= coveredEnds[covered - 1]) {
+                coveredEnds[covered - 1] = Math.max(coveredEnds[covered - 1], end);
+            } else {
+                coveredStarts[covered] = priceStarts[i];
+                coveredEnds[covered] = end;
+                covered++;
+            }
+        }
+        return new PriceTimeline(
+                sorted,
+                Arrays.copyOf(segmentStarts, count),
+                Arrays.copyOf(segmentEnds, count),
+                Arrays.copyOf(segmentValues, count),
+                Arrays.copyOf(coveredStarts, covered),
+                Arrays.copyOf(coveredEnds, covered),
+                windowStart,
+                windowEnd);
+    }
+
+    private static CurrentPrice toCurrentPrice(Price price) {
+        return CurrentPrice.builder()
+                .productId(price.getProductId())
+                .brandId(price.getBrandId())
+                .priceList(price.getPriceList())
+                .startDate(price.getStartDate())
+                .endDate(price.getEndDate())
+                .price(price.getPrice())
+                .build();
+    }
+
+    public CurrentPrice find(LocalDateTime date) {
+        long instant = toEpochMicros(date);
+        int index = Arrays.binarySearch(starts, instant);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        if (index < 0 || instant >= ends[index]) {
+            return null;
+        }
+        return values[index];
+    }
+
+    public CurrentPriceInterval findInterval(LocalDateTime date) {
+        CurrentPrice price = find(date);
+        if (price == null) {
+            return null;
+        }
+        return CurrentPriceInterval.builder().price(price).validUntil(nextBoundaryAfter(date)).build();
+    }
+
+    public List<PriceSegment> segments(LocalDateTime from, LocalDateTime to) {
+        long first = toEpochMicros(from);
+        long last = toEpochMicros(to) + 1;
+        List<PriceSegment> segments = new ArrayList<>();
+        for (int i = firstGreaterThan(ends, first); i < starts.length && starts[i] < last; i++) {
+            segments.add(PriceSegment.builder()
+                    .startDate(fromEpochMicros(Math.max(starts[i], first)))
+                    .endDate(fromEpochMicros(Math.min(ends[i], last) - 1))
+                    .price(values[i])
+                    .build());
+        }
+        return segments;
+    }
+
+    public LocalDateTime nextBoundaryAfter(LocalDateTime date) {
+        long instant = toEpochMicros(date);
+        long next = Long.MAX_VALUE;
+        int start = firstGreaterThan(starts, instant);
+        if (start < starts.length) {
+            next = starts[start];
+        }
+        int end = firstGreaterThan(ends, instant);
+        if (end < ends.length) {
+            next = Math.min(next, ends[end]);
+        }
+        if (next > windowEnd) {
+            next = windowEnd;
+        }
+        return next == Long.MAX_VALUE ? null : fromEpochMicros(next);
+    }
+
+    public boolean covers(LocalDateTime date) {
+        long instant = toEpochMicros(date);
+        return instant >= windowStart && instant < windowEnd;
+    }
+
+    public boolean covers(LocalDateTime from, LocalDateTime to) {
+        return toEpochMicros(from) >= windowStart && toEpochMicros(to) < windowEnd;
+    }
+
+    private static int firstGreaterThan(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    public boolean overlaps(LocalDateTime startDate, LocalDateTime endDate) {
+        long from = toEpochMicros(startDate);
+        long to = toEpochMicros(endDate);
+        int low = 0;
+        int high = coveredEnds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (coveredEnds[mid] > from) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low < coveredEnds.length && coveredStarts[low] < to;
+    }
+
+    public PriceTimeline with(Price price) {
+        List<Price> updated = new ArrayList<>(prices.size() + 1);
+        for (Price existing : prices) {
+            if (price.getId() == null || !price.getId().equals(existing.getId())) {
+                updated.add(existing);
+            }
+        }
+        updated.add(price);
+        return of(updated, windowStart, windowEnd);
+    }
+
+    public PriceTimeline without(Long id) {
+        List<Price> updated = new ArrayList<>(prices.size());
+        for (Price existing : prices) {
+            if (!Objects.equals(id, existing.getId())) {
+                updated.add(existing);
+            }
+        }
+        return updated.size() == prices.size() ? this : of(updated, windowStart, windowEnd);
+    }
+
+    public List<Price> getPrices() {
+        return prices;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public boolean isEmpty() {
+        return prices.isEmpty();
+    }
+}
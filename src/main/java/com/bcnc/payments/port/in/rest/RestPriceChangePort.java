@@ -0,0 +1,11 @@
+package com.bcnc.payments.port.in.rest;
+
+import com.bcnc.payments.domain.price.PriceChange;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+public interface RestPriceChangePort {
+
+    Flux<PriceChange> findChangesSince(long since, int limit, Duration wait);
+}
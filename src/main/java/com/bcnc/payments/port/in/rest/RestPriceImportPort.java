@@ -0,0 +1,11 @@
+package com.bcnc.payments.port.in.rest;
+
+import com.bcnc.payments.domain.price.PriceImportReport;
+import com.bcnc.payments.domain.price.PriceImportRow;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface RestPriceImportPort {
+
+    Mono<PriceImportReport> importPrices(Flux<PriceImportRow> rows);
+}
@@ -1,16 +1,35 @@
 package com.bcnc.payments.port.in.rest;
 
 import com.bcnc.payments.domain.price.CurrentPrice;
+import com.bcnc.payments.domain.price.CurrentPriceInterval;
+import com.bcnc.payments.domain.price.CurrentPriceResult;
 import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceLookup;
+import com.bcnc.payments.domain.price.PriceSegment;
+import com.bcnc.payments.domain.price.PriceSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public interface RestPricePort extends RestPort<Price> {
 
+    Mono<Price> update(Long id, Price price);
+
     Mono<CurrentPrice> getCurrentPrice(Long productId, Long brandId, LocalDateTime date);
 
+    Mono<CurrentPriceInterval> getCurrentPriceInterval(Long productId, Long brandId, LocalDateTime date);
+
+    Flux<CurrentPriceResult> getCurrentPrices(List<PriceLookup> lookups);
+
+    Flux<PriceSegment> getPriceTimeline(Long productId, Long brandId, LocalDateTime from, LocalDateTime to);
+
     Mono<Page<Price>> findAll(Pageable pageable);
+
+    Mono<PriceSlice> findAll(Long afterId, int size, boolean includeTotal);
+
+    Flux<Price> exportAll();
 }
@@ -2,13 +2,50 @@ package com.bcnc.payments.port.out;
 
 import com.bcnc.payments.domain.price.CurrentPrice;
 import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceChange;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceReferences;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface DatabasePricePort extends DatabasePort<Price> {
     Mono<CurrentPrice> getCurrentPriceByProductAndBrand(Long productId, Long brandId, LocalDateTime date);
 
     Flux<Price> findAllByProductIdAndBrandId(Long productId, Long brandId);
+
+    Flux<Price> findAllByProductIdAndBrandIdBetween(Long productId, Long brandId, LocalDateTime from, LocalDateTime to);
+
+    Mono<Long> saveAll(List<Price> prices);
+
+    Flux<Price> createAll(List<Price> prices);
+
+    Flux<Price> findAllAfter(Long afterId, int limit);
+
+    Mono<Long> count();
+
+    Flux<Price> findWithBoundaryBetween(LocalDateTime from, LocalDateTime to);
+
+    Flux<Price> findOverlapping(Long productId, Long brandId, LocalDateTime startDate, LocalDateTime endDate);
+
+    Flux<Price> findAllByProductIdAndBrandIdIn(Collection<PriceKey> keys);
+
+    Flux<Price> findAll();
+
+    Flux<PriceKey> findAllKeys();
+
+    /**
+     * Returns the subset of the given product, brand and price list ids that exist.
+     */
+    Mono<PriceReferences> findExistingReferences(PriceReferences references);
+
+    Flux<PriceChange> findChangesSince(long since, int limit);
+
+    /**
+     * Emits the product and brand pair of every write committed by this instance.
+     */
+    Flux<PriceKey> committedChanges();
 }
@@ -0,0 +1,12 @@
+package com.bcnc.payments.port.out;
+
+import com.bcnc.payments.domain.price.PriceInvalidation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface PriceInvalidationBusPort {
+
+    Mono<Void> publish(PriceInvalidation invalidation);
+
+    Flux<PriceInvalidation> received();
+}
@@ -0,0 +1 @@
+CREATE INDEX idx_price_product_brand_start_end ON prices (product_id, brand_id, start_date, end_date);
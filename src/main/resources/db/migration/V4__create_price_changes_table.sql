@@ -0,0 +1,14 @@
+CREATE TABLE price_changes
+(
+    sequence   BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT    NOT NULL,
+    brand_id   BIGINT    NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_price_changes_product_brand ON price_changes (product_id, brand_id);
+
+INSERT INTO price_changes (product_id, brand_id)
+SELECT DISTINCT product_id, brand_id
+FROM prices
+ORDER BY product_id, brand_id;
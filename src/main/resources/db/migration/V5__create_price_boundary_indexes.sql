@@ -0,0 +1,2 @@
+CREATE INDEX idx_price_start_date ON prices (start_date);
+CREATE INDEX idx_price_end_date ON prices (end_date);
@@ -0,0 +1,11 @@
+CREATE TABLE price_change_counter
+(
+    id       INT PRIMARY KEY,
+    sequence BIGINT NOT NULL
+);
+
+INSERT INTO price_change_counter (id, sequence)
+SELECT 1, COALESCE(MAX(sequence), 0)
+FROM price_changes;
+
+ALTER TABLE price_changes ALTER COLUMN sequence DROP IDENTITY;
@@ -0,0 +1,132 @@
+package com.bcnc.payments.adapter.in.actuator;
+
+import com.bcnc.payments.adapter.in.rest.dto.PriceDTO;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.endpoint.jfr.access=unrestricted")
+@DirtiesContext
+public class JfrRecordingEndpointIT {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("A recording started through the endpoint must contain the price events")
+    public void recordingContainsPriceEvents() throws IOException {
+        webTestClient.post()
+                .uri("/actuator/jfr")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("seconds", 60))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("RUNNING");
+
+        webTestClient.post()
+                .uri("/actuator/jfr")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of())
+                .exchange()
+                .expectStatus()
+                .isEqualTo(409);
+
+        webTestClient.post()
+                .uri("/api/prices")
+                .bodyValue(PriceDTO.builder()
+                        .brandId(1L)
+                        .startDate(LocalDateTime.of(2033, 1, 1, 0, 0))
+                        .endDate(LocalDateTime.of(2033, 12, 31, 23, 59, 59))
+                        .priceList(1L)
+                        .productId(35455L)
+                        .priority(0)
+                        .price(BigDecimal.valueOf(10))
+                        .curr("CHF")
+                        .build())
+                .exchange()
+                .expectStatus()
+                .isOk();
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/current")
+                        .queryParam("product_id", 35455)
+                        .queryParam("brand_id", 1)
+                        .queryParam("date", "2033-06-01T00:00:00")
+                        .build())
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        byte[] jfr = webTestClient
+                .mutate()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(64 * 1024 * 1024))
+                .build()
+                .delete()
+                .uri("/actuator/jfr")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .returnResult()
+                .getResponseBody();
+
+        Path file = Files.createTempFile("prices-it-", ".jfr");
+        try {
+            Files.write(file, jfr);
+            List<RecordedEvent> recorded = RecordingFile.readAllEvents(file);
+            assertThat(recorded)
+                    .extracting(event -> event.getEventType().getName())
+                    .doesNotContainAnyElementsOf(JfrRecordingEndpoint.SENSITIVE_EVENTS);
+            List<RecordedEvent> events = recorded.stream()
+                    .filter(event -> event.getEventType().getName().startsWith("com.bcnc.payments."))
+                    .toList();
+
+            assertThat(events)
+                    .filteredOn(event -> event.getEventType().getName().equals("com.bcnc.payments.PriceLookup"))
+                    .anySatisfy(event -> {
+                        assertThat(event.getLong("productId")).isEqualTo(35455L);
+                        assertThat(event.getBoolean("found")).isTrue();
+                    });
+            assertThat(events)
+                    .filteredOn(event -> event.getEventType().getName().equals("com.bcnc.payments.PriceOverlapCheck"))
+                    .anySatisfy(event -> assertThat(event.getBoolean("overlapping")).isFalse());
+            assertThat(events)
+                    .filteredOn(event -> event.getEventType().getName().equals("com.bcnc.payments.PriceQuery"))
+                    .extracting(event -> event.getString("query"))
+                    .contains("save");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        webTestClient.get()
+                .uri("/actuator/jfr")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("NONE");
+    }
+}
@@ -1,10 +1,24 @@
 package com.bcnc.payments.adapter.in.grpc;
 
+import com.bcnc.payments.adapter.in.grpc.proto.ExportPricesRequest;
 import com.bcnc.payments.adapter.in.grpc.proto.GetCurrentPriceByProductAndBrandRequest;
+import com.bcnc.payments.adapter.in.grpc.proto.GetCurrentPricesRequest;
+import com.bcnc.payments.adapter.in.grpc.proto.GetCurrentPricesResponse;
+import com.bcnc.payments.adapter.in.grpc.proto.GetPriceTimelineRequest;
+import com.bcnc.payments.adapter.in.grpc.proto.GetPriceTimelineResponse;
+import com.bcnc.payments.adapter.in.grpc.proto.PriceChangeRecord;
+import com.bcnc.payments.adapter.in.grpc.proto.PriceLookupResult;
+import com.bcnc.payments.adapter.in.grpc.proto.PriceRecord;
 import com.bcnc.payments.adapter.in.grpc.proto.PriceResponse;
+import com.bcnc.payments.adapter.in.grpc.proto.PriceSegment;
 import com.bcnc.payments.adapter.in.grpc.proto.PriceServiceGrpc;
+import com.bcnc.payments.adapter.in.grpc.proto.StreamPriceChangesRequest;
+import com.bcnc.payments.adapter.in.grpc.proto.UpdatePriceRequest;
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.port.in.rest.RestPricePort;
 import com.google.protobuf.Timestamp;
 import io.grpc.*;
+import io.grpc.stub.StreamObserver;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,8 +30,15 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
@@ -29,6 +50,8 @@ public class GRPCPriceServiceIT {
 
     @Autowired
     private GRPCPriceService priceService;
+    @Autowired
+    private RestPricePort restPricePort;
     private Server server;
     private ManagedChannel channel;
     private PriceServiceGrpc.PriceServiceBlockingStub blockingStub;
@@ -114,4 +137,268 @@ public class GRPCPriceServiceIT {
                 .isInstanceOf(StatusRuntimeException.class)
                 .hasMessageContaining("NOT_FOUND: No price found for the given product and brand.");
     }
+
+    @Test
+    @DisplayName("Get current prices in batch must return a result per request")
+    public void getCurrentPricesMustReturnResultPerRequest() {
+        Timestamp date = PriceResponseMapper.toTimestamp(LocalDateTime.parse("2020-07-01T12:00:00"));
+        GetCurrentPricesRequest request =
+                GetCurrentPricesRequest.newBuilder()
+                        .addRequests(GetCurrentPriceByProductAndBrandRequest.newBuilder()
+                                .setProductId(35455).setBrandId(1).setDate(date).build())
+                        .addRequests(GetCurrentPriceByProductAndBrandRequest.newBuilder()
+                                .setProductId(123).setBrandId(1).setDate(date).build())
+                        .build();
+
+        GetCurrentPricesResponse response = blockingStub.getCurrentPrices(request);
+
+        assertThat(response.getResultsCount()).isEqualTo(2);
+        assertThat(response.getResults(0).getFound()).isTrue();
+        assertThat(response.getResults(0).getPrice().getPriceList()).isEqualTo(4);
+        assertThat(response.getResults(1).getFound()).isFalse();
+        assertThat(response.getResults(1).getProductId()).isEqualTo(123);
+    }
+
+    @Test
+    @DisplayName("Stream current prices must return a result per request in order")
+    public void streamCurrentPricesMustReturnResultPerRequestInOrder() throws Exception {
+        Timestamp date = PriceResponseMapper.toTimestamp(LocalDateTime.parse("2020-07-01T12:00:00"));
+        List<PriceLookupResult> results = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        StreamObserver<GetCurrentPriceByProductAndBrandRequest> requests =
+                PriceServiceGrpc.newStub(channel).streamCurrentPrices(new StreamObserver<>() {
+                    @Override
+                    public void onNext(PriceLookupResult result) {
+                        results.add(result);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        completed.completeExceptionally(throwable);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.complete(null);
+                    }
+                });
+        for (int i = 0; i < 500; i++) {
+            requests.onNext(GetCurrentPriceByProductAndBrandRequest.newBuilder()
+                    .setProductId(i % 2 == 0 ? 35455 : 123).setBrandId(1).setDate(date).build());
+        }
+        requests.onCompleted();
+        completed.get(10, TimeUnit.SECONDS);
+
+        assertThat(results).hasSize(500);
+        for (int i = 0; i < 500; i++) {
+            assertThat(results.get(i).getFound()).isEqualTo(i % 2 == 0);
+        }
+        assertThat(results.get(0).getPrice().getPriceList()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Export prices must stream every price")
+    public void exportPricesMustStreamEveryPrice() {
+        Iterator<PriceRecord> records = blockingStub.exportPrices(ExportPricesRequest.getDefaultInstance());
+
+        List<PriceRecord> prices = new ArrayList<>();
+        records.forEachRemaining(prices::add);
+
+        assertThat(prices).isNotEmpty();
+        assertThat(prices).extracting(PriceRecord::getCurr).doesNotContainNull();
+        assertThat(prices).extracting(PriceRecord::getId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Get price timeline must return resolved segments for the range")
+    public void getPriceTimelineMustReturnSegments() {
+        GetPriceTimelineRequest request =
+                GetPriceTimelineRequest.newBuilder()
+                        .setProductId(35455)
+                        .setBrandId(1)
+                        .setFrom(PriceResponseMapper.toTimestamp(LocalDateTime.parse("2020-06-15T10:00:00")))
+                        .setTo(PriceResponseMapper.toTimestamp(LocalDateTime.parse("2020-06-16T10:00:00")))
+                        .build();
+
+        GetPriceTimelineResponse response = blockingStub.getPriceTimeline(request);
+        List<PriceSegment> segments = response.getSegmentsList();
+
+        assertThat(segments)
+                .extracting(segment -> segment.getPrice().getPriceList())
+                .startsWith(3L)
+                .endsWith(4L);
+        assertThat(segments.get(0).getStartDate())
+                .isEqualTo(PriceResponseMapper.toTimestamp(LocalDateTime.parse("2020-06-15T10:00:00")));
+        assertThat(segments.get(segments.size() - 1).getEndDate())
+                .isEqualTo(PriceResponseMapper.toTimestamp(LocalDateTime.parse("2020-06-16T10:00:00")));
+    }
+
+    @Test
+    @DisplayName("Get price timeline with from after to must return an error")
+    public void getPriceTimelineWithInvertedRangeMustReturnAnError() {
+        GetPriceTimelineRequest request =
+                GetPriceTimelineRequest.newBuilder()
+                        .setProductId(35455)
+                        .setBrandId(1)
+                        .setFrom(PriceResponseMapper.toTimestamp(LocalDateTime.parse("2020-06-15T00:00:00")))
+                        .setTo(PriceResponseMapper.toTimestamp(LocalDateTime.parse("2020-06-14T00:00:00")))
+                        .build();
+
+        assertThatThrownBy(() -> blockingStub.getPriceTimeline(request))
+                .isInstanceOf(StatusRuntimeException.class)
+                .hasMessageContaining("INVALID_ARGUMENT");
+    }
+
+    @Test
+    @DisplayName("Update price must replace the stored price")
+    public void updatePriceMustReplaceStoredPrice() {
+        Price created = restPricePort.create(Price.builder()
+                        .brandId(1L)
+                        .startDate(LocalDateTime.of(2035, 1, 1, 0, 0))
+                        .endDate(LocalDateTime.of(2035, 6, 30, 23, 59, 59))
+                        .priceList(1L)
+                        .productId(35455L)
+                        .priority(0)
+                        .price(BigDecimal.TEN)
+                        .curr("AUD")
+                        .build())
+                .block();
+        GetCurrentPriceByProductAndBrandRequest lookup = GetCurrentPriceByProductAndBrandRequest.newBuilder()
+                .setProductId(35455)
+                .setBrandId(1)
+                .setDate(PriceResponseMapper.toTimestamp(LocalDateTime.of(2035, 3, 1, 0, 0)))
+                .build();
+        assertThat(blockingStub.getCurrentPriceByProductAndBrand(lookup).getPrice()).isEqualTo(10.0);
+        PriceRecord changed = PriceResponseMapper.toRecord(created).toBuilder()
+                .setEndDate(PriceResponseMapper.toTimestamp(LocalDateTime.of(2035, 12, 31, 23, 59, 59)))
+                .setPrice(12.5)
+                .build();
+
+        PriceRecord updated = blockingStub.updatePrice(UpdatePriceRequest.newBuilder().setPrice(changed).build());
+
+        assertThat(updated).isEqualTo(changed);
+        assertThat(blockingStub.getCurrentPriceByProductAndBrand(lookup).getPrice()).isEqualTo(12.5);
+        assertThat(blockingStub.getCurrentPriceByProductAndBrand(lookup.toBuilder()
+                .setDate(PriceResponseMapper.toTimestamp(LocalDateTime.of(2035, 10, 1, 0, 0)))
+                .build()).getEndDate()).isEqualTo(changed.getEndDate());
+    }
+
+    @Test
+    @DisplayName("Update price with start date after end date must be rejected")
+    public void updatePriceWithInvertedDatesMustBeRejected() {
+        assertUpdateRejected(validUpdate()
+                .setStartDate(PriceResponseMapper.toTimestamp(LocalDateTime.of(2035, 2, 1, 0, 0)))
+                .build());
+    }
+
+    @Test
+    @DisplayName("Update price without a start date must be rejected")
+    public void updatePriceWithoutStartDateMustBeRejected() {
+        assertUpdateRejected(validUpdate().clearStartDate().build());
+    }
+
+    @Test
+    @DisplayName("Update price without an end date must be rejected")
+    public void updatePriceWithoutEndDateMustBeRejected() {
+        assertUpdateRejected(validUpdate().clearEndDate().build());
+    }
+
+    @Test
+    @DisplayName("Update price with a blank currency must be rejected")
+    public void updatePriceWithBlankCurrencyMustBeRejected() {
+        assertUpdateRejected(validUpdate().setCurr(" ").build());
+    }
+
+    @Test
+    @DisplayName("Update price with a negative amount must be rejected")
+    public void updatePriceWithNegativeAmountMustBeRejected() {
+        assertUpdateRejected(validUpdate().setPrice(-1).build());
+    }
+
+    @Test
+    @DisplayName("Update price with a negative priority must be rejected")
+    public void updatePriceWithNegativePriorityMustBeRejected() {
+        assertUpdateRejected(validUpdate().setPriority(-1).build());
+    }
+
+    private PriceRecord.Builder validUpdate() {
+        // The id does not exist, so a record that slipped past validation would fail with NOT_FOUND instead.
+        return PriceRecord.newBuilder()
+                .setId(999_999)
+                .setBrandId(1)
+                .setProductId(35455)
+                .setStartDate(PriceResponseMapper.toTimestamp(LocalDateTime.of(2035, 1, 1, 0, 0)))
+                .setEndDate(PriceResponseMapper.toTimestamp(LocalDateTime.of(2035, 1, 2, 0, 0)))
+                .setPriceList(1)
+                .setPrice(10)
+                .setCurr("AUD");
+    }
+
+    private void assertUpdateRejected(PriceRecord price) {
+        assertThatThrownBy(() -> blockingStub.updatePrice(UpdatePriceRequest.newBuilder().setPrice(price).build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .hasMessageContaining("INVALID_ARGUMENT");
+    }
+
+    @Test
+    @DisplayName("Update of a missing price must return not found")
+    public void updateMissingPriceMustReturnNotFound() {
+        PriceRecord missing = PriceRecord.newBuilder()
+                .setId(999_999)
+                .setBrandId(1)
+                .setProductId(35455)
+                .setStartDate(PriceResponseMapper.toTimestamp(LocalDateTime.of(2035, 1, 1, 0, 0)))
+                .setEndDate(PriceResponseMapper.toTimestamp(LocalDateTime.of(2035, 1, 2, 0, 0)))
+                .setPriceList(1)
+                .setCurr("AUD")
+                .build();
+
+        assertThatThrownBy(() -> blockingStub.updatePrice(UpdatePriceRequest.newBuilder().setPrice(missing).build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .hasMessageContaining("NOT_FOUND");
+    }
+
+    @Test
+    @DisplayName("Following price changes must stream a change written after the stream opened")
+    public void streamPriceChangesMustFollowNewChanges() throws Exception {
+        List<PriceChangeRecord> existing = new ArrayList<>();
+        blockingStub.streamPriceChanges(StreamPriceChangesRequest.newBuilder().setLimit(1000).build())
+                .forEachRemaining(existing::add);
+        assertThat(existing).anySatisfy(change -> {
+            assertThat(change.getProductId()).isEqualTo(35455);
+            assertThat(change.getPricesList()).isNotEmpty();
+        });
+        long since = existing.get(existing.size() - 1).getSequence();
+
+        Context.CancellableContext context = Context.current().withCancellation();
+        try {
+            Iterator<PriceChangeRecord> followed = context.call(() -> blockingStub
+                    .withDeadlineAfter(10, TimeUnit.SECONDS)
+                    .streamPriceChanges(StreamPriceChangesRequest.newBuilder()
+                            .setSince(since)
+                            .setWaitSeconds(5)
+                            .setFollow(true)
+                            .build()));
+            restPricePort.create(Price.builder()
+                            .brandId(1L)
+                            .startDate(LocalDateTime.of(2038, 1, 1, 0, 0))
+                            .endDate(LocalDateTime.of(2038, 12, 31, 23, 59, 59))
+                            .priceList(1L)
+                            .productId(35455L)
+                            .priority(0)
+                            .price(BigDecimal.TEN)
+                            .curr("CAD")
+                            .build())
+                    .block();
+
+            PriceChangeRecord change = followed.next();
+
+            assertThat(change.getSequence()).isGreaterThan(since);
+            assertThat(change.getProductId()).isEqualTo(35455);
+            assertThat(change.getPricesList()).extracting(PriceRecord::getCurr).contains("CAD");
+        } finally {
+            context.cancel(null);
+        }
+    }
 }
@@ -1,8 +1,17 @@
 package com.bcnc.payments.adapter.in.rest.controller;
 
+import com.bcnc.payments.adapter.in.rest.dto.PriceCursorPageDTO;
 import com.bcnc.payments.adapter.in.rest.dto.PriceDTO;
+import com.bcnc.payments.adapter.in.rest.dto.PriceLookupBatchDTO;
+import com.bcnc.payments.adapter.in.rest.dto.PriceLookupDTO;
+import com.bcnc.payments.domain.price.CurrentPriceResult;
+import com.bcnc.payments.domain.price.PriceImportReject;
+import com.bcnc.payments.domain.price.PriceImportReport;
 import com.bcnc.payments.application.cache.CacheConstants;
 import com.bcnc.payments.domain.error.ErrorResponse;
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,14 +20,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -36,6 +52,12 @@ public class PriceControllerIT {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private DatabasePricePort databasePricePort;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
     @BeforeEach
     public void clearCache() {
         if (cacheManager == null) {
@@ -72,6 +94,101 @@ public class PriceControllerIT {
                         price -> assertThat(price.getPrice()).isEqualByComparingTo(BigDecimal.valueOf(35.50)));
     }
 
+    @Test
+    @DisplayName("Repeated current price requests must return the same JSON document")
+    public void getCurrentPriceReturnsSameJsonOnCacheHits() {
+        byte[] first = getCurrentPriceJson("2020-06-14T21:00:00");
+        byte[] second = getCurrentPriceJson("2020-06-14T21:00:00");
+
+        assertThat(second).isEqualTo(first);
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/current")
+                        .queryParam("product_id", productId)
+                        .queryParam("brand_id", brandId)
+                        .queryParam("date", "2020-06-14T21:00:00")
+                        .build())
+                .exchange()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON)
+                .expectHeader()
+                .valueMatches(HttpHeaders.CACHE_CONTROL, "max-age=\\d+, public")
+                .expectBody()
+                .jsonPath("$.productId").isEqualTo(35455)
+                .jsonPath("$.priceList").isEqualTo(1)
+                .jsonPath("$.startDate").isEqualTo("2020-06-14T00:00:00")
+                .jsonPath("$.endDate").isEqualTo("2020-12-31T23:59:59")
+                .jsonPath("$.price").isEqualTo(35.5);
+    }
+
+    @Test
+    @DisplayName("Current price requests with a matching ETag must return 304 without a body")
+    public void getCurrentPriceWithMatchingEtagReturnsNotModified() {
+        String etag = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/current")
+                        .queryParam("product_id", productId)
+                        .queryParam("brand_id", brandId)
+                        .queryParam("date", "2020-06-14T10:00:00")
+                        .build())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(byte[].class)
+                .getResponseHeaders()
+                .getETag();
+
+        assertThat(etag).isNotBlank();
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/current")
+                        .queryParam("product_id", productId)
+                        .queryParam("brand_id", brandId)
+                        .queryParam("date", "2020-06-14T11:00:00")
+                        .build())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody()
+                .isEmpty();
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/current")
+                        .queryParam("product_id", productId)
+                        .queryParam("brand_id", brandId)
+                        .queryParam("date", "2020-06-14T16:00:00")
+                        .build())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus()
+                .isOk();
+    }
+
+    private byte[] getCurrentPriceJson(String date) {
+        return webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/current")
+                        .queryParam("product_id", productId)
+                        .queryParam("brand_id", brandId)
+                        .queryParam("date", date)
+                        .build())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .returnResult()
+                .getResponseBody();
+    }
+
     @Test
     @DisplayName("Test 2: Request at 16:00 on the 14th for product 35455 for brand 1 (ZARA)")
     public void getCurrentPriceAt202006141600ForProduct35455AndZaraSuccess() {
@@ -369,4 +486,536 @@ public class PriceControllerIT {
                 });
     }
 
+    @Test
+    @DisplayName("Batch request returns a result per lookup with not found items")
+    public void getCurrentPricesBatchReturnsPartialResults() {
+        PriceLookupBatchDTO batch = PriceLookupBatchDTO.builder()
+                .lookups(List.of(
+                        PriceLookupDTO.builder().productId(productId).brandId(brandId)
+                                .date(LocalDateTime.of(2020, 6, 14, 16, 0)).build(),
+                        PriceLookupDTO.builder().productId(123L).brandId(brandId)
+                                .date(LocalDateTime.of(2020, 6, 14, 16, 0)).build(),
+                        PriceLookupDTO.builder().productId(productId).brandId(brandId)
+                                .date(LocalDateTime.of(2020, 6, 16, 21, 0)).build()))
+                .build();
+
+        webTestClient
+                .post()
+                .uri("/api/prices/current:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(CurrentPriceResult.class)
+                .value(results -> {
+                    assertThat(results).hasSize(3);
+                    assertThat(results.get(0).getStatus()).isEqualTo(CurrentPriceResult.Status.FOUND);
+                    assertThat(results.get(0).getPrice().getPrice()).isEqualByComparingTo(BigDecimal.valueOf(25.45));
+                    assertThat(results.get(1).getStatus()).isEqualTo(CurrentPriceResult.Status.NOT_FOUND);
+                    assertThat(results.get(1).getPrice()).isNull();
+                    assertThat(results.get(2).getPrice().getPrice()).isEqualByComparingTo(BigDecimal.valueOf(38.95));
+                });
+    }
+
+    @Test
+    @DisplayName("Batch request without lookups must return bad request")
+    public void getCurrentPricesBatchWithoutLookupsMustReturnError() {
+        webTestClient
+                .post()
+                .uri("/api/prices/current:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(PriceLookupBatchDTO.builder().lookups(List.of()).build())
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Import NDJSON prices must report rejected rows and insert the rest")
+    public void importNdjsonPricesReportsRejectedRows() {
+        String body = String.join("\n",
+                "{\"brandId\":1,\"productId\":35455,\"priceList\":1,\"priority\":0,\"price\":10.00,\"curr\":\"USD\",\"startDate\":\"2030-01-01T00:00:00\",\"endDate\":\"2030-01-31T23:59:59\"}",
+                "{\"brandId\":1,\"productId\":35455,\"priceList\":2,\"priority\":0,\"price\":11.00,\"curr\":\"USD\",\"startDate\":\"2030-01-15T00:00:00\",\"endDate\":\"2030-02-15T00:00:00\"}",
+                "{\"brandId\":1,",
+                "",
+                "{\"productId\":35455,\"priceList\":3,\"priority\":0,\"price\":12.00,\"curr\":\"USD\",\"startDate\":\"2030-03-01T00:00:00\",\"endDate\":\"2030-03-31T00:00:00\"}",
+                "{\"brandId\":1,\"productId\":35455,\"priceList\":2,\"priority\":0,\"price\":13.00,\"curr\":\"USD\",\"startDate\":\"2030-04-01T00:00:00\",\"endDate\":\"2030-04-30T00:00:00\"}");
+
+        webTestClient
+                .post()
+                .uri("/api/prices/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("Accept-Language", "en")
+                .bodyValue(body)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(PriceImportReport.class)
+                .value(report -> {
+                    assertThat(report.getReceived()).isEqualTo(5);
+                    assertThat(report.getImported()).isEqualTo(2);
+                    assertThat(report.getRejects()).extracting(PriceImportReject::getLine).containsExactly(2L, 3L, 5L);
+                    assertThat(report.getRejects().get(0).getReason()).isEqualTo("Price overlaps with an existing price.");
+                    assertThat(report.getRejects().get(1).getReason()).startsWith("Malformed row");
+                });
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/current")
+                        .queryParam("product_id", productId)
+                        .queryParam("brand_id", brandId)
+                        .queryParam("date", "2030-04-15T00:00:00")
+                        .build())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(PriceDTO.class)
+                .value(price -> assertThat(price.getPrice()).isEqualByComparingTo(BigDecimal.valueOf(13.00)));
+    }
+
+    @Test
+    @DisplayName("Import CSV prices must map columns from the header row")
+    public void importCsvPricesMapsColumnsFromHeader() {
+        String body = String.join("\n",
+                "product_id,brand_id,price_list,priority,price,curr,start_date,end_date",
+                "35455,1,3,0,20.00,USD,2031-01-01T00:00:00,2031-01-31T23:59:59",
+                "35455,1,4,0,21.00,USD,2031-02-01T00:00:00",
+                "35455,1,4,0,abc,USD,2031-02-01T00:00:00,2031-02-28T00:00:00");
+
+        webTestClient
+                .post()
+                .uri("/api/prices/import")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .bodyValue(body)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(PriceImportReport.class)
+                .value(report -> {
+                    assertThat(report.getReceived()).isEqualTo(3);
+                    assertThat(report.getImported()).isEqualTo(1);
+                    assertThat(report.getRejects()).extracting(PriceImportReject::getLine).containsExactly(3L, 4L);
+                });
+    }
+
+    @Test
+    @DisplayName("Import CSV prices must accept quoted fields and reject unknown products, brands and price lists")
+    public void importCsvPricesRejectsUnknownReferences() {
+        String body = String.join("\n",
+                "\"product_id\",\"brand_id\",price_list,priority,price,curr,start_date,end_date",
+                "35455,1,1,0,\"30.00\",NOK,2039-01-01T00:00:00,2039-01-31T23:59:59",
+                "99999,1,2,0,31.00,NOK,2039-02-01T00:00:00,2039-02-28T00:00:00",
+                "35455,7,2,0,31.00,NOK,2039-02-01T00:00:00,2039-02-28T00:00:00",
+                "35455,1,9,0,31.00,NOK,2039-02-01T00:00:00,2039-02-28T00:00:00",
+                "35455,1,2,0,\"32.00,NOK,2039-03-01T00:00:00,2039-03-31T00:00:00");
+
+        webTestClient
+                .post()
+                .uri("/api/prices/import")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .bodyValue(body)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(PriceImportReport.class)
+                .value(report -> {
+                    assertThat(report.getReceived()).isEqualTo(5);
+                    assertThat(report.getImported()).isEqualTo(1);
+                    assertThat(report.getRejects()).extracting(PriceImportReject::getReason).containsExactly(
+                            "Product 99999 does not exist.",
+                            "Brand 7 does not exist.",
+                            "Price list 9 does not exist.",
+                            "Malformed row: unterminated quoted field.");
+                });
+    }
+
+    @Test
+    @DisplayName("Request for prices with a cursor must follow the continuation token")
+    public void getAllPricesWithCursorFollowsContinuationToken() {
+        PriceCursorPageDTO first = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/")
+                        .queryParam("cursor", "")
+                        .queryParam("size", 2)
+                        .queryParam("include_total", true)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(PriceCursorPageDTO.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.getNextCursor()).isNotBlank();
+        assertThat(first.getTotal()).isGreaterThanOrEqualTo(2L);
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/")
+                        .queryParam("cursor", first.getNextCursor())
+                        .queryParam("size", 2)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(PriceCursorPageDTO.class)
+                .value(next -> {
+                    assertThat(next.getContent()).isNotEmpty();
+                    assertThat(next.getContent().get(0).getId()).isGreaterThan(first.getContent().get(1).getId());
+                    assertThat(next.getTotal()).isNull();
+                });
+    }
+
+    @Test
+    @DisplayName("Request for prices with an invalid cursor must return bad request")
+    public void getAllPricesWithInvalidCursorMustReturnError() {
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder.path("/api/prices/").queryParam("cursor", "not-a-cursor").build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Export prices must stream every price as NDJSON")
+    public void exportPricesStreamsNdjson() {
+        webTestClient
+                .get()
+                .uri("/api/prices/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(PriceDTO.class)
+                .getResponseBody()
+                .collectList()
+                .as(prices -> assertThat(prices.block())
+                        .extracting(PriceDTO::getProductId)
+                        .isNotEmpty()
+                        .containsOnly(productId));
+    }
+
+    @Test
+    @DisplayName("Price timeline must return the price in effect for each part of the range")
+    public void getPriceTimelineReturnsResolvedSegments() {
+        createPrice(LocalDateTime.of(2032, 1, 1, 0, 0), LocalDateTime.of(2032, 1, 31, 23, 59, 59), 1L);
+        createPrice(LocalDateTime.of(2032, 2, 1, 0, 0), LocalDateTime.of(2032, 2, 29, 23, 59, 59), 2L);
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/timeline")
+                        .queryParam("product_id", productId)
+                        .queryParam("brand_id", brandId)
+                        .queryParam("from", "2032-01-15T00:00:00")
+                        .queryParam("to", "2032-02-15T00:00:00")
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$[0].startDate").isEqualTo("2032-01-15T00:00:00")
+                .jsonPath("$[0].endDate").isEqualTo("2032-01-31T23:59:59")
+                .jsonPath("$[0].price.priceList").isEqualTo(1)
+                .jsonPath("$[1].startDate").isEqualTo("2032-02-01T00:00:00")
+                .jsonPath("$[1].endDate").isEqualTo("2032-02-15T00:00:00")
+                .jsonPath("$[1].price.priceList").isEqualTo(2)
+                .jsonPath("$[2]").doesNotExist();
+    }
+
+    private void createPrice(LocalDateTime startDate, LocalDateTime endDate, Long priceList) {
+        webTestClient
+                .post()
+                .uri("/api/prices")
+                .bodyValue(PriceDTO.builder()
+                        .brandId(brandId)
+                        .startDate(startDate)
+                        .endDate(endDate)
+                        .priceList(priceList)
+                        .productId(productId)
+                        .priority(0)
+                        .price(BigDecimal.valueOf(10))
+                        .curr("GBP")
+                        .build())
+                .exchange()
+                .expectStatus()
+                .isOk();
+    }
+
+    @Test
+    @DisplayName("Price timeline with from after to must return bad request")
+    public void getPriceTimelineWithInvertedRangeMustReturnBadRequest() {
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/timeline")
+                        .queryParam("product_id", productId)
+                        .queryParam("brand_id", brandId)
+                        .queryParam("from", "2020-06-15T00:00:00")
+                        .queryParam("to", "2020-06-14T00:00:00")
+                        .build())
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Prometheus scrape must expose latency histograms for each layer")
+    public void prometheusExposesLayerLatencyHistograms() {
+        getCurrentPriceJson("2020-06-14T10:00:00");
+
+        String scrape = webTestClient
+                .mutate()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build()
+                .get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{application=\"payment-test-api\"")
+                .contains("prices_db_queries_seconds_bucket{application=\"payment-test-api\"")
+                .contains("prices_cache_loads_seconds_bucket{application=\"payment-test-api\"")
+                .contains("grpc_server_processing_duration_seconds")
+                .containsPattern("cache_gets_total\\{[^}]*cache=\"currentPrices\"[^}]*result=\"hit\"")
+                .containsPattern("cache_gets_total\\{[^}]*cache=\"currentPricesJson\"[^}]*cache_manager=\"encodedResponses\"");
+    }
+
+    @Test
+    @DisplayName("JFR endpoint must not be exposed unless enabled")
+    public void jfrEndpointIsOffByDefault() {
+        webTestClient
+                .get()
+                .uri("/actuator/jfr")
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    @DisplayName("Update price must replace the cached price right away")
+    public void updatePriceMustBeVisibleRightAway() {
+        PriceDTO created = webTestClient
+                .post()
+                .uri("/api/prices")
+                .bodyValue(nzdPrice(LocalDateTime.of(2036, 6, 30, 23, 59, 59), BigDecimal.valueOf(20)))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(PriceDTO.class)
+                .returnResult()
+                .getResponseBody();
+        assertCurrentPrice("2036-03-01T00:00:00", BigDecimal.valueOf(20));
+
+        webTestClient
+                .put()
+                .uri("/api/prices/{id}", created.getId())
+                .bodyValue(nzdPrice(LocalDateTime.of(2036, 12, 31, 23, 59, 59), BigDecimal.valueOf(25)))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(PriceDTO.class)
+                .value(updated -> {
+                    assertThat(updated.getId()).isEqualTo(created.getId());
+                    assertThat(updated.getPrice()).isEqualByComparingTo(BigDecimal.valueOf(25));
+                });
+
+        assertCurrentPrice("2036-03-01T00:00:00", BigDecimal.valueOf(25));
+        assertCurrentPrice("2036-10-01T00:00:00", BigDecimal.valueOf(25));
+    }
+
+    @Test
+    @DisplayName("Update price of another product must return bad request")
+    public void updatePriceOfAnotherProductMustReturnBadRequest() {
+        PriceDTO moved = PriceDTO.builder()
+                .brandId(brandId)
+                .startDate(LocalDateTime.of(2036, 1, 1, 0, 0))
+                .endDate(LocalDateTime.of(2036, 1, 2, 0, 0))
+                .priceList(1L)
+                .productId(1L)
+                .priority(0)
+                .price(BigDecimal.TEN)
+                .curr("NZD")
+                .build();
+
+        webTestClient
+                .put()
+                .uri("/api/prices/{id}", 2)
+                .bodyValue(moved)
+                .exchange()
+                .expectStatus()
+                .isBadRequest()
+                .expectBody(ErrorResponse.class)
+                .value(error -> assertThat(error.getError())
+                        .isEqualTo("The product and brand of a price cannot be changed."));
+    }
+
+    @Test
+    @DisplayName("Update of a missing price must return not found")
+    public void updateMissingPriceMustReturnNotFound() {
+        webTestClient
+                .put()
+                .uri("/api/prices/{id}", 999_999)
+                .bodyValue(nzdPrice(LocalDateTime.of(2036, 1, 2, 0, 0), BigDecimal.TEN))
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    private PriceDTO nzdPrice(LocalDateTime endDate, BigDecimal amount) {
+        return PriceDTO.builder()
+                .brandId(brandId)
+                .startDate(LocalDateTime.of(2036, 1, 1, 0, 0))
+                .endDate(endDate)
+                .priceList(1L)
+                .productId(productId)
+                .priority(0)
+                .price(amount)
+                .curr("NZD")
+                .build();
+    }
+
+    private void assertCurrentPrice(String date, BigDecimal expected) {
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/current")
+                        .queryParam("product_id", productId)
+                        .queryParam("brand_id", brandId)
+                        .queryParam("date", date)
+                        .build())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(PriceDTO.class)
+                .value(price -> assertThat(price.getPrice()).isEqualByComparingTo(expected));
+    }
+
+    @Test
+    @DisplayName("Changes must long-poll until a price is written")
+    public void changesMustLongPollUntilAPriceIsWritten() {
+        JsonNode existing = changes(0, 1000, 0);
+        assertThat(existing).anySatisfy(change -> {
+            assertThat(change.get("productId").asLong()).isEqualTo(productId);
+            assertThat(change.get("prices")).isNotEmpty();
+        });
+        long since = existing.get(existing.size() - 1).get("sequence").asLong();
+
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            webTestClient
+                    .post()
+                    .uri("/api/prices")
+                    .bodyValue(PriceDTO.builder()
+                            .brandId(brandId)
+                            .startDate(LocalDateTime.of(2037, 1, 1, 0, 0))
+                            .endDate(LocalDateTime.of(2037, 12, 31, 23, 59, 59))
+                            .priceList(1L)
+                            .productId(productId)
+                            .priority(0)
+                            .price(BigDecimal.TEN)
+                            .curr("SEK")
+                            .build())
+                    .exchange()
+                    .expectStatus()
+                    .isOk();
+        });
+        JsonNode changes = changes(since, 10, 10);
+        write.join();
+
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).get("sequence").asLong()).isGreaterThan(since);
+        assertThat(changes.get(0).get("prices").findValuesAsText("curr")).contains("SEK");
+    }
+
+    @Test
+    @DisplayName("Changes must not be skipped when transactions commit out of order")
+    public void changesMustNotBeSkippedWhenTransactionsCommitOutOfOrder() {
+        JsonNode existing = changes(0, 1000, 0);
+        long since = existing.get(existing.size() - 1).get("sequence").asLong();
+        Sinks.Empty<Void> releaseFirst = Sinks.empty();
+
+        // The first transaction writes before the second one but commits after it.
+        Mono<Price> first = transactionalOperator.transactional(
+                databasePricePort.save(dkkPrice(1L, 2040)).flatMap(saved -> releaseFirst.asMono().thenReturn(saved)));
+        CompletableFuture<Price> firstCommitted = first.toFuture();
+        transactionalOperator.transactional(databasePricePort.save(dkkPrice(2L, 2041))).block(Duration.ofSeconds(10));
+
+        JsonNode afterSecond = changes(since, 10, 0);
+        assertThat(afterSecond).hasSize(1);
+        long secondSequence = afterSecond.get(0).get("sequence").asLong();
+
+        releaseFirst.tryEmitEmpty();
+        firstCommitted.join();
+
+        JsonNode afterFirst = changes(secondSequence, 10, 0);
+        assertThat(afterFirst).hasSize(1);
+        assertThat(afterFirst.get(0).get("sequence").asLong()).isGreaterThan(secondSequence);
+        assertThat(afterFirst.get(0).get("prices").findValuesAsText("curr")).filteredOn("DKK"::equals).hasSize(2);
+    }
+
+    private Price dkkPrice(Long priceList, int year) {
+        return Price.builder()
+                .brandId(brandId)
+                .startDate(LocalDateTime.of(year, 1, 1, 0, 0))
+                .endDate(LocalDateTime.of(year, 12, 31, 23, 59, 59))
+                .priceList(priceList)
+                .productId(productId)
+                .priority(0)
+                .price(BigDecimal.TEN)
+                .curr("DKK")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Changes with a limit out of range must return bad request")
+    public void changesWithInvalidLimitMustReturnBadRequest() {
+        webTestClient
+                .get()
+                .uri("/api/prices/changes?limit=0")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    private JsonNode changes(long since, int limit, int waitSeconds) {
+        return webTestClient
+                .mutate()
+                .responseTimeout(Duration.ofSeconds(waitSeconds + 5))
+                .build()
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/prices/changes")
+                        .queryParam("since", since)
+                        .queryParam("limit", limit)
+                        .queryParam("wait_seconds", waitSeconds)
+                        .build())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(JsonNode.class)
+                .returnResult()
+                .getResponseBody();
+    }
 }
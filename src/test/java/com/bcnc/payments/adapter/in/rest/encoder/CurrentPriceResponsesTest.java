@@ -0,0 +1,60 @@
+package com.bcnc.payments.adapter.in.rest.encoder;
+
+import com.bcnc.payments.domain.price.CurrentPrice;
+import com.bcnc.payments.domain.price.CurrentPriceInterval;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CurrentPriceResponsesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 6, 14, 14, 0);
+
+    private final CurrentPriceJsonEncoder encoder = new CurrentPriceJsonEncoder(
+            Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), true, 100);
+    private final CurrentPriceResponses responses = new CurrentPriceResponses(
+            encoder, Duration.ofHours(1), Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+    private static CurrentPrice price(double amount) {
+        return CurrentPrice.builder()
+                .productId(35455L)
+                .brandId(1L)
+                .priceList(1L)
+                .startDate(LocalDateTime.parse("2020-06-14T00:00:00"))
+                .endDate(LocalDateTime.parse("2020-12-31T23:59:59"))
+                .price(BigDecimal.valueOf(amount))
+                .build();
+    }
+
+    @Test
+    public void maxAgeRunsUntilNextBoundaryCappedAtMaximum() {
+        assertThat(responses.maxAge(NOW.plusMinutes(10))).isEqualTo(Duration.ofMinutes(10));
+        assertThat(responses.maxAge(NOW.plusDays(1))).isEqualTo(Duration.ofHours(1));
+        assertThat(responses.maxAge(NOW.minusDays(1))).isEqualTo(Duration.ofHours(1));
+        assertThat(responses.maxAge(null)).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    public void etagFollowsTheEncodedBody() {
+        ResponseEntity<byte[]> first = responses.of(
+                CurrentPriceInterval.builder().price(price(35.50)).validUntil(NOW.plusMinutes(10)).build());
+        ResponseEntity<byte[]> same = responses.of(
+                CurrentPriceInterval.builder().price(price(35.50)).build());
+        ResponseEntity<byte[]> other = responses.of(
+                CurrentPriceInterval.builder().price(price(25.45)).build());
+
+        assertThat(first.getHeaders().getETag()).startsWith("\"").isEqualTo(same.getHeaders().getETag());
+        assertThat(other.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+        assertThat(first.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=600, public");
+    }
+}
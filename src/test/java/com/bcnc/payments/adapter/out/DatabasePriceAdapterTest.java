@@ -1,39 +1,71 @@
 package com.bcnc.payments.adapter.out;
 
+import com.bcnc.payments.adapter.out.model.PriceChangeEntity;
 import com.bcnc.payments.adapter.out.model.PriceEntity;
+import com.bcnc.payments.adapter.out.repository.CurrentPriceRepository;
+import com.bcnc.payments.adapter.out.repository.PriceBatchRepository;
 import com.bcnc.payments.adapter.out.repository.PriceRepository;
 import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceChange;
+import com.bcnc.payments.domain.price.PriceKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class DatabasePriceAdapterTest {
 
-    @InjectMocks
     private DatabasePriceAdapter databasePriceAdapter;
 
     @Mock
     private PriceRepository repository;
 
+    @Mock
+    private CurrentPriceRepository currentPriceRepository;
+
+    @Mock
+    private PriceBatchRepository priceBatchRepository;
+
     @Mock
     private PriceMapper mapper;
 
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        databasePriceAdapter = new DatabasePriceAdapter(repository, currentPriceRepository, priceBatchRepository, mapper,
+                transactionalOperator, meterRegistry, Duration.ofSeconds(30));
+        when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionalOperator.transactional(ArgumentMatchers.<Flux<Object>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(priceBatchRepository.insertChanges(anyCollection())).thenReturn(Mono.just(1L));
     }
 
     @Test
@@ -67,20 +99,45 @@ public class DatabasePriceAdapterTest {
         when(repository.save(priceEntity)).thenReturn(Mono.just(priceEntity));
         when(mapper.fromPriceEntityToPrice(priceEntity)).thenReturn(price);
 
+        List<PriceKey> committed = new CopyOnWriteArrayList<>();
+        databasePriceAdapter.committedChanges().subscribe(committed::add);
+
         Mono<Price> result = databasePriceAdapter.save(price);
 
         assertThat(result.block()).isEqualTo(price);
+        verify(priceBatchRepository).insertChanges(Set.of(new PriceKey(35455L, 1L)));
+        assertThat(committed).containsExactly(new PriceKey(35455L, 1L));
     }
 
     @Test
     public void testDeleteSuccessfully() {
         Long priceId = 1L;
 
+        when(repository.findById(priceId))
+                .thenReturn(Mono.just(PriceEntity.builder().id(priceId).productId(35455L).brandId(1L).build()));
         when(repository.deleteById(priceId)).thenReturn(Mono.empty());
 
         Mono<Void> result = databasePriceAdapter.delete(priceId);
 
-        assertThat(result).isEqualTo(Mono.empty());
+        StepVerifier.create(result).verifyComplete();
+        verify(priceBatchRepository).insertChanges(Set.of(new PriceKey(35455L, 1L)));
+        verify(repository).deleteById(priceId);
+    }
+
+    @Test
+    public void changesCarryTheCurrentPricesOfEachPair() {
+        PriceEntity stored = PriceEntity.builder().id(7L).productId(35455L).brandId(1L).build();
+        when(repository.findChangesSince(3L, 10)).thenReturn(Flux.just(
+                new PriceChangeEntity(5L, 35455L, 1L), new PriceChangeEntity(8L, 35456L, 1L)));
+        when(repository.findAllByProductIdAndBrandIdIn(any())).thenReturn(Flux.just(stored));
+        when(mapper.fromPriceEntityToPrice(stored))
+                .thenReturn(Price.builder().id(7L).productId(35455L).brandId(1L).build());
+
+        List<PriceChange> changes = databasePriceAdapter.findChangesSince(3L, 10).collectList().block();
+
+        assertThat(changes).extracting(PriceChange::getSequence).containsExactly(5L, 8L);
+        assertThat(changes.get(0).getPrices()).extracting(Price::getId).containsExactly(7L);
+        assertThat(changes.get(1).getPrices()).isEmpty();
     }
 
     @Test
@@ -174,4 +231,49 @@ public class DatabasePriceAdapterTest {
 
         assertThat(results.collectList().block()).hasSize(2);
     }
+
+    @Test
+    public void findOverlappingMustReturnCandidatePrices() {
+        LocalDateTime start = LocalDateTime.parse("2020-06-14T00:00:00");
+        LocalDateTime end = LocalDateTime.parse("2020-06-15T00:00:00");
+        PriceEntity priceEntity = PriceEntity.builder().id(1L).build();
+
+        when(repository.findOverlapping(35455L, 1L, start, end)).thenReturn(Flux.just(priceEntity));
+        when(mapper.fromPriceEntityToPrice(priceEntity)).thenReturn(Price.builder().id(1L).build());
+
+        List<Price> results = databasePriceAdapter.findOverlapping(35455L, 1L, start, end).collectList().block();
+
+        assertThat(results).extracting(Price::getId).containsExactly(1L);
+    }
+
+    @Test
+    public void countIsCachedUntilTheNextWrite() {
+        when(repository.count()).thenReturn(Mono.just(4L)).thenReturn(Mono.just(3L));
+        when(repository.findById(1L))
+                .thenReturn(Mono.just(PriceEntity.builder().id(1L).productId(35455L).brandId(1L).build()));
+        when(repository.deleteById(1L)).thenReturn(Mono.empty());
+
+        assertThat(databasePriceAdapter.count().block()).isEqualTo(4L);
+        assertThat(databasePriceAdapter.count().block()).isEqualTo(4L);
+        verify(repository, times(1)).count();
+
+        databasePriceAdapter.delete(1L).block();
+
+        assertThat(databasePriceAdapter.count().block()).isEqualTo(3L);
+        verify(repository, times(2)).count();
+    }
+
+    @Test
+    public void queriesAreTimedPerMethodAndOutcome() {
+        when(repository.findById(1L)).thenReturn(Mono.empty());
+        when(repository.findById(2L)).thenReturn(Mono.error(new IllegalStateException("Connection closed")));
+
+        databasePriceAdapter.findById(1L).block();
+        StepVerifier.create(databasePriceAdapter.findById(2L)).verifyError(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("prices.db.queries").tag("query", "findById").tag("outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("prices.db.queries").tag("query", "findById").tag("outcome", "error")
+                .timer().count()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,150 @@
+package com.bcnc.payments.adapter.out.invalidation;
+
+import com.bcnc.payments.domain.price.PriceInvalidation;
+import com.bcnc.payments.domain.price.PriceKey;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GrpcInvalidationBusTest {
+
+    private final List<Server> servers = new ArrayList<>();
+    private final List<GrpcInvalidationBus> buses = new ArrayList<>();
+    private GrpcInvalidationBus first;
+    private GrpcInvalidationBus second;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Only the host of a peer is checked, so any port lets the local sender in.
+        first = bus(List.of(), List.of("localhost:9090"));
+        second = bus(List.of(), List.of("localhost:9090"));
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        buses.forEach(GrpcInvalidationBus::stop);
+        for (Server server : servers) {
+            server.shutdown();
+            server.awaitTermination();
+        }
+    }
+
+    @Test
+    public void publishedBatchesReachEveryPeer() throws IOException {
+        List<PriceInvalidation> firstReceived = new CopyOnWriteArrayList<>();
+        List<PriceInvalidation> secondReceived = new CopyOnWriteArrayList<>();
+        first.received().subscribe(firstReceived::add);
+        second.received().subscribe(secondReceived::add);
+        GrpcInvalidationBus sender = bus(List.of(target(0), target(1)));
+        PriceInvalidation invalidation = new PriceInvalidation(
+                "node-a", 3, Set.of(new PriceKey(35455L, 1L), new PriceKey(35456L, 2L)));
+
+        sender.publish(invalidation).block(Duration.ofSeconds(10));
+
+        assertThat(firstReceived).containsExactly(invalidation);
+        assertThat(secondReceived).containsExactly(invalidation);
+    }
+
+    @Test
+    public void unreachablePeerDoesNotFailThePublish() throws IOException {
+        List<PriceInvalidation> received = new CopyOnWriteArrayList<>();
+        first.received().subscribe(received::add);
+        int stopped = servers.get(1).getPort();
+        servers.get(1).shutdownNow();
+        GrpcInvalidationBus sender = bus(List.of("localhost:" + stopped, target(0)));
+
+        Mono<Void> publish = sender.publish(new PriceInvalidation("node-a", 1, Set.of(new PriceKey(1L, 1L))));
+
+        assertThat(publish.blockOptional(Duration.ofSeconds(10))).isEmpty();
+        assertThat(received).extracting(PriceInvalidation::sequence).containsExactly(1L);
+    }
+
+    @Test
+    public void batchesFromHostsThatAreNotPeersAreRejected() throws IOException {
+        GrpcInvalidationBus receiver = bus(List.of(), List.of("192.0.2.1:9090"));
+        List<PriceInvalidation> received = new CopyOnWriteArrayList<>();
+        receiver.received().subscribe(received::add);
+        GrpcInvalidationBus sender = bus(List.of(target(2)));
+
+        sender.publish(new PriceInvalidation("node-a", 1, Set.of(new PriceKey(1L, 1L)))).block(Duration.ofSeconds(10));
+
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    public void onlyTheHostsOfPeersAreAccepted() {
+        GrpcInvalidationPeerInterceptor interceptor =
+                new GrpcInvalidationPeerInterceptor(List.of("localhost:9090", " 192.0.2.1:9091"), Duration.ofSeconds(30));
+
+        assertThat(interceptor.isPeer(new InetSocketAddress("127.0.0.1", 50000))).isTrue();
+        assertThat(interceptor.isPeer(new InetSocketAddress("192.0.2.1", 50001))).isTrue();
+        assertThat(interceptor.isPeer(new InetSocketAddress("192.0.2.2", 9091))).isFalse();
+        assertThat(new GrpcInvalidationPeerInterceptor(List.of(), Duration.ofSeconds(30)).isPeer(new InetSocketAddress("127.0.0.1", 1)))
+                .isFalse();
+    }
+
+    @Test
+    public void peersAreResolvedOffTheRequestPathAndKeepTheirAddressesWhenResolutionFails() throws Exception {
+        InetAddress first = InetAddress.getByName("192.0.2.1");
+        InetAddress moved = InetAddress.getByName("192.0.2.2");
+        AtomicReference<InetAddress> current = new AtomicReference<>(first);
+        AtomicInteger lookups = new AtomicInteger();
+        GrpcInvalidationPeerInterceptor interceptor = new GrpcInvalidationPeerInterceptor(
+                List.of("peer:9090"), Duration.ofSeconds(30), host -> {
+            lookups.incrementAndGet();
+            if (current.get() == null) {
+                throw new UnknownHostException(host);
+            }
+            return new InetAddress[]{current.get()};
+        });
+
+        assertThat(interceptor.isPeer(new InetSocketAddress(first, 50000))).isTrue();
+        assertThat(interceptor.isPeer(new InetSocketAddress(moved, 50000))).isFalse();
+        assertThat(lookups).hasValue(1);
+
+        current.set(moved);
+        interceptor.refresh();
+        assertThat(interceptor.isPeer(new InetSocketAddress(moved, 50000))).isTrue();
+        assertThat(interceptor.isPeer(new InetSocketAddress(first, 50000))).isFalse();
+
+        current.set(null);
+        interceptor.refresh();
+        assertThat(interceptor.isPeer(new InetSocketAddress(moved, 50000))).isTrue();
+    }
+
+    private GrpcInvalidationBus bus(List<String> peers) throws IOException {
+        return bus(peers, List.of());
+    }
+
+    private GrpcInvalidationBus bus(List<String> peers, List<String> acceptedFrom) throws IOException {
+        GrpcInvalidationBus bus = new GrpcInvalidationBus(peers, Duration.ofSeconds(5));
+        ServerServiceDefinition service =
+                ServerInterceptors.intercept(bus, new GrpcInvalidationPeerInterceptor(acceptedFrom, Duration.ofSeconds(30)));
+        servers.add(ServerBuilder.forPort(0).addService(service).build().start());
+        buses.add(bus);
+        return bus;
+    }
+
+    private String target(int server) {
+        return "localhost:" + servers.get(server).getPort();
+    }
+}
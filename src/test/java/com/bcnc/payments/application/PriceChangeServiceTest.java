@@ -0,0 +1,78 @@
+package com.bcnc.payments.application;
+
+import com.bcnc.payments.domain.price.PriceChange;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PriceChangeServiceTest {
+
+    private final DatabasePricePort priceRepository = mock(DatabasePricePort.class);
+    private final Sinks.Many<PriceKey> committed = Sinks.many().multicast().directBestEffort();
+    private final PriceChange change = PriceChange.builder()
+            .sequence(4L)
+            .productId(35455L)
+            .brandId(1L)
+            .prices(List.of())
+            .build();
+    private PriceChangeService priceChangeService;
+
+    @BeforeEach
+    public void setUp() {
+        when(priceRepository.committedChanges()).thenReturn(committed.asFlux());
+        priceChangeService = new PriceChangeService(priceRepository, Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void pendingChangesAreReturnedWithoutWaiting() {
+        when(priceRepository.findChangesSince(3L, 10)).thenReturn(Flux.just(change));
+
+        List<PriceChange> changes = priceChangeService.findChangesSince(3L, 10, Duration.ofSeconds(30))
+                .collectList()
+                .block(Duration.ofSeconds(1));
+
+        assertThat(changes).containsExactly(change);
+        verify(priceRepository, never()).committedChanges();
+    }
+
+    @Test
+    public void longPollReturnsOnceAChangeIsCommitted() {
+        AtomicInteger reads = new AtomicInteger();
+        when(priceRepository.findChangesSince(3L, 10))
+                .thenAnswer(invocation -> reads.incrementAndGet() == 1 ? Flux.empty() : Flux.just(change));
+
+        List<PriceChange> changes = priceChangeService.findChangesSince(3L, 10, Duration.ofSeconds(30))
+                .collectList()
+                .doOnSubscribe(subscription -> Flux.just(new PriceKey(35455L, 1L))
+                        .delayElements(Duration.ofMillis(100))
+                        .subscribe(key -> committed.tryEmitNext(key)))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(changes).containsExactly(change);
+        assertThat(reads).hasValue(2);
+    }
+
+    @Test
+    public void longPollReturnsNothingWhenTheWaitElapses() {
+        when(priceRepository.findChangesSince(3L, 10)).thenReturn(Flux.empty());
+
+        List<PriceChange> changes = priceChangeService.findChangesSince(3L, 10, Duration.ofMillis(200))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(changes).isEmpty();
+    }
+}
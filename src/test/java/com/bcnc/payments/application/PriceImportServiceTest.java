@@ -0,0 +1,162 @@
+package com.bcnc.payments.application;
+
+import com.bcnc.payments.application.cache.CacheEvictionService;
+import com.bcnc.payments.application.cache.PriceTimelineCache;
+import com.bcnc.payments.application.cache.PriceTimelineCacheSettings;
+import com.bcnc.payments.application.invalidation.PriceInvalidationBroadcaster;
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceImportReject;
+import com.bcnc.payments.domain.price.PriceImportReport;
+import com.bcnc.payments.domain.price.PriceImportRow;
+import com.bcnc.payments.domain.price.PriceIntervalIndex;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceKeyFilter;
+import com.bcnc.payments.domain.price.PriceReferences;
+import com.bcnc.payments.domain.price.PriceTimeline;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PriceImportServiceTest {
+
+    private final PriceKey key = new PriceKey(35455L, 1L);
+
+    @Mock
+    private DatabasePricePort priceRepository;
+
+    @Mock
+    private PriceIntervalIndex priceIntervalIndex;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private PriceInvalidationBroadcaster priceInvalidationBroadcaster;
+
+    private PriceTimelineCache priceTimelineCache;
+
+    private PriceImportService priceImportService;
+
+    private static Price price(String start, String end, long priceList, int priority) {
+        return Price.builder()
+                .brandId(1L)
+                .startDate(LocalDateTime.parse(start))
+                .endDate(LocalDateTime.parse(end))
+                .priceList(priceList)
+                .productId(35455L)
+                .priority(priority)
+                .price(BigDecimal.valueOf(10.00))
+                .curr("EUR")
+                .build();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        priceTimelineCache = new PriceTimelineCache(
+                PriceTimelineCacheSettings.builder().maximumWeight(100).maximumTtl(Duration.ofMinutes(10)).build(), new SimpleMeterRegistry());
+        priceImportService = new PriceImportService(
+                priceRepository, new CacheEvictionService(priceTimelineCache, priceInvalidationBroadcaster), priceIntervalIndex,
+                new PriceKeyFilter(), transactionalOperator, 2);
+        when(transactionalOperator.transactional(ArgumentMatchers.<Flux<Object>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(priceRepository.findExistingReferences(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void importPricesRejectsInvalidRowsAndInsertsTheRestInBatches() {
+        Price existing = price("2020-06-14T00:00:00", "2020-06-30T00:00:00", 1L, 0);
+        when(priceRepository.findAllByProductIdAndBrandIdIn(any())).thenReturn(Flux.just(existing));
+        when(priceRepository.saveAll(any())).thenAnswer(invocation ->
+                Mono.just((long) invocation.getArgument(0, List.class).size()));
+        priceTimelineCache.get(key, k -> Mono.just(PriceTimeline.of(List.of(existing)))).block();
+
+        Flux<PriceImportRow> rows = Flux.just(
+                PriceImportRow.of(1, price("2020-07-01T00:00:00", "2020-07-31T00:00:00", 2L, 0)),
+                PriceImportRow.of(2, price("2020-06-20T00:00:00", "2020-07-05T00:00:00", 3L, 0)),
+                PriceImportRow.rejected(3, "Malformed row"),
+                PriceImportRow.of(4, price("2020-07-15T00:00:00", "2020-08-15T00:00:00", 3L, 0)),
+                PriceImportRow.of(5, price("2020-09-01T00:00:00", "2020-09-30T00:00:00", 1L, 0)),
+                PriceImportRow.of(6, price("2020-10-01T00:00:00", "2020-10-31T00:00:00", 3L, 0)));
+
+        PriceImportReport report = priceImportService.importPrices(rows).block();
+
+        assertThat(report.getReceived()).isEqualTo(6);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(4);
+        assertThat(report.getRejects()).extracting(PriceImportReject::getLine).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(report.getRejects().get(0).getReason()).isEqualTo("Price overlaps with an existing price.");
+        assertThat(report.getRejects().get(2).getReason()).isEqualTo("Price overlaps with an existing price.");
+        assertThat(report.getRejects().get(3).getReason())
+                .isEqualTo("Price list, priority and currency are already used for this product and brand.");
+
+        ArgumentCaptor<List<Price>> batches = ArgumentCaptor.forClass(List.class);
+        verify(priceRepository, times(3)).saveAll(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(1, 0, 1);
+        verify(priceRepository, times(1)).findAllByProductIdAndBrandIdIn(any());
+        assertThat(priceTimelineCache.getIfPresent(key)).isNull();
+        verify(priceInvalidationBroadcaster).broadcast(key);
+    }
+
+    @Test
+    public void importPricesRejectsRowsReferencingMissingProducts() {
+        Price unknown = Price.builder()
+                .brandId(1L)
+                .startDate(LocalDateTime.parse("2020-07-01T00:00:00"))
+                .endDate(LocalDateTime.parse("2020-07-31T00:00:00"))
+                .priceList(2L)
+                .productId(99999L)
+                .priority(0)
+                .price(BigDecimal.valueOf(10.00))
+                .curr("EUR")
+                .build();
+        when(priceRepository.findAllByProductIdAndBrandIdIn(any())).thenReturn(Flux.empty());
+        doReturn(Mono.just(new PriceReferences(Set.of(35455L), Set.of(1L), Set.of(1L, 2L))))
+                .when(priceRepository).findExistingReferences(any());
+        when(priceRepository.saveAll(any())).thenAnswer(invocation ->
+                Mono.just((long) invocation.getArgument(0, List.class).size()));
+
+        PriceImportReport report = priceImportService.importPrices(Flux.just(
+                PriceImportRow.of(1, price("2020-07-01T00:00:00", "2020-07-31T00:00:00", 2L, 0)),
+                PriceImportRow.of(2, unknown))).block();
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getRejects()).singleElement().satisfies(reject -> {
+            assertThat(reject.getLine()).isEqualTo(2L);
+            assertThat(reject.getReason()).isEqualTo("Product 99999 does not exist.");
+        });
+        verify(priceRepository).findExistingReferences(
+                new PriceReferences(Set.of(35455L, 99999L), Set.of(1L), Set.of(2L)));
+    }
+
+    @Test
+    public void importPricesWithoutRowsReturnsEmptyReport() {
+        PriceImportReport report = priceImportService.importPrices(Flux.empty()).block();
+
+        assertThat(report.getReceived()).isZero();
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getRejects()).isEmpty();
+    }
+}
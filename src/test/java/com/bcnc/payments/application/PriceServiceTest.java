@@ -1,31 +1,55 @@
 package com.bcnc.payments.application;
 
+import com.bcnc.payments.application.batch.PriceCreateBatcher;
 import com.bcnc.payments.application.cache.CacheEvictionService;
+import com.bcnc.payments.application.cache.PriceTimelineCache;
+import com.bcnc.payments.application.cache.PriceTimelineCacheSettings;
+import com.bcnc.payments.application.sequencer.PriceWriteSequencer;
+import com.bcnc.payments.domain.price.CurrentPrice;
+import com.bcnc.payments.domain.price.CurrentPriceInterval;
+import com.bcnc.payments.domain.price.CurrentPriceResult;
+import com.bcnc.payments.domain.price.InvalidPriceException;
 import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceIntervalIndex;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceKeyFilter;
+import com.bcnc.payments.domain.price.PriceLookup;
 import com.bcnc.payments.domain.price.PriceManager;
+import com.bcnc.payments.domain.price.PriceManagerService;
 import com.bcnc.payments.domain.price.PriceNotFoundException;
 import com.bcnc.payments.domain.price.PriceOverlappingException;
+import com.bcnc.payments.domain.price.PriceSegment;
+import com.bcnc.payments.domain.price.PriceSlice;
+import com.bcnc.payments.domain.price.PriceTimeline;
 import com.bcnc.payments.port.out.DatabasePricePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 public class PriceServiceTest {
@@ -39,18 +63,32 @@ public class PriceServiceTest {
     @Mock
     private PriceManager priceManager;
 
+    @Spy
+    private PriceTimelineCache priceTimelineCache =
+            new PriceTimelineCache(
+                    PriceTimelineCacheSettings.builder().maximumWeight(100).maximumTtl(Duration.ofMinutes(10)).build(),
+                    new SimpleMeterRegistry());
+
     @Mock
-    private Cache cache;
+    private CacheEvictionService cacheEvictionService;
 
     @Mock
-    private CacheManager cacheManager;
+    private PriceIntervalIndex priceIntervalIndex;
+
+    @Spy
+    private PriceKeyFilter priceKeyFilter = new PriceKeyFilter();
+
+    @Spy
+    private PriceWriteSequencer priceWriteSequencer = new PriceWriteSequencer(16);
 
     @Mock
-    private CacheEvictionService cacheEvictionService;
+    private PriceCreateBatcher priceCreateBatcher;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(cacheEvictionService.priceSaved(any())).thenReturn(Mono.empty());
+        when(cacheEvictionService.priceDeleted(any())).thenReturn(Mono.empty());
     }
 
     @Test
@@ -69,7 +107,8 @@ public class PriceServiceTest {
 
         Flux<Price> prices = Flux.empty();
         when(priceRepository.save(price)).thenReturn(Mono.just(price));
-        when(priceRepository.findAllByProductIdAndBrandId(price.getProductId(), price.getBrandId()))
+        when(priceRepository.findOverlapping(
+                price.getProductId(), price.getBrandId(), price.getStartDate(), price.getEndDate()))
                 .thenReturn(prices);
         when(priceManager.doesPriceOverlap(prices, price)).thenReturn(Mono.just(false));
 
@@ -77,6 +116,28 @@ public class PriceServiceTest {
 
         assertThat(savedPrice.block()).isEqualTo(price);
         verify(priceRepository).save(price);
+        verify(cacheEvictionService).priceSaved(price);
+    }
+
+    @Test
+    public void createGoesThroughBatcherWhenBatchingIsEnabled() {
+        Price price =
+                Price.builder()
+                        .brandId(1L)
+                        .startDate(LocalDateTime.now())
+                        .endDate(LocalDateTime.now().plusDays(1))
+                        .priceList(1L)
+                        .productId(35455L)
+                        .priority(1)
+                        .price(BigDecimal.valueOf(100.00))
+                        .curr("EUR")
+                        .build();
+        when(priceCreateBatcher.isEnabled()).thenReturn(true);
+        when(priceCreateBatcher.create(price)).thenReturn(Mono.just(price));
+
+        assertThat(priceService.create(price).block()).isEqualTo(price);
+        verify(priceRepository, never()).save(any());
+        verify(priceRepository, never()).findOverlapping(any(), any(), any(), any());
     }
 
     @Test
@@ -94,7 +155,8 @@ public class PriceServiceTest {
                         .build();
 
         Flux<Price> prices = Flux.just(price);
-        when(priceRepository.findAllByProductIdAndBrandId(price.getProductId(), price.getBrandId()))
+        when(priceRepository.findOverlapping(
+                price.getProductId(), price.getBrandId(), price.getStartDate(), price.getEndDate()))
                 .thenReturn(prices);
         when(priceManager.doesPriceOverlap(prices, price)).thenReturn(Mono.just(true));
 
@@ -103,20 +165,102 @@ public class PriceServiceTest {
                 .withMessage("Price overlaps with an existing price.");
     }
 
+    @Test
+    public void createPriceUsesIndexForOverlapWhenReady() {
+        Price price =
+                Price.builder()
+                        .brandId(1L)
+                        .startDate(LocalDateTime.now())
+                        .endDate(LocalDateTime.now().plusDays(1))
+                        .priceList(1L)
+                        .productId(35455L)
+                        .priority(1)
+                        .price(BigDecimal.valueOf(100.00))
+                        .curr("EUR")
+                        .build();
+
+        PriceTimeline timeline = PriceTimeline.empty();
+        when(priceIntervalIndex.isReady()).thenReturn(true);
+        when(priceIntervalIndex.get(PriceKey.of(price))).thenReturn(timeline);
+        when(priceManager.doesPriceOverlap(timeline, price)).thenReturn(true);
+
+        assertThatExceptionOfType(PriceOverlappingException.class)
+                .isThrownBy(() -> priceService.create(price).block());
+        verify(priceRepository, never()).findOverlapping(any(), any(), any(), any());
+        verify(priceRepository, never()).save(any());
+    }
+
     @Test
     public void deletePriceSuccessfully() {
         Long priceId = 1L;
-        Price price = Price.builder().id(priceId).build();
+        Price price = Price.builder().id(priceId).productId(35455L).brandId(1L).build();
 
         when(priceRepository.findById(priceId)).thenReturn(Mono.just(price));
         when(priceRepository.delete(priceId)).thenReturn(Mono.empty());
-        when(cacheEvictionService.evictCurrentPricesCache(price.getProductId(), price.getBrandId(), price.getStartDate()))
-                .thenReturn(Mono.empty());
 
         Mono<Void> result = priceService.delete(priceId);
 
         assertThat(result.block()).isNull();
         verify(priceRepository).delete(priceId);
+        verify(cacheEvictionService).priceDeleted(price);
+    }
+
+    @Test
+    public void updateIgnoresTheIntervalOfThePriceItReplaces() {
+        Price existing = Price.builder()
+                .id(7L)
+                .brandId(1L)
+                .startDate(LocalDateTime.of(2020, 6, 14, 0, 0))
+                .endDate(LocalDateTime.of(2020, 6, 20, 0, 0))
+                .priceList(1L)
+                .productId(35455L)
+                .priority(0)
+                .price(BigDecimal.TEN)
+                .curr("EUR")
+                .build();
+        Price changed = Price.builder()
+                .brandId(1L)
+                .startDate(LocalDateTime.of(2020, 6, 15, 0, 0))
+                .endDate(LocalDateTime.of(2020, 6, 25, 0, 0))
+                .priceList(1L)
+                .productId(35455L)
+                .priority(0)
+                .price(BigDecimal.ONE)
+                .curr("EUR")
+                .build();
+        when(priceRepository.findById(7L)).thenReturn(Mono.just(existing));
+        when(priceRepository.findOverlapping(any(), any(), any(), any())).thenReturn(Flux.just(existing));
+        when(priceRepository.save(changed)).thenReturn(Mono.just(changed));
+        PriceService service = new PriceService(
+                priceRepository, new PriceManagerService(), priceTimelineCache, cacheEvictionService,
+                priceIntervalIndex, priceKeyFilter, priceWriteSequencer, priceCreateBatcher);
+
+        Price updated = service.update(7L, changed).block();
+
+        assertThat(updated.getId()).isEqualTo(7L);
+        assertThat(updated.getPrice()).isEqualByComparingTo(BigDecimal.ONE);
+        verify(priceIntervalIndex).add(changed);
+        verify(cacheEvictionService).priceSaved(changed);
+    }
+
+    @Test
+    public void updateCannotMovePriceToAnotherProduct() {
+        Price existing = Price.builder().id(7L).productId(35455L).brandId(1L).build();
+        Price changed = Price.builder().productId(1L).brandId(1L).build();
+        when(priceRepository.findById(7L)).thenReturn(Mono.just(existing));
+
+        assertThatExceptionOfType(InvalidPriceException.class)
+                .isThrownBy(() -> priceService.update(7L, changed).block());
+        verify(priceRepository, never()).save(any());
+    }
+
+    @Test
+    public void updateMissingPriceShouldThrowException() {
+        when(priceRepository.findById(999L)).thenReturn(Mono.empty());
+
+        assertThatExceptionOfType(PriceNotFoundException.class)
+                .isThrownBy(() -> priceService.update(999L, Price.builder().productId(1L).brandId(1L).build()).block())
+                .withMessage("Price with ID 999 not found.");
     }
 
     @Test
@@ -130,6 +274,40 @@ public class PriceServiceTest {
                 .withMessage("Price with ID 999 not found.");
     }
 
+    @Test
+    public void findAllAfterIdReturnsSliceWithNextPage() {
+        List<Price> prices = List.of(
+                Price.builder().id(3L).build(), Price.builder().id(4L).build(), Price.builder().id(5L).build());
+        when(priceRepository.findAllAfter(2L, 3)).thenReturn(Flux.fromIterable(prices));
+
+        PriceSlice slice = priceService.findAll(2L, 2, false).block();
+
+        assertThat(slice.getContent()).extracting(Price::getId).containsExactly(3L, 4L);
+        assertThat(slice.isHasNext()).isTrue();
+        assertThat(slice.getLastId()).isEqualTo(4L);
+        assertThat(slice.getTotal()).isNull();
+        verify(priceRepository, never()).count();
+    }
+
+    @Test
+    public void findAllFirstSliceWithTotal() {
+        when(priceRepository.findAllAfter(0L, 21)).thenReturn(Flux.just(Price.builder().id(1L).build()));
+        when(priceRepository.count()).thenReturn(Mono.just(1L));
+
+        PriceSlice slice = priceService.findAll(null, 20, true).block();
+
+        assertThat(slice.getContent()).hasSize(1);
+        assertThat(slice.isHasNext()).isFalse();
+        assertThat(slice.getTotal()).isEqualTo(1L);
+    }
+
+    @Test
+    public void exportAllStreamsEveryPrice() {
+        when(priceRepository.findAll()).thenReturn(Flux.just(Price.builder().id(1L).build(), Price.builder().id(2L).build()));
+
+        assertThat(priceService.exportAll().collectList().block()).extracting(Price::getId).containsExactly(1L, 2L);
+    }
+
     @Test
     public void findAllByPageable() {
         Pageable pageable = Pageable.ofSize(1).withPage(0);
@@ -151,13 +329,286 @@ public class PriceServiceTest {
         long brandId = 1L;
         LocalDateTime date = LocalDateTime.now();
 
-        when(priceRepository.getCurrentPriceByProductAndBrand(productId, brandId, date))
-                .thenReturn(Mono.empty());
-        when(cacheManager.getCache("currentPrices")).thenReturn(cache);
+        when(priceRepository.findAllByProductIdAndBrandId(productId, brandId))
+                .thenReturn(Flux.empty());
+
+        assertThatExceptionOfType(PriceNotFoundException.class)
+                .isThrownBy(
+                        () -> priceService.getCurrentPrice(productId, brandId, date).block())
+                .withMessage("No price found for the given product and brand.");
+    }
+
+    @Test
+    public void getCurrentPriceFromIndexWhenReady() {
+        long productId = 35455L;
+        long brandId = 1L;
+        LocalDateTime date = LocalDateTime.now();
+        CurrentPrice currentPrice = CurrentPrice.builder().productId(productId).brandId(brandId).build();
+
+        when(priceIntervalIndex.isReady()).thenReturn(true);
+        when(priceIntervalIndex.find(productId, brandId, date)).thenReturn(currentPrice);
+
+        assertThat(priceService.getCurrentPrice(productId, brandId, date).block()).isEqualTo(currentPrice);
+        verifyNoInteractions(priceRepository, priceTimelineCache);
+    }
+
+    @Test
+    public void getCurrentPriceNotFoundInIndex() {
+        long productId = 123L;
+        long brandId = 1L;
+        LocalDateTime date = LocalDateTime.now();
+
+        when(priceIntervalIndex.isReady()).thenReturn(true);
 
         assertThatExceptionOfType(PriceNotFoundException.class)
                 .isThrownBy(
                         () -> priceService.getCurrentPrice(productId, brandId, date).block())
                 .withMessage("No price found for the given product and brand.");
+        verifyNoInteractions(priceRepository, priceTimelineCache);
+    }
+
+    @Test
+    public void getCurrentPriceLoadsTimelineOnceAndResolvesPriority() {
+        long productId = 35455L;
+        long brandId = 1L;
+        Price base = Price.builder()
+                .id(1L)
+                .brandId(brandId)
+                .startDate(LocalDateTime.of(2020, 6, 14, 0, 0))
+                .endDate(LocalDateTime.of(2020, 12, 31, 23, 59, 59))
+                .priceList(1L)
+                .productId(productId)
+                .priority(0)
+                .price(BigDecimal.valueOf(35.50))
+                .curr("EUR")
+                .build();
+        Price promotion = Price.builder()
+                .id(2L)
+                .brandId(brandId)
+                .startDate(LocalDateTime.of(2020, 6, 14, 15, 0))
+                .endDate(LocalDateTime.of(2020, 6, 14, 18, 30))
+                .priceList(2L)
+                .productId(productId)
+                .priority(1)
+                .price(BigDecimal.valueOf(25.45))
+                .curr("EUR")
+                .build();
+
+        when(priceRepository.findAllByProductIdAndBrandId(productId, brandId))
+                .thenReturn(Flux.just(base, promotion));
+
+        assertThat(priceService.getCurrentPrice(productId, brandId, LocalDateTime.of(2020, 6, 14, 10, 0))
+                .block().getPriceList()).isEqualTo(1L);
+        assertThat(priceService.getCurrentPrice(productId, brandId, LocalDateTime.of(2020, 6, 14, 16, 0))
+                .block().getPriceList()).isEqualTo(2L);
+        assertThat(priceService.getCurrentPrice(productId, brandId, LocalDateTime.of(2020, 6, 14, 21, 0))
+                .block().getPriceList()).isEqualTo(1L);
+        verify(priceRepository, times(1)).findAllByProductIdAndBrandId(productId, brandId);
+    }
+
+    @Test
+    public void getCurrentPricesLoadsUncachedKeysInOneQuery() {
+        LocalDateTime date = LocalDateTime.of(2020, 6, 14, 10, 0);
+        Price price = Price.builder()
+                .id(1L)
+                .brandId(1L)
+                .startDate(LocalDateTime.of(2020, 6, 14, 0, 0))
+                .endDate(LocalDateTime.of(2020, 12, 31, 23, 59, 59))
+                .priceList(1L)
+                .productId(35455L)
+                .priority(0)
+                .price(BigDecimal.valueOf(35.50))
+                .curr("EUR")
+                .build();
+        List<PriceLookup> lookups = List.of(
+                PriceLookup.builder().productId(35455L).brandId(1L).date(date).build(),
+                PriceLookup.builder().productId(123L).brandId(1L).date(date).build(),
+                PriceLookup.builder().productId(35455L).brandId(1L).date(date.minusYears(1)).build());
+        Set<PriceKey> keys = Set.of(new PriceKey(35455L, 1L), new PriceKey(123L, 1L));
+
+        when(priceRepository.findAllByProductIdAndBrandIdIn(keys)).thenReturn(Flux.just(price));
+
+        List<CurrentPriceResult> results = priceService.getCurrentPrices(lookups).collectList().block();
+
+        assertThat(results).extracting(CurrentPriceResult::getStatus).containsExactly(
+                CurrentPriceResult.Status.FOUND, CurrentPriceResult.Status.NOT_FOUND, CurrentPriceResult.Status.NOT_FOUND);
+        assertThat(results.get(0).getPrice().getPriceList()).isEqualTo(1L);
+        assertThat(results.get(1).getProductId()).isEqualTo(123L);
+
+        priceService.getCurrentPrices(lookups.subList(0, 1)).collectList().block();
+        verify(priceRepository, times(1)).findAllByProductIdAndBrandIdIn(keys);
+    }
+
+    @Test
+    public void getCurrentPriceRejectsKeysMissingFromFilterWithoutLoading() {
+        priceKeyFilter.load(List.of(new PriceKey(35455L, 1L)));
+
+        assertThatExceptionOfType(PriceNotFoundException.class)
+                .isThrownBy(() -> priceService.getCurrentPrice(123L, 1L, LocalDateTime.now()).block())
+                .satisfies(ex -> assertThat(ex.getStackTrace()).isEmpty());
+        verifyNoInteractions(priceRepository);
+    }
+
+    @Test
+    public void getCurrentPricesOnlyLoadsKeysInFilter() {
+        LocalDateTime date = LocalDateTime.of(2020, 6, 14, 10, 0);
+        priceKeyFilter.load(List.of(new PriceKey(35455L, 1L)));
+        Set<PriceKey> keys = Set.of(new PriceKey(35455L, 1L));
+        when(priceRepository.findAllByProductIdAndBrandIdIn(keys)).thenReturn(Flux.empty());
+
+        List<CurrentPriceResult> results = priceService.getCurrentPrices(List.of(
+                PriceLookup.builder().productId(35455L).brandId(1L).date(date).build(),
+                PriceLookup.builder().productId(123L).brandId(1L).date(date).build())).collectList().block();
+
+        assertThat(results).extracting(CurrentPriceResult::getStatus).containsOnly(CurrentPriceResult.Status.NOT_FOUND);
+        verify(priceRepository).findAllByProductIdAndBrandIdIn(keys);
+    }
+
+    @Test
+    public void getCurrentPriceIntervalReturnsNextBoundary() {
+        long productId = 35455L;
+        long brandId = 1L;
+        Price base = Price.builder()
+                .id(1L)
+                .brandId(brandId)
+                .startDate(LocalDateTime.of(2020, 6, 14, 0, 0))
+                .endDate(LocalDateTime.of(2020, 12, 31, 23, 59, 59))
+                .priceList(1L)
+                .productId(productId)
+                .priority(0)
+                .price(BigDecimal.valueOf(35.50))
+                .curr("EUR")
+                .build();
+        when(priceRepository.findAllByProductIdAndBrandId(productId, brandId)).thenReturn(Flux.just(base));
+
+        CurrentPriceInterval interval =
+                priceService.getCurrentPriceInterval(productId, brandId, LocalDateTime.of(2020, 7, 1, 0, 0)).block();
+
+        assertThat(interval.getPrice().getPriceList()).isEqualTo(1L);
+        assertThat(interval.getValidUntil()).isEqualTo(LocalDateTime.of(2020, 12, 31, 23, 59, 59, 1_000));
+        assertThatExceptionOfType(PriceNotFoundException.class).isThrownBy(() ->
+                priceService.getCurrentPriceInterval(productId, brandId, LocalDateTime.of(2021, 7, 1, 0, 0)).block());
+    }
+
+    @Test
+    public void getPriceTimelineQueriesOnlyTheRequestedRange() {
+        long productId = 35455L;
+        long brandId = 1L;
+        LocalDateTime from = LocalDateTime.of(2020, 6, 14, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2020, 6, 14, 23, 59, 59);
+        Price base = Price.builder()
+                .id(1L)
+                .brandId(brandId)
+                .startDate(LocalDateTime.of(2020, 6, 14, 0, 0))
+                .endDate(LocalDateTime.of(2020, 12, 31, 23, 59, 59))
+                .priceList(1L)
+                .productId(productId)
+                .priority(0)
+                .price(BigDecimal.valueOf(35.50))
+                .curr("EUR")
+                .build();
+        Price promotion = Price.builder()
+                .id(2L)
+                .brandId(brandId)
+                .startDate(LocalDateTime.of(2020, 6, 14, 15, 0))
+                .endDate(LocalDateTime.of(2020, 6, 14, 18, 30))
+                .priceList(2L)
+                .productId(productId)
+                .priority(1)
+                .price(BigDecimal.valueOf(25.45))
+                .curr("EUR")
+                .build();
+        when(priceRepository.findAllByProductIdAndBrandIdBetween(productId, brandId, from, to))
+                .thenReturn(Flux.just(base, promotion));
+
+        List<PriceSegment> segments = priceService.getPriceTimeline(productId, brandId, from, to).collectList().block();
+
+        assertThat(segments).extracting(segment -> segment.getPrice().getPriceList()).containsExactly(1L, 2L, 1L);
+        assertThat(segments.get(2).getEndDate()).isEqualTo(to);
+        verify(priceRepository, never()).findAllByProductIdAndBrandId(productId, brandId);
+    }
+
+    @Test
+    public void getCurrentPriceLoadsWindowAroundDateWhenConfigured() {
+        long productId = 35455L;
+        long brandId = 1L;
+        PriceTimelineCache windowedCache = new PriceTimelineCache(
+                PriceTimelineCacheSettings.builder()
+                        .maximumWeight(100)
+                        .maximumTtl(Duration.ofMinutes(10))
+                        .loadWindow(Duration.ofDays(7))
+                        .build(),
+                new SimpleMeterRegistry());
+        PriceService windowedService = new PriceService(
+                priceRepository, priceManager, windowedCache, cacheEvictionService, priceIntervalIndex, priceKeyFilter,
+                priceWriteSequencer, priceCreateBatcher);
+        Price base = Price.builder()
+                .id(1L)
+                .brandId(brandId)
+                .startDate(LocalDateTime.of(2020, 6, 14, 0, 0))
+                .endDate(LocalDateTime.of(2020, 12, 31, 23, 59, 59))
+                .priceList(1L)
+                .productId(productId)
+                .priority(0)
+                .price(BigDecimal.valueOf(35.50))
+                .curr("EUR")
+                .build();
+        when(priceRepository.findAllByProductIdAndBrandIdBetween(any(), any(), any(), any()))
+                .thenReturn(Flux.just(base));
+
+        windowedService.getCurrentPrice(productId, brandId, LocalDateTime.of(2020, 7, 1, 0, 0)).block();
+        windowedService.getCurrentPrice(productId, brandId, LocalDateTime.of(2020, 7, 5, 0, 0)).block();
+
+        verify(priceRepository, times(1)).findAllByProductIdAndBrandIdBetween(
+                productId, brandId, LocalDateTime.of(2020, 6, 24, 0, 0), LocalDateTime.of(2020, 7, 8, 0, 0));
+
+        CurrentPrice later = windowedService.getCurrentPrice(productId, brandId, LocalDateTime.of(2020, 9, 1, 0, 0)).block();
+
+        assertThat(later.getPriceList()).isEqualTo(1L);
+        verify(priceRepository, times(2)).findAllByProductIdAndBrandIdBetween(any(), any(), any(), any());
+        verify(priceRepository, never()).findAllByProductIdAndBrandId(productId, brandId);
+    }
+
+    @Test
+    public void concurrentOverlappingCreatesForOneKeySaveOnlyOne() {
+        List<Price> stored = new CopyOnWriteArrayList<>();
+        when(priceRepository.findOverlapping(any(), any(), any(), any())).thenAnswer(invocation -> Flux.defer(() ->
+                Flux.fromIterable(stored).filter(existing ->
+                        existing.getProductId().equals(invocation.getArgument(0))
+                                && existing.getBrandId().equals(invocation.getArgument(1)))));
+        when(priceRepository.save(any())).thenAnswer(invocation -> {
+            Price price = invocation.getArgument(0);
+            return Mono.delay(Duration.ofMillis(1)).map(tick -> {
+                stored.add(price);
+                return price;
+            });
+        });
+        PriceService service = new PriceService(
+                priceRepository, new PriceManagerService(), priceTimelineCache, cacheEvictionService,
+                priceIntervalIndex, priceKeyFilter, priceWriteSequencer, priceCreateBatcher);
+
+        List<Object> outcomes = Flux.range(0, 400)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> service.create(Price.builder()
+                                .brandId(1L)
+                                .startDate(LocalDateTime.of(2020, 6, 14, 0, 0))
+                                .endDate(LocalDateTime.of(2020, 12, 31, 23, 59, 59))
+                                .priceList((long) i)
+                                .productId(i % 4 == 0 ? 35455L : 100_000L + i)
+                                .priority(0)
+                                .price(BigDecimal.TEN)
+                                .curr("EUR")
+                                .build())
+                        .<Object>map(saved -> saved)
+                        .onErrorResume(PriceOverlappingException.class, Mono::just))
+                .sequential()
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertThat(outcomes).hasSize(400);
+        assertThat(stored).filteredOn(price -> price.getProductId() == 35455L).hasSize(1);
+        assertThat(stored).hasSize(301);
+        assertThat(outcomes).filteredOn(PriceOverlappingException.class::isInstance).hasSize(99);
     }
 }
@@ -0,0 +1,71 @@
+package com.bcnc.payments.application.batch;
+
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceOverlappingException;
+import com.bcnc.payments.port.in.rest.RestPricePort;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+        "prices.write.batching.enabled=true",
+        "prices.write.batching.linger=50ms"})
+@DirtiesContext
+public class PriceCreateBatcherIT {
+
+    @Autowired
+    private RestPricePort restPricePort;
+
+    @Autowired
+    private DatabasePricePort databasePricePort;
+
+    private static Price price(int day, int priority) {
+        return Price.builder()
+                .brandId(1L)
+                .startDate(LocalDateTime.of(2034, 1, day, 0, 0))
+                .endDate(LocalDateTime.of(2034, 1, day, 23, 59, 59))
+                .priceList(1L)
+                .productId(35455L)
+                .priority(priority)
+                .price(BigDecimal.valueOf(day))
+                .curr("JPY")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Concurrent creates must be inserted together and each get its own generated id")
+    public void concurrentCreatesGetTheirOwnIds() {
+        List<Mono<Object>> creates = Flux.range(1, 20)
+                .map(day -> restPricePort.create(price(day, day)).<Object>map(saved -> saved).onErrorResume(Mono::just))
+                .collectList()
+                .block();
+        creates.add(restPricePort.create(price(5, 99)).<Object>map(saved -> saved).onErrorResume(Mono::just));
+
+        List<Object> outcomes = Flux.mergeSequential(creates).collectList().block(Duration.ofSeconds(10));
+
+        assertThat(outcomes.subList(0, 20)).allSatisfy(outcome -> assertThat(outcome).isInstanceOf(Price.class));
+        assertThat(outcomes.get(20)).isInstanceOf(PriceOverlappingException.class);
+        List<Price> saved = outcomes.subList(0, 20).stream().map(Price.class::cast).toList();
+        assertThat(saved).extracting(Price::getId).doesNotContainNull().doesNotHaveDuplicates();
+        for (Price price : saved) {
+            Price stored = databasePricePort.findById(price.getId()).block();
+            assertThat(stored.getPriority()).isEqualTo(price.getPriority());
+            assertThat(stored.getStartDate()).isEqualTo(price.getStartDate());
+        }
+    }
+}
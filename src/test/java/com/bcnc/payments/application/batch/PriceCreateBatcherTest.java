@@ -0,0 +1,220 @@
+package com.bcnc.payments.application.batch;
+
+import com.bcnc.payments.application.cache.CacheEvictionService;
+import com.bcnc.payments.application.cache.PriceTimelineCache;
+import com.bcnc.payments.application.cache.PriceTimelineCacheSettings;
+import com.bcnc.payments.application.invalidation.PriceInvalidationBroadcaster;
+import com.bcnc.payments.application.sequencer.PriceWriteSequencer;
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceIntervalIndex;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceKeyFilter;
+import com.bcnc.payments.domain.price.PriceOverlappingException;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PriceCreateBatcherTest {
+
+    private final DatabasePricePort priceRepository = mock(DatabasePricePort.class);
+    private final PriceIntervalIndex priceIntervalIndex = mock(PriceIntervalIndex.class);
+    private final PriceKeyFilter priceKeyFilter = new PriceKeyFilter();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PriceWriteSequencer priceWriteSequencer = new PriceWriteSequencer(16);
+    private final AtomicLong ids = new AtomicLong();
+    private PriceCreateBatcher batcher;
+
+    private static Price price(long productId, long priceList, int startDay, int endDay) {
+        return Price.builder()
+                .brandId(1L)
+                .startDate(LocalDateTime.of(2020, 6, startDay, 0, 0))
+                .endDate(LocalDateTime.of(2020, 6, endDay, 0, 0))
+                .priceList(priceList)
+                .productId(productId)
+                .priority(0)
+                .price(BigDecimal.TEN)
+                .curr("EUR")
+                .build();
+    }
+
+    private Price withId(Price price) {
+        return Price.builder()
+                .id(ids.incrementAndGet())
+                .brandId(price.getBrandId())
+                .startDate(price.getStartDate())
+                .endDate(price.getEndDate())
+                .priceList(price.getPriceList())
+                .productId(price.getProductId())
+                .priority(price.getPriority())
+                .price(price.getPrice())
+                .curr(price.getCurr())
+                .build();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        PriceTimelineCache cache = new PriceTimelineCache(
+                PriceTimelineCacheSettings.builder().maximumWeight(100).maximumTtl(Duration.ofMinutes(10)).build(),
+                meterRegistry);
+        CacheEvictionService cacheEvictionService =
+                new CacheEvictionService(cache, mock(PriceInvalidationBroadcaster.class));
+        batcher = new PriceCreateBatcher(priceRepository, cacheEvictionService, priceIntervalIndex, priceKeyFilter,
+                priceWriteSequencer, meterRegistry, true, 10, Duration.ofMillis(50));
+        when(priceRepository.createAll(anyList())).thenAnswer(invocation -> {
+            List<Price> prices = invocation.getArgument(0);
+            return Flux.fromIterable(prices).map(this::withId);
+        });
+        when(priceRepository.save(any())).thenAnswer(invocation -> Mono.just(withId(invocation.getArgument(0))));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        batcher.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void concurrentCreatesAreValidatedAndInsertedTogether() {
+        when(priceRepository.findAllByProductIdAndBrandIdIn(anyCollection()))
+                .thenReturn(Flux.just(withId(price(35455L, 1L, 1, 10))));
+
+        List<Object> outcomes = Flux.mergeSequential(
+                        create(price(35455L, 2L, 10, 20)),
+                        create(price(35455L, 3L, 5, 6)),
+                        create(price(35455L, 4L, 15, 25)),
+                        create(price(35455L, 2L, 20, 30)),
+                        create(price(1L, 1L, 1, 10)))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(outcomes).hasSize(5);
+        assertThat(outcomes.get(0)).isInstanceOfSatisfying(Price.class, saved -> assertThat(saved.getId()).isNotNull());
+        assertThat(outcomes.get(1)).isInstanceOf(PriceOverlappingException.class);
+        assertThat(outcomes.get(2)).isInstanceOf(PriceOverlappingException.class);
+        assertThat(outcomes.get(3)).isInstanceOf(DuplicateKeyException.class);
+        assertThat(outcomes.get(4)).isInstanceOfSatisfying(Price.class, saved -> assertThat(saved.getProductId()).isEqualTo(1L));
+
+        ArgumentCaptor<List<Price>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(priceRepository, times(1)).createAll(inserted.capture());
+        verify(priceRepository, times(1)).findAllByProductIdAndBrandIdIn(anyCollection());
+        assertThat(inserted.getValue()).extracting(Price::getPriceList).containsExactly(2L, 1L);
+        assertThat(priceKeyFilter.mightContain(new PriceKey(1L, 1L))).isTrue();
+        assertThat(meterRegistry.get("prices.write.batch.size").summary().max()).isEqualTo(5);
+    }
+
+    @Test
+    public void failedBatchInsertFallsBackToSingleInserts() {
+        Price unknownProduct = price(99L, 1L, 1, 10);
+        when(priceRepository.findAllByProductIdAndBrandIdIn(anyCollection())).thenReturn(Flux.empty());
+        when(priceRepository.createAll(anyList())).thenReturn(Flux.error(new DataIntegrityViolationException("fk")));
+        when(priceRepository.save(unknownProduct)).thenReturn(Mono.error(new DataIntegrityViolationException("fk")));
+
+        List<Object> outcomes = Flux.mergeSequential(create(price(35455L, 1L, 1, 10)), create(unknownProduct))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(outcomes.get(0)).isInstanceOfSatisfying(Price.class, saved -> assertThat(saved.getId()).isNotNull());
+        assertThat(outcomes.get(1)).isInstanceOf(DataIntegrityViolationException.class);
+        verify(priceRepository, times(2)).save(any());
+    }
+
+    @Test
+    public void batchesAreBoundedByMaximumSize() {
+        when(priceRepository.findAllByProductIdAndBrandIdIn(anyCollection())).thenReturn(Flux.empty());
+
+        List<Object> outcomes = Flux.range(0, 25)
+                .flatMap(i -> create(price(1_000L + i, 1L, 1, 10)))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(outcomes).hasSize(25).allSatisfy(outcome -> assertThat(outcome).isInstanceOf(Price.class));
+        verify(priceRepository, times(3)).createAll(anyList());
+        assertThat(meterRegistry.get("prices.write.batch.size").summary().max()).isEqualTo(10);
+    }
+
+    @Test
+    public void flushWaitsForAnUpdateInFlightOnTheSameKey() {
+        Sinks.Empty<Void> releaseUpdate = Sinks.empty();
+        when(priceRepository.findAllByProductIdAndBrandIdIn(anyCollection()))
+                .thenReturn(Flux.just(withId(price(35455L, 1L, 1, 20))));
+        priceWriteSequencer.sequence(new PriceKey(35455L, 1L), () -> releaseUpdate.asMono()).subscribe();
+
+        AtomicReference<Object> outcome = new AtomicReference<>();
+        create(price(35455L, 2L, 10, 20)).subscribe(outcome::set);
+
+        // Well past the linger: the batch is due but must not read the prices the update is changing.
+        Mono.delay(Duration.ofMillis(200)).block();
+        assertThat(outcome.get()).isNull();
+        verify(priceRepository, times(0)).findAllByProductIdAndBrandIdIn(anyCollection());
+
+        releaseUpdate.tryEmitEmpty();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> outcome.get() != null);
+        assertThat(outcome.get()).isInstanceOf(PriceOverlappingException.class);
+    }
+
+    @Test
+    public void failureAfterSomeCreatesCompletedOnlyFailsTheCallersStillWaiting() {
+        // A sink that was already signalled hands a late error to the operator error hook, without a value.
+        List<Throwable> late = new CopyOnWriteArrayList<>();
+        Hooks.onOperatorError("late-signals", (ex, value) -> {
+            if (value == null) {
+                late.add(ex);
+            }
+            return ex;
+        });
+        try {
+            when(priceRepository.findAllByProductIdAndBrandIdIn(anyCollection())).thenReturn(Flux.empty());
+            doThrow(new IllegalStateException("index")).when(priceIntervalIndex)
+                    .add(argThat(price -> price.getProductId() == 2L));
+
+            List<Object> outcomes = Flux.mergeSequential(
+                            create(price(1L, 1L, 1, 10)),
+                            create(price(1L, 1L, 1, 10)),
+                            create(price(2L, 1L, 1, 10)))
+                    .collectList()
+                    .block(Duration.ofSeconds(5));
+
+            assertThat(outcomes.get(0)).isInstanceOf(Price.class);
+            assertThat(outcomes.get(1)).isInstanceOf(PriceOverlappingException.class);
+            assertThat(outcomes.get(2)).isInstanceOf(IllegalStateException.class);
+            assertThat(late).isEmpty();
+        } finally {
+            Hooks.resetOnOperatorError("late-signals");
+        }
+    }
+
+    private Mono<Object> create(Price price) {
+        return batcher.create(price).<Object>map(saved -> saved).onErrorResume(Mono::just);
+    }
+}
@@ -0,0 +1,45 @@
+package com.bcnc.payments.application.cache;
+
+import com.bcnc.payments.application.invalidation.PriceInvalidationBroadcaster;
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceKey;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class CacheEvictionServiceTest {
+
+    private final PriceTimelineCache priceTimelineCache = mock(PriceTimelineCache.class);
+    private final PriceInvalidationBroadcaster broadcaster = mock(PriceInvalidationBroadcaster.class);
+    private final CacheEvictionService cacheEvictionService =
+            new CacheEvictionService(priceTimelineCache, broadcaster);
+    private final PriceKey key = new PriceKey(35455L, 1L);
+
+    @Test
+    public void timelineThatCannotBePatchedIsDroppedWithoutFailingTheWrite() {
+        Price saved = Price.builder()
+                .id(1L)
+                .brandId(1L)
+                .startDate(LocalDateTime.of(2020, 6, 14, 0, 0))
+                .endDate(LocalDateTime.of(2020, 12, 31, 23, 59, 59))
+                .priceList(1L)
+                .productId(35455L)
+                .priority(0)
+                .price(BigDecimal.TEN)
+                .curr("EUR")
+                .build();
+        doThrow(new IllegalStateException("patch")).when(priceTimelineCache).update(eq(key), any());
+
+        cacheEvictionService.priceSaved(saved).block();
+
+        verify(priceTimelineCache).invalidate(key);
+        verify(broadcaster).broadcast(key);
+    }
+}
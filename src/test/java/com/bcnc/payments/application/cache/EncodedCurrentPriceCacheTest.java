@@ -0,0 +1,75 @@
+package com.bcnc.payments.application.cache;
+
+import com.bcnc.payments.domain.price.CurrentPrice;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EncodedCurrentPriceCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger encodings = new AtomicInteger();
+
+    private static CurrentPrice price() {
+        return CurrentPrice.builder().productId(35455L).brandId(1L).priceList(1L).price(BigDecimal.TEN).build();
+    }
+
+    private String encode(CurrentPrice price) {
+        encodings.incrementAndGet();
+        return price.getProductId() + ":" + price.getPrice();
+    }
+
+    @Test
+    public void encodesEachInstanceOnce() {
+        EncodedCurrentPriceCache<String> cache =
+                new EncodedCurrentPriceCache<>("test", true, 100, this::encode, meterRegistry);
+        CurrentPrice price = price();
+
+        String first = cache.get(price);
+        String second = cache.get(price);
+        cache.get(price());
+
+        assertThat(second).isSameAs(first);
+        assertThat(encodings.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void encodesEveryTimeWhenDisabled() {
+        EncodedCurrentPriceCache<String> cache =
+                new EncodedCurrentPriceCache<>("test", false, 100, this::encode, meterRegistry);
+        CurrentPrice price = price();
+
+        cache.get(price);
+        cache.get(price);
+
+        assertThat(encodings.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void metricsShareTheTagKeysOfTheCacheManagerCaches() {
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        // Spring Boot binds the caches of a CacheManager with these tags.
+        CaffeineCacheMetrics.monitor(prometheus, Caffeine.newBuilder().recordStats().build(),
+                CacheConstants.CURRENT_PRICES_CACHE,
+                Tags.of("cache.manager", "cacheManager", "name", CacheConstants.CURRENT_PRICES_CACHE));
+        EncodedCurrentPriceCache<String> cache =
+                new EncodedCurrentPriceCache<>("test", true, 100, this::encode, prometheus);
+
+        cache.get(price());
+
+        assertThat(prometheus.scrape())
+                .containsPattern("cache_gets_total\\{[^}]*cache=\"currentPrices\"")
+                .containsPattern("cache_gets_total\\{[^}]*cache=\"test\"[^}]*name=\"test\"[^}]*result=\"miss\"");
+    }
+}
@@ -0,0 +1,158 @@
+package com.bcnc.payments.application.cache;
+
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PriceBoundaryPrewarmerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 6, 14, 9, 59);
+
+    private final DatabasePricePort priceRepository = mock(DatabasePricePort.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    private final PriceTimelineCache cache =
+            new PriceTimelineCache(
+                    PriceTimelineCacheSettings.builder().maximumWeight(1000).maximumTtl(Duration.ofDays(1)).build(), clock, meterRegistry);
+    private VirtualTimeScheduler scheduler;
+    private PriceBoundaryPrewarmer prewarmer;
+
+    private static Price price(long id, LocalDateTime start, LocalDateTime end) {
+        return Price.builder()
+                .id(id)
+                .brandId(1L)
+                .startDate(start)
+                .endDate(end)
+                .priceList(id)
+                .productId(35455L)
+                .priority((int) id)
+                .price(BigDecimal.TEN)
+                .curr("EUR")
+                .build();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = VirtualTimeScheduler.create();
+        prewarmer = new PriceBoundaryPrewarmer(priceRepository, cache, meterRegistry,
+                Duration.ofSeconds(30), Duration.ofMinutes(2), clock, scheduler);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        prewarmer.stop();
+        scheduler.dispose();
+    }
+
+    @Test
+    public void prewarmStagesTimelinesAndSwapsThemAtTheBoundary() {
+        Price base = price(1L, NOW.minusDays(1), NOW.plusDays(1));
+        Price campaign = price(2L, NOW.plusMinutes(1), NOW.plusHours(1));
+        when(priceRepository.findWithBoundaryBetween(any(), any())).thenReturn(Flux.just(campaign));
+        when(priceRepository.findAllByProductIdAndBrandIdIn(anyList())).thenReturn(Flux.just(base, campaign));
+        PriceKey key = new PriceKey(35455L, 1L);
+
+        prewarmer.prewarm().block();
+
+        assertThat(cache.stagedSize()).isEqualTo(1);
+        assertThat(cache.getIfPresent(key)).isNull();
+
+        scheduler.advanceTimeBy(Duration.ofMinutes(1));
+
+        assertThat(cache.stagedSize()).isZero();
+        assertThat(cache.getIfPresent(key).find(NOW.plusMinutes(1)).getPriceList()).isEqualTo(2L);
+        assertThat(meterRegistry.get("prices.prewarm.swapped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("prices.prewarm.swap.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void firedSwapsAreNoLongerTracked() {
+        Price campaign = price(2L, NOW.plusMinutes(1), NOW.plusHours(1));
+        Price other = price(3L, NOW.plusMinutes(2), NOW.plusHours(1));
+        when(priceRepository.findWithBoundaryBetween(any(), any())).thenReturn(Flux.just(campaign, other));
+        when(priceRepository.findAllByProductIdAndBrandIdIn(anyList())).thenReturn(Flux.just(campaign, other));
+
+        prewarmer.prewarm().block();
+        assertThat(prewarmer.pendingSwaps()).isEqualTo(2);
+
+        scheduler.advanceTimeBy(Duration.ofMinutes(1));
+        assertThat(prewarmer.pendingSwaps()).isEqualTo(1);
+
+        scheduler.advanceTimeBy(Duration.ofMinutes(1));
+        assertThat(prewarmer.pendingSwaps()).isZero();
+    }
+
+    @Test
+    public void boundariesAreOnlyLoadedOncePerLookahead() {
+        Price campaign = price(2L, NOW.plusMinutes(1), NOW.plusHours(1));
+        when(priceRepository.findWithBoundaryBetween(any(), any())).thenReturn(Flux.just(campaign));
+        when(priceRepository.findAllByProductIdAndBrandIdIn(anyList())).thenReturn(Flux.just(campaign));
+
+        prewarmer.prewarm().block();
+        prewarmer.prewarm().block();
+
+        verify(priceRepository, times(1)).findAllByProductIdAndBrandIdIn(anyList());
+        assertThat(meterRegistry.get("prices.prewarm.staged").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void keysAddedToAScheduledBoundaryAreStillLoaded() {
+        Price campaign = price(2L, NOW.plusMinutes(1), NOW.plusHours(1));
+        Price other = Price.builder()
+                .id(3L)
+                .brandId(1L)
+                .startDate(NOW.plusMinutes(1))
+                .endDate(NOW.plusHours(1))
+                .priceList(1L)
+                .productId(35456L)
+                .priority(0)
+                .price(BigDecimal.TEN)
+                .curr("EUR")
+                .build();
+        when(priceRepository.findWithBoundaryBetween(any(), any()))
+                .thenReturn(Flux.just(campaign))
+                .thenReturn(Flux.just(campaign, other));
+        when(priceRepository.findAllByProductIdAndBrandIdIn(anyList()))
+                .thenReturn(Flux.just(campaign))
+                .thenReturn(Flux.just(other));
+
+        prewarmer.prewarm().block();
+        prewarmer.prewarm().block();
+
+        verify(priceRepository).findAllByProductIdAndBrandIdIn(List.of(new PriceKey(35455L, 1L)));
+        verify(priceRepository).findAllByProductIdAndBrandIdIn(List.of(new PriceKey(35456L, 1L)));
+        assertThat(cache.stagedSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void boundariesOutsideTheLookaheadAreIgnored() {
+        Price ending = price(2L, NOW.minusHours(1), NOW.plusHours(1));
+        when(priceRepository.findWithBoundaryBetween(any(), any())).thenReturn(Flux.just(ending));
+
+        prewarmer.prewarm().block();
+
+        assertThat(cache.stagedSize()).isZero();
+        verify(priceRepository, times(0)).findAllByProductIdAndBrandIdIn(anyList());
+    }
+}
@@ -0,0 +1,345 @@
+package com.bcnc.payments.application.cache;
+
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceTimeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class PriceTimelineCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PriceTimelineCache cache = new PriceTimelineCache(
+            PriceTimelineCacheSettings.builder().maximumWeight(3).maximumTtl(Duration.ofMinutes(10)).build(), meterRegistry);
+
+    private static PriceTimeline timeline(long productId, int intervals) {
+        List<Price> prices = new ArrayList<>();
+        for (int i = 0; i < intervals; i++) {
+            prices.add(Price.builder()
+                    .id((long) i)
+                    .brandId(1L)
+                    .startDate(LocalDateTime.of(2020, 1, 1, 0, 0).plusDays(i * 2L))
+                    .endDate(LocalDateTime.of(2020, 1, 1, 23, 59).plusDays(i * 2L))
+                    .priceList(1L)
+                    .productId(productId)
+                    .priority(0)
+                    .price(BigDecimal.TEN)
+                    .curr("EUR")
+                    .build());
+        }
+        return PriceTimeline.of(prices);
+    }
+
+    @Test
+    public void getLoadsOnlyOnMiss() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            cache.get(key, k -> Mono.fromSupplier(() -> {
+                loads.incrementAndGet();
+                return timeline(35455L, 1);
+            })).block();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("prices.cache.loads").tag("result", "success").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void emptyTimelinesAreCachedAsNegativeResults() {
+        PriceKey key = new PriceKey(123L, 1L);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.get(key, k -> Mono.fromSupplier(() -> {
+                loads.incrementAndGet();
+                return PriceTimeline.empty();
+            })).block();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getIfPresent(key).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void getAllCachesKeysWithoutPricesAsEmpty() {
+        PriceKey known = new PriceKey(35455L, 1L);
+        PriceKey unknown = new PriceKey(123L, 1L);
+
+        Map<PriceKey, PriceTimeline> timelines = cache.getAll(
+                List.of(known, unknown), keys -> Mono.just(Map.of(known, timeline(35455L, 1)))).block();
+
+        assertThat(timelines).containsKeys(known, unknown);
+        assertThat(cache.getIfPresent(unknown).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void failedLoadsAreRecordedAndNotCached() {
+        PriceKey key = new PriceKey(35455L, 1L);
+
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> cache.get(key, k -> Mono.error(new IllegalStateException("boom"))).block());
+
+        assertThat(cache.getIfPresent(key)).isNull();
+        assertThat(meterRegistry.get("prices.cache.loads").tag("result", "failure").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void cacheIsBoundedByNumberOfIntervals() {
+        cache.get(new PriceKey(1L, 1L), k -> Mono.just(timeline(1L, 2))).block();
+        cache.get(new PriceKey(2L, 1L), k -> Mono.just(timeline(2L, 2))).block();
+        cache.nativeCache().cleanUp();
+
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    public void concurrentMissesShareASingleLoad() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<PriceTimeline> result = Sinks.one();
+
+        CompletableFuture<PriceTimeline> first = cache.get(key, k -> {
+            loads.incrementAndGet();
+            return result.asMono();
+        }).toFuture();
+        CompletableFuture<PriceTimeline> second = cache.get(key, k -> {
+            loads.incrementAndGet();
+            return result.asMono();
+        }).toFuture();
+
+        PriceTimeline timeline = timeline(35455L, 1);
+        result.tryEmitValue(timeline);
+
+        assertThat(first.join()).isSameAs(timeline);
+        assertThat(second.join()).isSameAs(timeline);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("prices.cache.loads.coalesced").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void stagedTimelinesAreOnlyVisibleOncePromoted() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        PriceKey removed = new PriceKey(123L, 1L);
+        PriceTimeline staged = timeline(35455L, 1);
+        cache.get(removed, k -> Mono.just(timeline(123L, 1))).block();
+
+        cache.stage(key, staged, cache.version(key));
+        cache.stage(removed, PriceTimeline.empty(), cache.version(removed));
+
+        assertThat(cache.getIfPresent(key)).isNull();
+        assertThat(cache.stagedSize()).isEqualTo(2);
+
+        assertThat(cache.promote(List.of(key, removed, new PriceKey(1L, 1L)))).isEqualTo(2);
+        assertThat(cache.getIfPresent(key)).isSameAs(staged);
+        assertThat(cache.getIfPresent(removed)).isNull();
+        assertThat(cache.stagedSize()).isZero();
+    }
+
+    @Test
+    public void invalidateDiscardsStagedTimelines() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        cache.stage(key, timeline(35455L, 1), cache.version(key));
+
+        cache.invalidate(key);
+
+        assertThat(cache.promote(List.of(key))).isZero();
+        assertThat(cache.getIfPresent(key)).isNull();
+    }
+
+    @Test
+    public void timelinesStagedBeforeAWriteAreNotPromoted() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        long version = cache.version(key);
+
+        cache.invalidate(key);
+        cache.stage(key, timeline(35455L, 1), version);
+
+        assertThat(cache.promote(List.of(key))).isEqualTo(1);
+        assertThat(cache.getIfPresent(key)).isNull();
+    }
+
+    @Test
+    public void loadRacingAWriteIsNotCached() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        PriceTimeline before = timeline(35455L, 1);
+        PriceTimeline after = timeline(35455L, 2);
+        Sinks.One<PriceTimeline> slowLoad = Sinks.one();
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<PriceTimeline> racing = cache.get(key, k -> {
+            loads.incrementAndGet();
+            return slowLoad.asMono();
+        }).toFuture();
+        cache.invalidate(key);
+        PriceTimeline reloaded = cache.get(key, k -> {
+            loads.incrementAndGet();
+            return Mono.just(after);
+        }).block();
+        slowLoad.tryEmitValue(before);
+
+        assertThat(racing.join()).isSameAs(before);
+        assertThat(reloaded).isSameAs(after);
+        assertThat(cache.getIfPresent(key)).isSameAs(after);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("prices.cache.loads.discarded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void updatePatchesFreshTimelinesInPlace() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        PriceKey missing = new PriceKey(123L, 1L);
+        PriceTimeline timeline = timeline(35455L, 2);
+        cache.get(key, k -> Mono.just(timeline)).block();
+
+        cache.update(key, cached -> cached.without(0L));
+        cache.update(missing, cached -> cached.without(0L));
+
+        assertThat(cache.getIfPresent(key).getPrices()).extracting(Price::getId).containsExactly(1L);
+        assertThat(cache.getIfPresent(missing)).isNull();
+        assertThat(meterRegistry.get("prices.cache.patches").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("prices.cache.invalidations").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void oldEntriesAreServedWhileReloadedInBackground() {
+        MutableClock clock = new MutableClock();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PriceTimelineCache refreshing = new PriceTimelineCache(
+                PriceTimelineCacheSettings.builder()
+                        .maximumWeight(100)
+                        .maximumTtl(Duration.ofMinutes(10))
+                        .refreshAfter(Duration.ofMinutes(1))
+                        .build(),
+                clock, registry);
+        PriceKey key = new PriceKey(35455L, 1L);
+        PriceTimeline first = timeline(35455L, 1);
+        PriceTimeline second = timeline(35455L, 2);
+        refreshing.get(key, k -> Mono.just(first)).block();
+
+        clock.advance(Duration.ofMinutes(2));
+
+        assertThat(refreshing.get(key, k -> Mono.just(second)).block()).isSameAs(first);
+        assertThat(refreshing.getIfPresent(key)).isSameAs(second);
+        assertThat(registry.get("prices.cache.refreshes").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void expiredEntriesAreServedStaleWhenReloadFails() {
+        MutableClock clock = new MutableClock();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PriceTimelineCache stale = staleCache(clock, registry, Duration.ZERO);
+        PriceKey key = new PriceKey(35455L, 1L);
+        PriceTimeline timeline = timeline(35455L, 1);
+        stale.get(key, k -> Mono.just(timeline)).block();
+
+        clock.advance(Duration.ofMinutes(11));
+
+        assertThat(stale.getIfPresent(key)).isNull();
+        assertThat(stale.get(key, k -> Mono.error(new IllegalStateException("boom"))).block()).isSameAs(timeline);
+        assertThat(stale.getAll(List.of(key), keys -> Mono.error(new IllegalStateException("boom"))).block())
+                .containsEntry(key, timeline);
+        assertThat(registry.get("prices.cache.stale.served").tag("reason", "error").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void expiredEntriesAreServedStaleWhenReloadIsSlow() {
+        MutableClock clock = new MutableClock();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PriceTimelineCache stale = staleCache(clock, registry, Duration.ofMillis(50));
+        PriceKey key = new PriceKey(35455L, 1L);
+        PriceTimeline first = timeline(35455L, 1);
+        PriceTimeline second = timeline(35455L, 2);
+        Sinks.One<PriceTimeline> reload = Sinks.one();
+        stale.get(key, k -> Mono.just(first)).block();
+
+        clock.advance(Duration.ofMinutes(11));
+
+        assertThat(stale.get(key, k -> reload.asMono()).block()).isSameAs(first);
+        assertThat(registry.get("prices.cache.stale.served").tag("reason", "timeout").counter().count())
+                .isEqualTo(1);
+
+        reload.tryEmitValue(second);
+
+        assertThat(stale.getIfPresent(key)).isSameAs(second);
+    }
+
+    private static PriceTimelineCache staleCache(Clock clock, SimpleMeterRegistry registry, Duration loadTimeout) {
+        return new PriceTimelineCache(
+                PriceTimelineCacheSettings.builder()
+                        .maximumWeight(100)
+                        .maximumTtl(Duration.ofMinutes(10))
+                        .staleWindow(Duration.ofMinutes(5))
+                        .loadTimeout(loadTimeout)
+                        .build(),
+                clock, registry);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2030-01-01T00:00:00Z");
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Test
+    public void getReplacesTimelinesThatAreNotUsable() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        LocalDateTime january = LocalDateTime.of(2020, 1, 15, 0, 0);
+        LocalDateTime june = LocalDateTime.of(2020, 6, 15, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        PriceTimeline first = cache.get(key, timeline -> timeline.covers(january), k -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return PriceTimeline.of(List.of(), january.minusDays(1), january.plusDays(1));
+        })).block();
+        cache.get(key, timeline -> timeline.covers(january), k -> Mono.error(new IllegalStateException())).block();
+        PriceTimeline second = cache.get(key, timeline -> timeline.covers(june), k -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return PriceTimeline.of(List.of(), june.minusDays(1), june.plusDays(1));
+        })).block();
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(first.covers(january)).isTrue();
+        assertThat(second.covers(june)).isTrue();
+        assertThat(cache.getIfPresent(key)).isSameAs(second);
+    }
+}
@@ -0,0 +1,74 @@
+package com.bcnc.payments.application.cache;
+
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceTimeline;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PriceTimelineExpiryTest {
+
+    private final PriceTimeline timeline = PriceTimeline.of(List.of(
+            price(1L, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 0),
+            price(2L, "2020-06-14T15:00:00", "2020-06-14T18:30:00", 1)));
+
+    private static Price price(long id, String start, String end, int priority) {
+        return Price.builder()
+                .id(id)
+                .brandId(1L)
+                .startDate(LocalDateTime.parse(start))
+                .endDate(LocalDateTime.parse(end))
+                .priceList(id)
+                .productId(35455L)
+                .priority(priority)
+                .price(BigDecimal.valueOf(35.50))
+                .curr("EUR")
+                .build();
+    }
+
+    private static PriceTimelineExpiry expiryAt(String now) {
+        Clock clock = Clock.fixed(LocalDateTime.parse(now).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        return new PriceTimelineExpiry(Duration.ofDays(1), Duration.ofSeconds(30), Duration.ofSeconds(5), Duration.ofMinutes(5), clock);
+    }
+
+    @Test
+    public void expiresShortlyAfterNextBoundaryBeforeMaximumTtl() {
+        assertThat(expiryAt("2020-06-14T14:00:00").timeToLive(timeline)).isEqualTo(Duration.ofHours(1).plusSeconds(5));
+    }
+
+    @Test
+    public void stablePricesUseMaximumTtl() {
+        assertThat(expiryAt("2020-07-01T00:00:00").timeToLive(timeline)).isEqualTo(Duration.ofDays(1));
+        assertThat(expiryAt("2021-06-01T00:00:00").timeToLive(timeline)).isEqualTo(Duration.ofDays(1));
+    }
+
+    @Test
+    public void emptyTimelinesUseNegativeTtl() {
+        assertThat(expiryAt("2020-07-01T00:00:00").timeToLive(PriceTimeline.empty())).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    public void entriesAreKeptForTheStaleWindowAfterTheyStopBeingFresh() {
+        PriceTimelineExpiry expiry = expiryAt("2020-06-14T14:00:00");
+        CachedTimeline entry = expiry.wrap(timeline);
+
+        assertThat(entry.isFresh(entry.loadedAt() + Duration.ofHours(1).toMillis())).isTrue();
+        assertThat(entry.isFresh(entry.loadedAt() + Duration.ofHours(1).plusSeconds(5).toMillis())).isFalse();
+        assertThat(expiry.expireAfterCreate(null, entry, 0L))
+                .isEqualTo(Duration.ofHours(1).plusSeconds(5).plusMinutes(5).toNanos());
+    }
+
+    @Test
+    public void readsDoNotExtendExpiry() {
+        PriceTimelineExpiry expiry = expiryAt("2020-06-14T14:00:00");
+
+        assertThat(expiry.expireAfterRead(null, expiry.wrap(timeline), 0L, 42L)).isEqualTo(42L);
+    }
+}
@@ -1,6 +1,7 @@
 package com.bcnc.payments.application.config;
 
 import com.bcnc.payments.domain.error.ErrorResponse;
+import com.bcnc.payments.domain.price.InvalidPriceException;
 import com.bcnc.payments.domain.price.PriceNotFoundException;
 import com.bcnc.payments.domain.price.PriceOverlappingException;
 import org.junit.jupiter.api.Test;
@@ -54,6 +55,17 @@ public class GlobalExceptionHandlerTest {
         assertThat(errorResponse.getRequestId()).isNotNull();
     }
 
+    @Test
+    public void handleInvalidPriceExceptionReturns400() {
+        InvalidPriceException exception = new InvalidPriceException("Invalid price.");
+
+        ResponseEntity<ErrorResponse> responseEntity =
+                globalExceptionHandler.handleInvalidPriceException(exception);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(responseEntity.getBody().getError()).isEqualTo("Invalid price.");
+    }
+
     @Test
     public void handleMethodArgumentNotValidExceptionReturns400() {
         String errorMessage = "Validation error on argument!";
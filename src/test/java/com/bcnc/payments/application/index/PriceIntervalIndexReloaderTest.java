@@ -0,0 +1,65 @@
+package com.bcnc.payments.application.index;
+
+import com.bcnc.payments.domain.price.Price;
+import com.bcnc.payments.domain.price.PriceIntervalIndex;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PriceIntervalIndexReloaderTest {
+
+    private final DatabasePricePort priceRepository = mock(DatabasePricePort.class);
+    private final PriceIntervalIndex index = new PriceIntervalIndex();
+    private final PriceIntervalIndexReloader reloader = new PriceIntervalIndexReloader(priceRepository, index);
+    private final PriceKey key = new PriceKey(35455L, 1L);
+    private final LocalDateTime date = LocalDateTime.of(2020, 7, 1, 12, 0);
+
+    private static Price price(long id, int priority) {
+        return Price.builder()
+                .id(id)
+                .brandId(1L)
+                .startDate(LocalDateTime.of(2020, 6, 14, 0, 0))
+                .endDate(LocalDateTime.of(2020, 12, 31, 23, 59, 59))
+                .priceList(id)
+                .productId(35455L)
+                .priority(priority)
+                .price(BigDecimal.valueOf(35.50))
+                .curr("EUR")
+                .build();
+    }
+
+    @Test
+    public void writeCommittedWhileTheSnapshotIsReadIsNotLost() {
+        // The create lands after the snapshot was read but before it is swapped in.
+        when(priceRepository.findAll()).thenReturn(Flux.just(price(1L, 0))
+                .doOnComplete(() -> index.add(price(2L, 1))));
+        when(priceRepository.findAllByProductIdAndBrandIdIn(Set.of(key)))
+                .thenReturn(Flux.just(price(1L, 0), price(2L, 1)));
+
+        assertThat(reloader.reload().block()).isEqualTo(1);
+
+        assertThat(index.find(35455L, 1L, date).getPriceList()).isEqualTo(2L);
+        verify(priceRepository).findAllByProductIdAndBrandIdIn(Set.of(key));
+    }
+
+    @Test
+    public void failedReloadStopsRecordingWrites() {
+        when(priceRepository.findAll()).thenReturn(Flux.error(new IllegalStateException("down")));
+
+        reloader.reload().onErrorComplete().block();
+        index.add(price(2L, 1));
+
+        assertThat(index.load(List.of(price(1L, 0)))).isEmpty();
+    }
+}
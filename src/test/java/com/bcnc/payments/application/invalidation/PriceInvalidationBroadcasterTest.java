@@ -0,0 +1,168 @@
+package com.bcnc.payments.application.invalidation;
+
+import com.bcnc.payments.adapter.out.invalidation.LoopbackInvalidationBus;
+import com.bcnc.payments.application.cache.PriceTimelineCache;
+import com.bcnc.payments.application.cache.PriceTimelineCacheSettings;
+import com.bcnc.payments.application.index.PriceIntervalIndexReloader;
+import com.bcnc.payments.domain.price.PriceIntervalIndex;
+import com.bcnc.payments.domain.price.PriceInvalidation;
+import com.bcnc.payments.domain.price.PriceKey;
+import com.bcnc.payments.domain.price.PriceKeyFilter;
+import com.bcnc.payments.domain.price.PriceTimeline;
+import com.bcnc.payments.port.out.DatabasePricePort;
+import com.bcnc.payments.port.out.PriceInvalidationBusPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PriceInvalidationBroadcasterTest {
+
+    private final PriceKey key = new PriceKey(35455L, 1L);
+    private final PriceKey other = new PriceKey(35456L, 1L);
+    private final LoopbackInvalidationBus bus = new LoopbackInvalidationBus();
+    private final DatabasePricePort priceRepository = mock(DatabasePricePort.class);
+    private final List<PriceInvalidationBroadcaster> broadcasters = new ArrayList<>();
+    private PriceInvalidationBroadcaster sender;
+    private PriceInvalidationBroadcaster receiver;
+    private PriceTimelineCache receiverCache;
+    private SimpleMeterRegistry receiverMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        when(priceRepository.findAllKeys()).thenReturn(Flux.just(key));
+        sender = broadcaster(bus, cache(), new SimpleMeterRegistry());
+        receiverCache = cache();
+        receiverMetrics = new SimpleMeterRegistry();
+        receiver = broadcaster(bus, receiverCache, receiverMetrics);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        broadcasters.forEach(PriceInvalidationBroadcaster::stop);
+    }
+
+    @Test
+    public void keysChangedOnOneNodeAreInvalidatedOnPeers() {
+        cacheOnReceiver(key);
+        cacheOnReceiver(other);
+
+        sender.broadcast(key);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> receiverCache.getIfPresent(key) == null);
+        assertThat(receiverCache.getIfPresent(other)).isNotNull();
+        assertThat(receiverMetrics.get("prices.invalidation.flushes").counter().count()).isZero();
+    }
+
+    @Test
+    public void repeatedChangesAreCoalescedIntoOneBatch() {
+        PriceInvalidationBusPort recording = mock(PriceInvalidationBusPort.class);
+        List<PriceInvalidation> published = new CopyOnWriteArrayList<>();
+        when(recording.received()).thenReturn(Flux.never());
+        when(recording.publish(any())).thenAnswer(invocation -> {
+            published.add(invocation.getArgument(0));
+            return Mono.empty();
+        });
+        PriceInvalidationBroadcaster batching = broadcaster(recording, cache(), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 10; i++) {
+            batching.broadcast(i % 2 == 0 ? key : other);
+        }
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !published.isEmpty());
+        assertThat(published).singleElement().satisfies(batch -> {
+            assertThat(batch.sequence()).isEqualTo(1L);
+            assertThat(batch.keys()).containsExactlyInAnyOrder(key, other);
+        });
+    }
+
+    @Test
+    public void missedBatchFlushesTheLocalCaches() {
+        PriceKeyFilter filter = new PriceKeyFilter();
+        filter.load(List.of(key));
+        PriceInvalidationBroadcaster node = new PriceInvalidationBroadcaster(bus, receiverCache, new PriceIntervalIndex(),
+                reloader(), filter, priceRepository, receiverMetrics, 10, Duration.ofMillis(20), Duration.ofMinutes(1));
+        cacheOnReceiver(key);
+        cacheOnReceiver(other);
+
+        node.receive(new PriceInvalidation("peer", 1, Set.of(key))).block();
+        cacheOnReceiver(key);
+        node.receive(new PriceInvalidation("peer", 1, Set.of(key))).block();
+
+        assertThat(receiverCache.getIfPresent(key)).isNotNull();
+        assertThat(receiverCache.getIfPresent(other)).isNotNull();
+
+        node.receive(new PriceInvalidation("peer", 3, Set.of(key))).block();
+
+        assertThat(receiverCache.getIfPresent(key)).isNull();
+        assertThat(receiverCache.getIfPresent(other)).isNull();
+        assertThat(receiverMetrics.get("prices.invalidation.flushes").counter().count()).isEqualTo(1);
+        verify(priceRepository).findAllKeys();
+        assertThat(filter.isReady()).isTrue();
+    }
+
+    @Test
+    public void heartbeatAheadOfLastBatchFlushesTheLocalCaches() {
+        cacheOnReceiver(key);
+
+        receiver.receive(new PriceInvalidation("peer", 0, Set.of())).block();
+
+        assertThat(receiverCache.getIfPresent(key)).isNotNull();
+
+        receiver.receive(new PriceInvalidation("peer", 2, Set.of())).block();
+
+        assertThat(receiverCache.getIfPresent(key)).isNull();
+        assertThat(receiverMetrics.get("prices.invalidation.flushes").counter().count()).isEqualTo(1);
+        verify(priceRepository, never()).findAll();
+    }
+
+    @Test
+    public void ownBatchesAreIgnored() {
+        cacheOnReceiver(key);
+
+        receiver.receive(new PriceInvalidation(receiver.nodeId(), 5, Set.of(key))).block();
+
+        assertThat(receiverCache.getIfPresent(key)).isNotNull();
+    }
+
+    private void cacheOnReceiver(PriceKey cached) {
+        receiverCache.get(cached, k -> Mono.just(PriceTimeline.empty())).block();
+    }
+
+    private PriceInvalidationBroadcaster broadcaster(PriceInvalidationBusPort bus, PriceTimelineCache cache,
+                                                     SimpleMeterRegistry meterRegistry) {
+        PriceInvalidationBroadcaster broadcaster = new PriceInvalidationBroadcaster(bus, cache, new PriceIntervalIndex(),
+                reloader(), new PriceKeyFilter(), priceRepository, meterRegistry, 10, Duration.ofMillis(20),
+                Duration.ofMinutes(1));
+        broadcaster.start();
+        broadcasters.add(broadcaster);
+        return broadcaster;
+    }
+
+    private PriceIntervalIndexReloader reloader() {
+        return new PriceIntervalIndexReloader(priceRepository, new PriceIntervalIndex());
+    }
+
+    private static PriceTimelineCache cache() {
+        return new PriceTimelineCache(
+                PriceTimelineCacheSettings.builder().maximumWeight(100).maximumTtl(Duration.ofMinutes(10)).build(),
+                new SimpleMeterRegistry());
+    }
+}
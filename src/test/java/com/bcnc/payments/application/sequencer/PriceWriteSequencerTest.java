@@ -0,0 +1,170 @@
+package com.bcnc.payments.application.sequencer;
+
+import com.bcnc.payments.domain.price.PriceKey;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PriceWriteSequencerTest {
+
+    private final PriceWriteSequencer sequencer = new PriceWriteSequencer(64);
+
+    @Test
+    public void stripesAreRoundedUpToPowerOfTwo() {
+        assertThat(sequencer.stripes()).isEqualTo(64);
+        assertThat(new PriceWriteSequencer(100).stripes()).isEqualTo(128);
+        assertThat(new PriceWriteSequencer(1).stripes()).isEqualTo(1);
+    }
+
+    @Test
+    public void writesToOneKeyRunOneAtATimeInArrivalOrder() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+
+        List<Mono<Integer>> writes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int id = i;
+            writes.add(sequencer.sequence(key, () -> Mono.fromCallable(() -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        order.add(id);
+                        return id;
+                    })
+                    .delayElement(Duration.ofMillis(1))
+                    .doOnTerminate(running::decrementAndGet)));
+        }
+        Flux.merge(writes).blockLast(Duration.ofSeconds(10));
+
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(order).isSorted().hasSize(50);
+    }
+
+    @Test
+    public void writesToDifferentStripesRunInParallel() {
+        Sinks.Empty<Void> release = Sinks.empty();
+        AtomicInteger started = new AtomicInteger();
+
+        PriceKey key = new PriceKey(1L, 1L);
+        PriceKey other = new PriceKey(2L, 1L);
+        assertThat(sequencer.stripe(other)).isNotEqualTo(sequencer.stripe(key));
+
+        Disposable first = sequencer.sequence(key, () -> {
+            started.incrementAndGet();
+            return release.asMono();
+        }).subscribe();
+        Integer second = sequencer.sequence(other, () -> Mono.fromSupplier(started::incrementAndGet))
+                .block(Duration.ofSeconds(1));
+
+        assertThat(second).isEqualTo(2);
+        release.tryEmitEmpty();
+        first.dispose();
+    }
+
+    @Test
+    public void cancelledWriteDoesNotLetTheNextOneOvertakeARunningWrite() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        Sinks.Empty<Void> release = Sinks.empty();
+        List<String> events = new CopyOnWriteArrayList<>();
+
+        sequencer.sequence(key, () -> release.asMono().doOnSuccess(ignored -> events.add("first"))).subscribe();
+        Disposable queued = sequencer.sequence(key, () -> Mono.fromRunnable(() -> events.add("cancelled"))).subscribe();
+        Mono<Boolean> third = sequencer.sequence(key, () -> Mono.fromSupplier(() -> events.add("third")));
+        Disposable thirdSubscription = third.subscribe();
+
+        queued.dispose();
+        assertThat(events).isEmpty();
+
+        release.tryEmitEmpty();
+
+        assertThat(events).containsExactly("first", "third");
+        thirdSubscription.dispose();
+    }
+
+    @Test
+    public void startedWriteRunsToCompletionWhenItsSubscriberCancels() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        Sinks.Empty<Void> release = Sinks.empty();
+        List<String> events = new CopyOnWriteArrayList<>();
+
+        Disposable first = sequencer.sequence(key, () -> release.asMono()
+                        .then(Mono.fromRunnable(() -> events.add("first saved")))
+                        .then(Mono.fromRunnable(() -> events.add("first indexed"))))
+                .subscribe();
+        Disposable second = sequencer.sequence(key, () -> Mono.fromRunnable(() -> events.add("second"))).subscribe();
+
+        first.dispose();
+        assertThat(events).isEmpty();
+
+        release.tryEmitEmpty();
+
+        assertThat(events).containsExactly("first saved", "first indexed", "second");
+        second.dispose();
+    }
+
+    @Test
+    public void multiKeyWriteWaitsForEveryKeyAndHoldsThemUntilItCompletes() {
+        PriceKey key = new PriceKey(1L, 1L);
+        PriceKey other = new PriceKey(2L, 1L);
+        Sinks.Empty<Void> releaseKey = Sinks.empty();
+        Sinks.Empty<Void> releaseOther = Sinks.empty();
+        Sinks.Empty<Void> releaseBatch = Sinks.empty();
+        List<String> events = new CopyOnWriteArrayList<>();
+
+        sequencer.sequence(key, () -> releaseKey.asMono().doOnSuccess(ignored -> events.add("key"))).subscribe();
+        sequencer.sequence(other, () -> releaseOther.asMono().doOnSuccess(ignored -> events.add("other"))).subscribe();
+        sequencer.sequence(List.of(key, other), () -> {
+            events.add("batch started");
+            return releaseBatch.asMono().doOnSuccess(ignored -> events.add("batch"));
+        }).subscribe();
+        sequencer.sequence(other, () -> Mono.fromRunnable(() -> events.add("after"))).subscribe();
+
+        releaseKey.tryEmitEmpty();
+        assertThat(events).containsExactly("key");
+
+        releaseOther.tryEmitEmpty();
+        assertThat(events).containsExactly("key", "other", "batch started");
+
+        releaseBatch.tryEmitEmpty();
+        assertThat(events).containsExactly("key", "other", "batch started", "batch", "after");
+    }
+
+    @Test
+    public void concurrentWritersFromManyThreadsAreSerializedPerKey() {
+        PriceKey key = new PriceKey(35455L, 1L);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger violations = new AtomicInteger();
+
+        Flux.range(0, 2000)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> sequencer.sequence(i % 2 == 0 ? key : new PriceKey((long) i, 1L), () ->
+                        Mono.fromCallable(() -> {
+                                    if (i % 2 == 0 && running.incrementAndGet() > 1) {
+                                        violations.incrementAndGet();
+                                    }
+                                    return i;
+                                })
+                                .publishOn(Schedulers.boundedElastic())
+                                .doOnTerminate(() -> {
+                                    if (i % 2 == 0) {
+                                        running.decrementAndGet();
+                                    }
+                                })))
+                .sequential()
+                .blockLast(Duration.ofSeconds(30));
+
+        assertThat(violations.get()).isZero();
+    }
+}
@@ -0,0 +1,96 @@
+package com.bcnc.payments.domain.price;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PriceIntervalIndexTest {
+
+    private final PriceIntervalIndex index = new PriceIntervalIndex();
+
+    private static Price price(long id, long productId, int priority) {
+        return Price.builder()
+                .id(id)
+                .brandId(1L)
+                .startDate(LocalDateTime.of(2020, 6, 14, 0, 0))
+                .endDate(LocalDateTime.of(2020, 12, 31, 23, 59, 59))
+                .priceList(id)
+                .productId(productId)
+                .priority(priority)
+                .price(BigDecimal.valueOf(35.50))
+                .curr("EUR")
+                .build();
+    }
+
+    @Test
+    public void indexIsNotReadyUntilLoaded() {
+        index.add(price(1L, 35455L, 0));
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.size()).isZero();
+
+        index.load(List.of(price(1L, 35455L, 0), price(2L, 35456L, 0)));
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void findUsesProductAndBrand() {
+        LocalDateTime date = LocalDateTime.of(2020, 7, 1, 12, 0);
+        index.load(List.of(price(1L, 35455L, 0)));
+
+        assertThat(index.find(35455L, 1L, date).getPriceList()).isEqualTo(1L);
+        assertThat(index.find(35455L, 2L, date)).isNull();
+        assertThat(index.find(123L, 1L, date)).isNull();
+    }
+
+    @Test
+    public void addAndRemoveUpdateTimelineIncrementally() {
+        LocalDateTime date = LocalDateTime.of(2020, 7, 1, 12, 0);
+        index.load(List.of(price(1L, 35455L, 0)));
+
+        index.add(price(2L, 35455L, 1));
+        assertThat(index.find(35455L, 1L, date).getPriceList()).isEqualTo(2L);
+
+        index.remove(price(2L, 35455L, 1));
+        assertThat(index.find(35455L, 1L, date).getPriceList()).isEqualTo(1L);
+
+        index.remove(price(1L, 35455L, 0));
+        assertThat(index.find(35455L, 1L, date)).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    public void writesDuringALoadAreReturnedForRereading() {
+        LocalDateTime date = LocalDateTime.of(2020, 7, 1, 12, 0);
+        PriceKey key = new PriceKey(35455L, 1L);
+        index.beginLoad();
+        index.add(price(2L, 35455L, 1));
+
+        assertThat(index.load(List.of(price(1L, 35455L, 0)))).containsExactly(key);
+        assertThat(index.find(35455L, 1L, date).getPriceList()).isEqualTo(1L);
+
+        assertThat(index.refresh(Set.of(key), List.of(price(1L, 35455L, 0), price(2L, 35455L, 1)))).isEmpty();
+        assertThat(index.find(35455L, 1L, date).getPriceList()).isEqualTo(2L);
+    }
+
+    @Test
+    public void removalsDuringAReloadAreReturnedForRereading() {
+        LocalDateTime date = LocalDateTime.of(2020, 7, 1, 12, 0);
+        PriceKey key = new PriceKey(35455L, 1L);
+        index.load(List.of(price(1L, 35455L, 0)));
+        index.beginLoad();
+        index.remove(price(1L, 35455L, 0));
+
+        assertThat(index.load(List.of(price(1L, 35455L, 0)))).containsExactly(key);
+        assertThat(index.refresh(Set.of(key), List.of())).isEmpty();
+        assertThat(index.find(35455L, 1L, date)).isNull();
+        assertThat(index.load(List.of())).isEmpty();
+    }
+}
@@ -0,0 +1,44 @@
+package com.bcnc.payments.domain.price;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PriceIntervalSetTest {
+
+    private static Price price(String start, String end) {
+        return Price.builder()
+                .startDate(LocalDateTime.parse(start))
+                .endDate(LocalDateTime.parse(end))
+                .build();
+    }
+
+    @Test
+    public void overlapsUsesSameBoundsAsPriceManager() {
+        PriceIntervalSet set = PriceIntervalSet.of(List.of(price("2020-06-14T00:00:00", "2020-06-15T00:00:00")));
+
+        assertThat(set.overlaps(price("2020-06-14T12:00:00", "2020-06-16T00:00:00"))).isTrue();
+        assertThat(set.overlaps(price("2020-06-15T00:00:00", "2020-06-16T00:00:00"))).isFalse();
+        assertThat(set.overlaps(price("2020-06-13T00:00:00", "2020-06-14T00:00:00"))).isFalse();
+        assertThat(set.overlaps(price("2020-06-13T00:00:00", "2020-06-17T00:00:00"))).isTrue();
+    }
+
+    @Test
+    public void addMergesOverlappingAndTouchingIntervals() {
+        PriceIntervalSet set = PriceIntervalSet.of(List.of(
+                price("2020-06-14T00:00:00", "2020-06-15T00:00:00"),
+                price("2020-06-14T10:00:00", "2020-06-14T12:00:00"),
+                price("2020-06-20T00:00:00", "2020-06-21T00:00:00")));
+
+        assertThat(set.size()).isEqualTo(2);
+
+        set.add(price("2020-06-15T00:00:00", "2020-06-20T00:00:00"));
+
+        assertThat(set.size()).isEqualTo(1);
+        assertThat(set.overlaps(price("2020-06-17T00:00:00", "2020-06-17T01:00:00"))).isTrue();
+        assertThat(set.overlaps(price("2020-06-21T00:00:00", "2020-06-22T00:00:00"))).isFalse();
+    }
+}
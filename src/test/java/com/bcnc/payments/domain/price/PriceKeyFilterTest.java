@@ -0,0 +1,61 @@
+package com.bcnc.payments.domain.price;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PriceKeyFilterTest {
+
+    private final PriceKeyFilter filter = new PriceKeyFilter();
+
+    @Test
+    public void everyKeyMightBeContainedUntilLoaded() {
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain(new PriceKey(123L, 1L))).isTrue();
+    }
+
+    @Test
+    public void loadedAndAddedKeysAreAlwaysContained() {
+        List<PriceKey> keys = new ArrayList<>();
+        for (long productId = 0; productId < 10_000; productId++) {
+            keys.add(new PriceKey(productId, 1L));
+        }
+        filter.load(keys);
+        filter.add(new PriceKey(1L, 2L));
+
+        assertThat(keys).allMatch(filter::mightContain);
+        assertThat(filter.mightContain(new PriceKey(1L, 2L))).isTrue();
+    }
+
+    @Test
+    public void unknownKeysAreMostlyRejected() {
+        List<PriceKey> keys = new ArrayList<>();
+        for (long productId = 0; productId < 10_000; productId++) {
+            keys.add(new PriceKey(productId, 1L));
+        }
+        filter.load(keys);
+
+        long falsePositives = 0;
+        for (long productId = 0; productId < 10_000; productId++) {
+            if (filter.mightContain(new PriceKey(productId, 2L))) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @Test
+    public void keysAddedWhileLoadingAreKept() {
+        filter.beginLoad();
+        filter.add(new PriceKey(35455L, 1L));
+
+        filter.load(List.of(new PriceKey(1L, 1L)));
+
+        assertThat(filter.mightContain(new PriceKey(35455L, 1L))).isTrue();
+        assertThat(filter.mightContain(new PriceKey(1L, 1L))).isTrue();
+    }
+}
@@ -10,6 +10,9 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(MockitoExtension.class)
 public class PriceManagerServiceTest {
@@ -85,4 +88,19 @@ public class PriceManagerServiceTest {
                 .expectNext(false)
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void doesPriceOverlap_WithTimeline_ChecksUnionOfExistingPrices() {
+        // Arrange
+        PriceTimeline timeline = PriceTimeline.of(List.of(existingPrice1, existingPrice2));
+        Price gap = Price.builder()
+                .startDate(LocalDateTime.of(2023, 10, 11, 0, 0))
+                .endDate(LocalDateTime.of(2023, 10, 14, 0, 0))
+                .build();
+
+        // Act & Assert
+        assertThat(priceManagerService.doesPriceOverlap(timeline, newPrice)).isTrue();
+        assertThat(priceManagerService.doesPriceOverlap(timeline, gap)).isFalse();
+        assertThat(priceManagerService.doesPriceOverlap(PriceTimeline.empty(), newPrice)).isFalse();
+    }
+}
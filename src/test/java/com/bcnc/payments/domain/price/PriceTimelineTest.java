@@ -0,0 +1,176 @@
+package com.bcnc.payments.domain.price;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PriceTimelineTest {
+
+    private PriceTimeline timeline;
+
+    private static Price price(long id, String start, String end, long priceList, int priority, double amount) {
+        return Price.builder()
+                .id(id)
+                .brandId(1L)
+                .startDate(LocalDateTime.parse(start))
+                .endDate(LocalDateTime.parse(end))
+                .priceList(priceList)
+                .productId(35455L)
+                .priority(priority)
+                .price(BigDecimal.valueOf(amount))
+                .curr("EUR")
+                .build();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        timeline = PriceTimeline.of(List.of(
+                price(1L, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 1L, 0, 35.50),
+                price(2L, "2020-06-14T15:00:00", "2020-06-14T18:30:00", 2L, 1, 25.45),
+                price(3L, "2020-06-15T00:00:00", "2020-06-15T11:00:00", 3L, 1, 30.50),
+                price(4L, "2020-06-15T16:00:00", "2020-12-31T23:59:59", 4L, 1, 38.95)));
+    }
+
+    @Test
+    public void findResolvesHighestPriorityPrice() {
+        assertThat(timeline.find(LocalDateTime.parse("2020-06-14T10:00:00")).getPriceList()).isEqualTo(1L);
+        assertThat(timeline.find(LocalDateTime.parse("2020-06-14T16:00:00")).getPriceList()).isEqualTo(2L);
+        assertThat(timeline.find(LocalDateTime.parse("2020-06-14T21:00:00")).getPriceList()).isEqualTo(1L);
+        assertThat(timeline.find(LocalDateTime.parse("2020-06-15T10:00:00")).getPriceList()).isEqualTo(3L);
+        assertThat(timeline.find(LocalDateTime.parse("2020-06-16T21:00:00")).getPriceList()).isEqualTo(4L);
+    }
+
+    @Test
+    public void findIncludesBothIntervalBounds() {
+        assertThat(timeline.find(LocalDateTime.parse("2020-06-14T18:30:00")).getPriceList()).isEqualTo(2L);
+        assertThat(timeline.find(LocalDateTime.parse("2020-06-14T18:30:01")).getPriceList()).isEqualTo(1L);
+        assertThat(timeline.find(LocalDateTime.parse("2020-12-31T23:59:59")).getPriceList()).isEqualTo(4L);
+    }
+
+    @Test
+    public void findOutsideTimelineReturnsNull() {
+        assertThat(timeline.find(LocalDateTime.parse("2020-06-13T23:59:59"))).isNull();
+        assertThat(timeline.find(LocalDateTime.parse("2021-01-01T00:00:00"))).isNull();
+        assertThat(PriceTimeline.empty().find(LocalDateTime.parse("2020-06-14T10:00:00"))).isNull();
+    }
+
+    @Test
+    public void findReturnsOriginalIntervalOfWinningPrice() {
+        CurrentPrice price = timeline.find(LocalDateTime.parse("2020-06-14T21:00:00"));
+
+        assertThat(price.getStartDate()).isEqualTo(LocalDateTime.parse("2020-06-14T00:00:00"));
+        assertThat(price.getEndDate()).isEqualTo(LocalDateTime.parse("2020-12-31T23:59:59"));
+        assertThat(price.getPrice()).isEqualByComparingTo(BigDecimal.valueOf(35.50));
+    }
+
+    @Test
+    public void segmentsAreMergedPerWinningPrice() {
+        assertThat(timeline.size()).isEqualTo(6);
+    }
+
+    @Test
+    public void withAndWithoutReturnUpdatedTimelines() {
+        PriceTimeline updated = timeline.with(
+                price(5L, "2020-06-16T00:00:00", "2020-06-17T00:00:00", 2L, 5, 10.00));
+
+        assertThat(updated.find(LocalDateTime.parse("2020-06-16T21:00:00")).getPriceList()).isEqualTo(2L);
+        assertThat(timeline.find(LocalDateTime.parse("2020-06-16T21:00:00")).getPriceList()).isEqualTo(4L);
+
+        PriceTimeline removed = updated.without(5L).without(4L);
+
+        assertThat(removed.find(LocalDateTime.parse("2020-06-16T21:00:00")).getPriceList()).isEqualTo(1L);
+        assertThat(removed.getPrices()).hasSize(3);
+        assertThat(removed.without(99L)).isSameAs(removed);
+    }
+
+    @Test
+    public void overlapsUsesUnionOfPriceIntervals() {
+        PriceTimeline shadowed = PriceTimeline.of(List.of(
+                price(1L, "2020-06-14T00:00:00", "2020-06-14T23:59:59", 1L, 0, 35.50),
+                price(2L, "2020-06-14T10:00:00", "2020-06-14T12:00:00", 2L, 1, 25.45),
+                price(3L, "2020-06-16T00:00:00", "2020-06-16T23:59:59", 3L, 0, 30.50)));
+
+        assertThat(shadowed.overlaps(
+                LocalDateTime.parse("2020-06-14T12:00:00"), LocalDateTime.parse("2020-06-14T12:00:00.000001"))).isTrue();
+        assertThat(shadowed.overlaps(
+                LocalDateTime.parse("2020-06-14T23:59:59"), LocalDateTime.parse("2020-06-15T23:59:59"))).isFalse();
+        assertThat(shadowed.overlaps(
+                LocalDateTime.parse("2020-06-15T00:00:00"), LocalDateTime.parse("2020-06-16T00:00:00"))).isFalse();
+        assertThat(shadowed.overlaps(
+                LocalDateTime.parse("2020-06-15T00:00:00"), LocalDateTime.parse("2020-06-16T00:00:01"))).isTrue();
+        assertThat(shadowed.overlaps(
+                LocalDateTime.parse("2020-06-10T00:00:00"), LocalDateTime.parse("2020-06-20T00:00:00"))).isTrue();
+        assertThat(PriceTimeline.empty().overlaps(
+                LocalDateTime.parse("2020-06-10T00:00:00"), LocalDateTime.parse("2020-06-20T00:00:00"))).isFalse();
+    }
+
+    @Test
+    public void nextBoundaryAfterReturnsNextChangeOfPriceInEffect() {
+        assertThat(timeline.nextBoundaryAfter(LocalDateTime.parse("2020-06-01T00:00:00")))
+                .isEqualTo(LocalDateTime.parse("2020-06-14T00:00:00"));
+        assertThat(timeline.nextBoundaryAfter(LocalDateTime.parse("2020-06-14T10:00:00")))
+                .isEqualTo(LocalDateTime.parse("2020-06-14T15:00:00"));
+        assertThat(timeline.nextBoundaryAfter(LocalDateTime.parse("2020-06-14T16:00:00")))
+                .isEqualTo(LocalDateTime.parse("2020-06-14T18:30:00.000001"));
+        assertThat(timeline.nextBoundaryAfter(LocalDateTime.parse("2020-07-01T00:00:00")))
+                .isEqualTo(LocalDateTime.parse("2020-12-31T23:59:59.000001"));
+        assertThat(timeline.nextBoundaryAfter(LocalDateTime.parse("2021-01-01T00:00:00"))).isNull();
+    }
+
+    @Test
+    public void findIntervalReturnsPriceAndNextChange() {
+        CurrentPriceInterval interval = timeline.findInterval(LocalDateTime.parse("2020-06-14T16:00:00"));
+
+        assertThat(interval.getPrice().getPriceList()).isEqualTo(2L);
+        assertThat(interval.getValidUntil()).isEqualTo(LocalDateTime.parse("2020-06-14T18:30:00.000001"));
+        assertThat(timeline.findInterval(LocalDateTime.parse("2021-01-01T00:00:00"))).isNull();
+    }
+
+    @Test
+    public void segmentsAreClippedToRequestedRange() {
+        List<PriceSegment> segments = timeline.segments(
+                LocalDateTime.parse("2020-06-14T12:00:00"), LocalDateTime.parse("2020-06-15T10:00:00"));
+
+        assertThat(segments).extracting(segment -> segment.getPrice().getPriceList()).containsExactly(1L, 2L, 1L, 3L);
+        assertThat(segments.get(0).getStartDate()).isEqualTo(LocalDateTime.parse("2020-06-14T12:00:00"));
+        assertThat(segments.get(1).getStartDate()).isEqualTo(LocalDateTime.parse("2020-06-14T15:00:00"));
+        assertThat(segments.get(1).getEndDate()).isEqualTo(LocalDateTime.parse("2020-06-14T18:30:00"));
+        assertThat(segments.get(2).getStartDate()).isEqualTo(LocalDateTime.parse("2020-06-14T18:30:00.000001"));
+        assertThat(segments.get(3).getEndDate()).isEqualTo(LocalDateTime.parse("2020-06-15T10:00:00"));
+    }
+
+    @Test
+    public void segmentsOutsideTimelineAreEmpty() {
+        assertThat(timeline.segments(
+                LocalDateTime.parse("2020-01-01T00:00:00"), LocalDateTime.parse("2020-06-13T23:59:59"))).isEmpty();
+        assertThat(timeline.segments(
+                LocalDateTime.parse("2020-06-14T18:30:00"), LocalDateTime.parse("2020-06-14T18:30:00")))
+                .singleElement()
+                .satisfies(segment -> assertThat(segment.getPrice().getPriceList()).isEqualTo(2L));
+        assertThat(PriceTimeline.empty().segments(
+                LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-06-15T00:00:00"))).isEmpty();
+    }
+
+    @Test
+    public void windowedTimelineOnlyCoversItsWindow() {
+        LocalDateTime from = LocalDateTime.parse("2020-06-14T12:00:00");
+        LocalDateTime to = LocalDateTime.parse("2020-06-14T16:00:00");
+        PriceTimeline windowed = PriceTimeline.of(timeline.getPrices().subList(0, 2), from, to);
+
+        assertThat(windowed.covers(LocalDateTime.parse("2020-06-14T16:00:00"))).isTrue();
+        assertThat(windowed.covers(LocalDateTime.parse("2020-06-14T16:00:01"))).isFalse();
+        assertThat(windowed.covers(from, LocalDateTime.parse("2020-06-14T17:00:00"))).isFalse();
+        assertThat(windowed.find(LocalDateTime.parse("2020-06-14T15:30:00")).getPriceList()).isEqualTo(2L);
+        assertThat(windowed.nextBoundaryAfter(LocalDateTime.parse("2020-06-14T12:00:00")))
+                .isEqualTo(LocalDateTime.parse("2020-06-14T15:00:00"));
+        assertThat(windowed.nextBoundaryAfter(LocalDateTime.parse("2020-06-14T15:30:00")))
+                .isEqualTo(LocalDateTime.parse("2020-06-14T16:00:00.000001"));
+        assertThat(timeline.covers(LocalDateTime.parse("1970-01-01T00:00:00"))).isTrue();
+        assertThat(PriceTimeline.of(List.of(), from, to).covers(from)).isTrue();
+    }
+}